@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -110,6 +111,31 @@ public class AsyncEmailService {
         logger.info("Bulk email tasks submitted to thread pool");
     }
     
+    /**
+     * Send a batch of individual emails asynchronously
+     * The batch is one task and one mail server session, rather than one of each per message
+     * 
+     * @param subject email subject
+     * @param bodies recipient email to email body
+     */
+    public void sendBatchAsync(String subject, Map<String, String> bodies) {
+        executorService.submit(() -> {
+            if (mailSender == null) {
+                logger.warn("JavaMailSender not configured. {} emails not sent: {}", bodies.size(), subject);
+                return;
+            }
+            SimpleMailMessage[] messages = bodies.entrySet().stream()
+                    .map(entry -> message(entry.getKey(), subject, entry.getValue()))
+                    .toArray(SimpleMailMessage[]::new);
+            try {
+                mailSender.send(messages);
+                logger.info("Sent batch of {} emails: {}", messages.length, subject);
+            } catch (Exception e) {
+                logger.error("Failed to send batch of " + messages.length + " emails: " + subject, e);
+            }
+        });
+    }
+    
     /**
      * Send password reset email asynchronously
      * 
@@ -177,13 +203,7 @@ public class AsyncEmailService {
         }
         
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            message.setFrom("noreply@ecommerce.com");
-            
-            mailSender.send(message);
+            mailSender.send(message(to, subject, body));
             
         } catch (Exception e) {
             logger.error("Error sending email", e);
@@ -191,6 +211,15 @@ public class AsyncEmailService {
         }
     }
     
+    private static SimpleMailMessage message(String to, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        message.setFrom("noreply@ecommerce.com");
+        return message;
+    }
+    
     /**
      * Generate order confirmation email content
      * 
@@ -0,0 +1,297 @@
+package com.ecommerce.async;
+
+import com.ecommerce.dao.StockShardDAO;
+import com.ecommerce.dao.StockShardRouter;
+import com.ecommerce.dao.TransactionManager;
+import com.ecommerce.model.StockShard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-SKU stock service for flash-sale products
+ * Demonstrates lock striping: one product's stock is split over N shard rows
+ * so concurrent checkouts contend on different InnoDB rows
+ *
+ * A reservation tries one random shard that holds enough stock; if none does, all
+ * shards are locked in shard order and drained across. A transaction therefore holds
+ * either one shard or a prefix of the shard order, never one shard while waiting for
+ * a lower one, so reservations cannot deadlock each other. A fast attempt that finds
+ * its shard drained since it was read is rolled back rather than continued, and the
+ * product reserves on the ordered path until it is restocked.
+ * A background task writes the shard total back to products.stock_quantity.
+ *
+ * While a product is hot, its stock must be changed through this service only;
+ * {@link com.ecommerce.dao.ProductDAO} routes its relative stock writes here.
+ */
+@Service
+public class HotSkuStockService implements StockShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotSkuStockService.class);
+
+    /** Serialization failure: the transaction is rolled back and may be rerun */
+    private static final String RERUN_SQL_STATE = "40001";
+
+    @Autowired
+    private StockShardDAO stockShardDAO;
+
+    @Autowired
+    private TransactionManager transactionManager;
+
+    @Value("${inventory.hot-sku.default-shards:8}")
+    private int defaultShards;
+
+    @Value("${inventory.hot-sku.reconcile-interval-ms:5000}")
+    private long reconcileIntervalMs;
+
+    // productId -> number of shards, loaded lazily from the database
+    private final ConcurrentHashMap<Long, Integer> hotProducts = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    // Products whose fast path found a drained shard since their last restock
+    private final Set<Long> orderedOnly = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService reconciler;
+
+    @PostConstruct
+    public void init() {
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hot-sku-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcileAll,
+            reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("HotSkuStockService initialized, reconciling every {} ms", reconcileIntervalMs);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+        reconcileAll();
+    }
+
+    /**
+     * Check whether a product is in hot-SKU mode
+     *
+     * @param productId product ID
+     * @return true if the product's stock is sharded
+     */
+    public boolean isHot(Long productId) {
+        ensureLoaded();
+        return hotProducts.containsKey(productId);
+    }
+
+    @Override
+    public boolean isSharded(Long productId) {
+        return isHot(productId);
+    }
+
+    /**
+     * Enable hot-SKU mode by splitting current stock over shard rows
+     *
+     * @param productId product ID
+     * @param shards number of shards, or 0 for the configured default
+     * @return number of shards created
+     */
+    public int enable(Long productId, int shards) {
+        int shardCount = shards > 0 ? shards : defaultShards;
+        if (isHot(productId)) {
+            return hotProducts.get(productId);
+        }
+
+        transactionManager.executeInTransaction(conn ->
+            stockShardDAO.createShards(conn, productId, shardCount));
+        orderedOnly.remove(productId);
+        hotProducts.put(productId, shardCount);
+        return shardCount;
+    }
+
+    /**
+     * Disable hot-SKU mode and fold shard stock back into the product row
+     *
+     * @param productId product ID
+     */
+    public void disable(Long productId) {
+        transactionManager.executeInTransactionVoid(conn ->
+            stockShardDAO.collapseShards(conn, productId));
+        hotProducts.remove(productId);
+        orderedOnly.remove(productId);
+    }
+
+    /**
+     * Reserve stock for a hot product within the caller's transaction
+     * The caller's transaction must be rerunnable: if the shard picked for the fast path
+     * was drained since it was read, it stays locked by the failed UPDATE, and locking the
+     * other shards from there could deadlock. The reservation then throws instead, and
+     * the transaction is rolled back and rerun (see
+     * {@link TransactionManager#executeInTransaction(int, TransactionManager.TransactionCallback)}).
+     *
+     * @param conn transactional connection
+     * @param productId product ID
+     * @param quantity quantity to reserve
+     * @return true if reserved, false if total shard stock is insufficient
+     * @throws SQLTransactionRollbackException (SQLState 40001) if the transaction must be rerun
+     */
+    public boolean reserve(Connection conn, Long productId, int quantity) throws SQLException {
+        int shards = hotProducts.getOrDefault(productId, 0);
+        if (shards == 0) {
+            throw new IllegalStateException("Product " + productId + " is not in hot-SKU mode");
+        }
+        if (orderedOnly.contains(productId)) {
+            return reserveInOrder(conn, productId, quantity);
+        }
+
+        // Fast path: one shard that held enough when read, picked at random and locked alone
+        List<Integer> candidates = new ArrayList<>();
+        for (StockShard shard : stockShardDAO.findByProductId(productId)) {
+            if (shard.getQuantity() >= quantity) {
+                candidates.add(shard.getShardNo());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return reserveInOrder(conn, productId, quantity);
+        }
+        int shardNo = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        if (stockShardDAO.reserveFromShard(conn, productId, shardNo, quantity)) {
+            return true;
+        }
+        orderedOnly.add(productId);
+        logger.debug("Hot SKU {} shard {} drained since read, rerunning on the ordered path", productId, shardNo);
+        throw new SQLTransactionRollbackException("Stock shard " + shardNo + " of product " + productId
+                + " was drained since it was read", RERUN_SQL_STATE);
+    }
+
+    /**
+     * Lock every shard in shard order and drain across them; never waits while holding a
+     * shard out of order
+     */
+    private boolean reserveInOrder(Connection conn, Long productId, int quantity) throws SQLException {
+        List<StockShard> locked = stockShardDAO.lockShards(conn, productId);
+        int total = locked.stream().mapToInt(StockShard::getQuantity).sum();
+        if (total < quantity) {
+            return false;
+        }
+
+        int remaining = quantity;
+        for (StockShard shard : locked) {
+            int take = Math.min(remaining, shard.getQuantity());
+            if (take > 0) {
+                stockShardDAO.reserveFromShard(conn, productId, shard.getShardNo(), take);
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        logger.debug("Hot SKU {} reserved {} across shards", productId, quantity);
+        return true;
+    }
+
+    /**
+     * Return stock to a random shard of a hot product
+     *
+     * @param conn transactional connection
+     * @param productId product ID
+     * @param quantity quantity to add back
+     */
+    public void release(Connection conn, Long productId, int quantity) throws SQLException {
+        int shards = hotProducts.getOrDefault(productId, 0);
+        if (shards == 0) {
+            throw new IllegalStateException("Product " + productId + " is not in hot-SKU mode");
+        }
+        stockShardDAO.releaseToShard(conn, productId, ThreadLocalRandom.current().nextInt(shards), quantity);
+        orderedOnly.remove(productId);
+    }
+
+    @Override
+    public Integer adjust(Connection conn, Long productId, int delta) throws SQLException {
+        // Stock adjustments are not rerun, so they take the ordered path only
+        if (delta >= 0) {
+            release(conn, productId, delta);
+        } else if (!reserveInOrder(conn, productId, -delta)) {
+            return null;
+        }
+        return stockShardDAO.sumShards(conn, productId);
+    }
+
+    /**
+     * Total stock currently held in a hot product's shards
+     *
+     * @param conn connection to read with (sees the caller's uncommitted changes)
+     * @param productId product ID
+     * @return sum of shard quantities
+     */
+    public int available(Connection conn, Long productId) throws SQLException {
+        return stockShardDAO.lockShards(conn, productId).stream()
+                .mapToInt(StockShard::getQuantity)
+                .sum();
+    }
+
+    /**
+     * Write shard totals of all hot products back to products.stock_quantity
+     */
+    public void reconcileAll() {
+        if (!loaded) {
+            return;
+        }
+        for (Long productId : hotProducts.keySet()) {
+            try {
+                stockShardDAO.reconcile(productId);
+            } catch (SQLException e) {
+                logger.error("Error reconciling stock shards for product: " + productId, e);
+            }
+        }
+    }
+
+    /**
+     * Get hot products and their shard counts
+     *
+     * @return map of product ID to shard count
+     */
+    public Map<Long, Integer> getHotProducts() {
+        ensureLoaded();
+        return new HashMap<>(hotProducts);
+    }
+
+    /**
+     * Load existing shard configuration on first use
+     * Deferred so that startup does not depend on the schema being present
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                try {
+                    hotProducts.putAll(stockShardDAO.findShardCounts());
+                    loaded = true;
+                    logger.info("Loaded {} hot SKUs", hotProducts.size());
+                } catch (SQLException e) {
+                    logger.error("Error loading hot SKUs", e);
+                }
+            }
+        }
+    }
+}
@@ -49,17 +49,8 @@ public class InventoryUpdateService {
                 logger.debug("Updating stock for product {}: quantity change = {}", 
                            productId, quantity);
                 
-                // Get or create atomic counter for this product
-                AtomicInteger stock = stockCache.computeIfAbsent(
-                    productId, 
-                    k -> new AtomicInteger(getCurrentStock(productId))
-                );
-                
-                // Update stock atomically
-                int newStock = stock.addAndGet(quantity);
-                
-                // Persist to database
-                persistToDatabase(productId, newStock);
+                // Apply the change in the database and refresh the cached count from it
+                int newStock = persistToDatabase(productId, quantity);
                 
                 logger.info("Stock updated for product {}: new quantity = {}", 
                           productId, newStock);
@@ -104,13 +95,7 @@ public class InventoryUpdateService {
     public void updateStockSync(Long productId, int quantity) {
         inventoryLock.lock();
         try {
-            AtomicInteger stock = stockCache.computeIfAbsent(
-                productId,
-                k -> new AtomicInteger(getCurrentStock(productId))
-            );
-            
-            int newStock = stock.addAndGet(quantity);
-            persistToDatabase(productId, newStock);
+            int newStock = persistToDatabase(productId, quantity);
             
             logger.debug("Sync stock update for product {}: new quantity = {}", 
                        productId, newStock);
@@ -146,18 +131,29 @@ public class InventoryUpdateService {
     }
     
     /**
-     * Persist stock quantity to database
+     * Persist a stock change to the database
+     * The change is applied relative to the stored quantity, so decrements made
+     * elsewhere (e.g. checkout) between our read and write are not lost
      * 
      * @param productId product ID
-     * @param quantity new quantity
+     * @param quantity quantity change
+     * @return new stock quantity
      */
-    private void persistToDatabase(Long productId, int quantity) {
+    private int persistToDatabase(Long productId, int quantity) {
+        Integer newStock;
         try {
-            productDAO.updateStock(productId, quantity);
+            newStock = productDAO.adjustStock(productId, quantity);
         } catch (Exception e) {
             logger.error("Error persisting stock to database", e);
             throw new RuntimeException("Failed to persist stock: " + e.getMessage());
         }
+        if (newStock == null) {
+            stockCache.remove(productId);
+            throw new RuntimeException("Stock change of " + quantity + " rejected for product " + productId 
+                + ": product missing or stock would go negative");
+        }
+        stockCache.computeIfAbsent(productId, k -> new AtomicInteger()).set(newStock);
+        return newStock;
     }
     
     /**
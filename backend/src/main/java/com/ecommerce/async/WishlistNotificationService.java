@@ -0,0 +1,296 @@
+package com.ecommerce.async;
+
+import com.ecommerce.dao.ProductChangeListener;
+import com.ecommerce.dao.UserDAO;
+import com.ecommerce.dao.WishlistDAO;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.model.Wishlist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Back-in-stock and price-drop notifications for wishlisted products
+ * Keeps a reverse index from product ID to the users watching it, so a product write only
+ * asks a map whether anyone is interested instead of querying the wishlist table. The index
+ * is loaded at startup, kept current by wishlist adds and removes, and reloaded periodically
+ * to pick up changes made through other instances.
+ *
+ * Changes reported by {@link com.ecommerce.dao.ProductDAO} are queued and sent in batches:
+ * every interval the queued changes are fanned out to their watchers, each user gets one
+ * digest email, and recipients are resolved and mailed through {@link AsyncEmailService}
+ * a batch at a time.
+ */
+@Service
+public class WishlistNotificationService implements ProductChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WishlistNotificationService.class);
+    private static final String SUBJECT = "Good news about your wishlist";
+
+    @Autowired
+    private WishlistDAO wishlistDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private AsyncEmailService asyncEmailService;
+
+    @Value("${app.wishlist.notify-interval-ms:60000}")
+    private long notifyIntervalMs;
+
+    @Value("${app.wishlist.email-batch-size:50}")
+    private int emailBatchSize;
+
+    @Value("${app.wishlist.index-reload-minutes:30}")
+    private long indexReloadMinutes;
+
+    // productId -> IDs of users with the product on their wishlist; products without watchers are absent
+    private final ConcurrentHashMap<Long, Set<Long>> watchers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final LongAdder emailsQueued = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "wishlist-notifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadIndex, 0, indexReloadMinutes, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(this::flush, notifyIntervalMs, notifyIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("WishlistNotificationService initialized, sending every {} ms", notifyIntervalMs);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Record that a user added a product to their wishlist
+     */
+    public void watch(Long userId, Long productId) {
+        watchers.computeIfAbsent(productId, k -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    /**
+     * Record that a user removed a product from their wishlist
+     */
+    public void unwatch(Long userId, Long productId) {
+        watchers.computeIfPresent(productId, (k, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    @Override
+    public boolean isWatching(Long productId) {
+        return productId != null && watchers.containsKey(productId);
+    }
+
+    @Override
+    public void productChanged(Product before, BigDecimal newPrice, int newStock) {
+        Change change = new Change(before.getId(), before.getName(), before.getPrice(), newPrice,
+                before.isInStock(), newStock > 0);
+        // Rises and sell-outs are queued too: a drop followed by a rise, or a restock followed
+        // by a sell-out, within one interval nets out
+        if (change.isStockChange() || change.isPriceChange()) {
+            changes.add(change);
+        }
+    }
+
+    /**
+     * Notifier state for monitoring
+     *
+     * @return watched products, queued changes and emails handed to the email service
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("watchedProducts", watchers.size());
+        stats.put("queuedChanges", changes.size());
+        stats.put("emailsQueued", emailsQueued.sum());
+        return stats;
+    }
+
+    /**
+     * Send one digest per user for the changes queued since the last run
+     */
+    private void flush() {
+        try {
+            if (changes.isEmpty()) {
+                return;
+            }
+
+            // Several writes to one product within an interval are reported as their net change
+            Map<Long, Change> byProduct = new LinkedHashMap<>();
+            Change change;
+            while ((change = changes.poll()) != null) {
+                byProduct.merge(change.productId, change, Change::then);
+            }
+
+            Map<Long, List<Change>> byUser = new HashMap<>();
+            for (Change net : byProduct.values()) {
+                Set<Long> users = watchers.get(net.productId);
+                if (users == null || !net.isNotable()) {
+                    continue;
+                }
+                for (Long userId : users) {
+                    byUser.computeIfAbsent(userId, k -> new ArrayList<>()).add(net);
+                }
+            }
+            if (byUser.isEmpty()) {
+                return;
+            }
+
+            List<Long> userIds = new ArrayList<>(byUser.keySet());
+            for (int from = 0; from < userIds.size(); from += emailBatchSize) {
+                sendBatch(userIds.subList(from, Math.min(from + emailBatchSize, userIds.size())), byUser);
+            }
+            logger.info("Wishlist notifications: {} product changes sent to {} users", byProduct.size(), userIds.size());
+        } catch (RuntimeException e) {
+            // A failed run must not cancel the schedule
+            logger.error("Wishlist notification run failed", e);
+        }
+    }
+
+    /**
+     * Resolve one batch of recipients with a single query and hand their emails over as one task
+     */
+    private void sendBatch(List<Long> userIds, Map<Long, List<Change>> byUser) {
+        Map<Long, User> users;
+        try {
+            users = userDAO.findSummariesByIds(userIds);
+        } catch (SQLException e) {
+            logger.error("Failed to load wishlist notification recipients", e);
+            return;
+        }
+
+        Map<String, String> bodies = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            User user = users.get(userId);
+            if (user != null && user.getEmail() != null) {
+                bodies.put(user.getEmail(), digest(user, byUser.get(userId)));
+            }
+        }
+        if (!bodies.isEmpty()) {
+            asyncEmailService.sendBatchAsync(SUBJECT, bodies);
+            emailsQueued.add(bodies.size());
+        }
+    }
+
+    private static String digest(User user, List<Change> userChanges) {
+        StringBuilder body = new StringBuilder();
+        body.append("Hello ").append(user.getFirstName() != null ? user.getFirstName() : "there").append(",\n\n");
+        body.append("Items on your wishlist have changed:\n\n");
+        for (Change change : userChanges) {
+            body.append("- ").append(change.name);
+            if (change.isBackInStock()) {
+                body.append(" is back in stock");
+            }
+            if (change.isPriceDrop()) {
+                body.append(change.isBackInStock() ? " and" : "")
+                    .append(" dropped from $").append(change.oldPrice)
+                    .append(" to $").append(change.newPrice);
+            }
+            body.append("\n");
+        }
+        body.append("\nBest regards,\nE-Commerce Team");
+        return body.toString();
+    }
+
+    /**
+     * Rebuild the reverse index from the wishlist table
+     * A watch racing with the reload may be missed until the next one
+     */
+    private void reloadIndex() {
+        Map<Long, Set<Long>> loaded = new HashMap<>();
+        try (Stream<Wishlist> rows = wishlistDAO.streamAll()) {
+            rows.forEach(row -> loaded.computeIfAbsent(row.getProductId(), k -> ConcurrentHashMap.newKeySet())
+                    .add(row.getUserId()));
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Failed to load wishlist watcher index: {}", e.getMessage());
+            return;
+        }
+        watchers.keySet().retainAll(loaded.keySet());
+        watchers.putAll(loaded);
+        logger.info("Wishlist watcher index loaded: {} watched products", loaded.size());
+    }
+
+    /**
+     * Price and stock change of one product
+     * Keeps the state before the first and after the last write, so a combined change
+     * reports only the net effect
+     */
+    private static final class Change {
+        private final Long productId;
+        private final String name;
+        private final BigDecimal oldPrice;
+        private final BigDecimal newPrice;
+        private final boolean wasInStock;
+        private final boolean inStock;
+
+        Change(Long productId, String name, BigDecimal oldPrice, BigDecimal newPrice,
+               boolean wasInStock, boolean inStock) {
+            this.productId = productId;
+            this.name = name;
+            this.oldPrice = oldPrice;
+            this.newPrice = newPrice;
+            this.wasInStock = wasInStock;
+            this.inStock = inStock;
+        }
+
+        boolean isBackInStock() {
+            return !wasInStock && inStock;
+        }
+
+        boolean isStockChange() {
+            return wasInStock != inStock;
+        }
+
+        boolean isPriceDrop() {
+            return oldPrice != null && newPrice != null && newPrice.compareTo(oldPrice) < 0;
+        }
+
+        boolean isPriceChange() {
+            return oldPrice != null && newPrice != null && newPrice.compareTo(oldPrice) != 0;
+        }
+
+        boolean isNotable() {
+            return isBackInStock() || isPriceDrop();
+        }
+
+        /**
+         * Combine with a later change of the same product
+         */
+        Change then(Change later) {
+            return new Change(productId, later.name, oldPrice, later.newPrice, wasInStock, later.inStock);
+        }
+    }
+}
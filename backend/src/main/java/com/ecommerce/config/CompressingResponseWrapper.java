@@ -0,0 +1,386 @@
+package com.ecommerce.config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Response wrapper that gzips the body once it grows past a minimum size
+ * The first bytes are held in a pooled buffer until either the threshold is passed
+ * (the response is gzipped) or the body ends (it is sent as is, with Content-Length).
+ * Responses that cannot be compressed skip the buffer entirely.
+ *
+ * Not thread-safe; a response is written by one thread at a time.
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final int UNDECIDED = 0;
+    private static final int PLAIN = 1;
+    private static final int GZIP = 2;
+
+    private static final byte[] GZIP_HEADER = {
+        (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private final ResponseCompressionFilter filter;
+    private final boolean gzipAccepted;
+
+    private int mode = UNDECIDED;
+    private boolean finished;
+    private byte[] buffer;
+    private int buffered;
+    private long heldContentLength = -1;
+
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    private Deflater deflater;
+    private byte[] deflateBuffer;
+    private CRC32 crc;
+
+    private long rawBytes;
+    private long wireBytes;
+
+    CompressingResponseWrapper(HttpServletResponse response, ResponseCompressionFilter filter, boolean gzipAccepted) {
+        super(response);
+        this.filter = filter;
+        this.gzipAccepted = gzipAccepted;
+    }
+
+    long getRawBytes() {
+        return rawBytes;
+    }
+
+    long getWireBytes() {
+        return wireBytes;
+    }
+
+    boolean isGzipped() {
+        return mode == GZIP;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new EncodingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            outputStream = new EncodingOutputStream(super.getOutputStream());
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    // Content-Length is only known for bodies sent as is; it is applied once that is decided
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (mode == PLAIN) {
+            super.setContentLengthLong(len);
+        } else {
+            heldContentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value != null ? Long.parseLong(value) : -1);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        // Spring flushes after every message body; held bytes stay held until
+        // the threshold or finish() decides, so short bodies still get a Content-Length
+        if (mode != UNDECIDED) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        buffered = 0;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        buffered = 0;
+        heldContentLength = -1;
+        if (mode == GZIP) {
+            releaseDeflater();
+        }
+        mode = UNDECIDED;
+    }
+
+    /**
+     * Stop buffering before an async dispatch; later writes go out uncompressed
+     */
+    void passThrough() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (mode == UNDECIDED) {
+            sendPlain();
+        }
+    }
+
+    /**
+     * Complete the body: send a short body as is, or write the gzip trailer
+     * Always returns pooled resources
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (mode == UNDECIDED) {
+                if (buffered > 0 && !isCommitted()) {
+                    heldContentLength = buffered;
+                }
+                sendPlain();
+            } else if (mode == GZIP) {
+                finishGzip();
+            }
+        } finally {
+            releaseBuffer();
+            releaseDeflater();
+        }
+    }
+
+    /**
+     * Return pooled resources without completing the body (the request failed)
+     */
+    void release() {
+        finished = true;
+        releaseBuffer();
+        releaseDeflater();
+    }
+
+    /**
+     * Check on the first write whether this body may be gzipped at all
+     * Bodies of compressible types vary by Accept-Encoding whether or not this client accepts gzip
+     */
+    private boolean compressible() {
+        if (isCommitted() || getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                || !filter.isCompressible(getContentType())) {
+            return false;
+        }
+        if (buffered == 0) {
+            addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return gzipAccepted;
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Response body already completed");
+        }
+        rawBytes += len;
+        if (mode == UNDECIDED) {
+            if (!compressible()) {
+                sendPlain();
+            } else if (buffered + len <= filter.getMinSize()) {
+                if (buffer == null) {
+                    buffer = filter.acquireBuffer();
+                }
+                System.arraycopy(b, off, buffer, buffered, len);
+                buffered += len;
+                return;
+            } else {
+                startGzip();
+            }
+        }
+
+        if (mode == GZIP) {
+            deflate(b, off, len);
+        } else {
+            writeWire(b, off, len);
+        }
+    }
+
+    private void sendPlain() throws IOException {
+        mode = PLAIN;
+        if (heldContentLength >= 0 && !isCommitted()) {
+            super.setContentLengthLong(heldContentLength);
+        }
+        if (buffered > 0) {
+            writeWire(buffer, 0, buffered);
+            buffered = 0;
+        }
+        releaseBuffer();
+    }
+
+    private void startGzip() throws IOException {
+        mode = GZIP;
+        setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        heldContentLength = -1;
+        deflater = filter.acquireDeflater();
+        deflateBuffer = filter.acquireBuffer();
+        crc = new CRC32();
+        writeWire(GZIP_HEADER, 0, GZIP_HEADER.length);
+        if (buffered > 0) {
+            byte[] held = buffer;
+            int length = buffered;
+            buffered = 0;
+            deflate(held, 0, length);
+        }
+        releaseBuffer();
+    }
+
+    private void deflate(byte[] b, int off, int len) throws IOException {
+        crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            int n = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.NO_FLUSH);
+            if (n > 0) {
+                writeWire(deflateBuffer, 0, n);
+            }
+        }
+    }
+
+    private void finishGzip() throws IOException {
+        deflater.finish();
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer, 0, deflateBuffer.length);
+            if (n > 0) {
+                writeWire(deflateBuffer, 0, n);
+            }
+        }
+        byte[] trailer = new byte[8];
+        writeIntLE(trailer, 0, (int) crc.getValue());
+        writeIntLE(trailer, 4, (int) deflater.getBytesRead());
+        writeWire(trailer, 0, trailer.length);
+    }
+
+    private void writeWire(byte[] b, int off, int len) throws IOException {
+        wireBytes += len;
+        super.getOutputStream().write(b, off, len);
+    }
+
+    private void releaseBuffer() {
+        if (buffer != null) {
+            filter.releaseBuffer(buffer);
+            buffer = null;
+        }
+    }
+
+    private void releaseDeflater() {
+        if (deflater != null) {
+            filter.releaseDeflater(deflater);
+            deflater = null;
+        }
+        if (deflateBuffer != null) {
+            filter.releaseBuffer(deflateBuffer);
+            deflateBuffer = null;
+        }
+    }
+
+    private static void writeIntLE(byte[] b, int off, int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >> 8);
+        b[off + 2] = (byte) (value >> 16);
+        b[off + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Output stream handed to the application
+     */
+    private final class EncodingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream target;
+        private final byte[] single = new byte[1];
+
+        EncodingOutputStream(ServletOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            CompressingResponseWrapper.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponseWrapper.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Held bytes stay held; a flush must not defeat the size threshold
+            if (mode != UNDECIDED) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            target.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            target.setWriteListener(listener);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.config;
 
+import com.ecommerce.metrics.PoolMetrics;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,6 +12,9 @@ import javax.sql.DataSource;
 /**
  * Database configuration class for JDBC connection pooling
  * Uses HikariCP for high-performance connection pooling
+ * 
+ * Pool sizing, leak detection and driver statement-cache settings
+ * are read from app.datasource.pool.* properties
  */
 @Configuration
 public class DatabaseConfig {
@@ -27,38 +31,109 @@ public class DatabaseConfig {
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
 
+    @Value("${app.datasource.pool.maximum-pool-size:20}")
+    private int maximumPoolSize;
+
+    @Value("${app.datasource.pool.minimum-idle:5}")
+    private int minimumIdle;
+
+    @Value("${app.datasource.pool.connection-timeout-ms:30000}")
+    private long connectionTimeout;
+
+    @Value("${app.datasource.pool.idle-timeout-ms:600000}")
+    private long idleTimeout;
+
+    @Value("${app.datasource.pool.max-lifetime-ms:1800000}")
+    private long maxLifetime;
+
+    @Value("${app.datasource.pool.leak-detection-threshold-ms:0}")
+    private long leakDetectionThreshold;
+
+    // Single DAO calls run in auto-commit; multi-statement work uses a unit of work
+    @Value("${app.datasource.pool.auto-commit:true}")
+    private boolean autoCommit;
+
+    // Empty means JDBC4 Connection.isValid(), which is cheaper than a test query
+    @Value("${app.datasource.pool.connection-test-query:}")
+    private String connectionTestQuery;
+
+    @Value("${app.datasource.pool.cache-prep-stmts:true}")
+    private boolean cachePrepStmts;
+
+    @Value("${app.datasource.pool.prep-stmt-cache-size:250}")
+    private int prepStmtCacheSize;
+
+    @Value("${app.datasource.pool.prep-stmt-cache-sql-limit:2048}")
+    private int prepStmtCacheSqlLimit;
+
+    @Value("${app.datasource.pool.use-server-prep-stmts:true}")
+    private boolean useServerPrepStmts;
+
+    @Value("${app.datasource.replica.url:}")
+    private String replicaJdbcUrl;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.maximum-pool-size:${app.datasource.pool.maximum-pool-size:20}}")
+    private int replicaMaximumPoolSize;
+
     /**
      * Creates and configures HikariCP DataSource for connection pooling
+     * When app.datasource.replica.url is set, read-only DAO methods are routed to a replica pool
      * 
+     * @param poolMetrics collector for acquire latency and connection usage
      * @return configured DataSource with connection pool
      */
     @Bean
-    public DataSource dataSource() {
+    public DataSource dataSource(PoolMetrics poolMetrics) {
+        HikariDataSource primary = createPool("ECommerceHikariPool", jdbcUrl, username, password,
+                                              maximumPoolSize, poolMetrics);
+        if (replicaJdbcUrl.isBlank()) {
+            return primary;
+        }
+        
+        HikariDataSource replica = createPool("ECommerceReplicaPool", replicaJdbcUrl, 
+                                              replicaUsername, replicaPassword,
+                                              replicaMaximumPoolSize, poolMetrics);
+        replica.setReadOnly(true);
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    private HikariDataSource createPool(String poolName, String url, String user, String pass,
+                                        int maxPoolSize, PoolMetrics poolMetrics) {
         HikariConfig config = new HikariConfig();
         
         // Basic configuration
-        config.setJdbcUrl(jdbcUrl);
-        config.setUsername(username);
-        config.setPassword(password);
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(pass);
         config.setDriverClassName(driverClassName);
         
         // Connection pool settings
-        config.setMaximumPoolSize(20);
-        config.setMinimumIdle(5);
-        config.setConnectionTimeout(30000);
-        config.setIdleTimeout(600000);
-        config.setMaxLifetime(1800000);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(Math.min(minimumIdle, maxPoolSize));
+        config.setConnectionTimeout(connectionTimeout);
+        config.setIdleTimeout(idleTimeout);
+        config.setMaxLifetime(maxLifetime);
+        config.setLeakDetectionThreshold(leakDetectionThreshold);
         
-        // Performance optimizations
-        config.setAutoCommit(false); // Manual transaction management
-        config.setConnectionTestQuery("SELECT 1");
-        config.setPoolName("ECommerceHikariPool");
+        // Transactions are opened explicitly by TransactionManager / UnitOfWork
+        config.setAutoCommit(autoCommit);
+        if (!connectionTestQuery.isBlank()) {
+            config.setConnectionTestQuery(connectionTestQuery);
+        }
+        config.setPoolName(poolName);
+        config.setMetricsTrackerFactory(poolMetrics);
         
-        // Additional settings
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        config.addDataSourceProperty("useServerPrepStmts", "true");
+        // Driver statement cache
+        config.addDataSourceProperty("cachePrepStmts", String.valueOf(cachePrepStmts));
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(prepStmtCacheSize));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(prepStmtCacheSqlLimit));
+        config.addDataSourceProperty("useServerPrepStmts", String.valueOf(useServerPrepStmts));
         
         return new HikariDataSource(config);
     }
@@ -1,6 +1,7 @@
 package com.ecommerce.config;
 
 import com.ecommerce.util.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -17,7 +19,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * JWT Authentication Filter
@@ -36,17 +39,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                    HttpServletResponse response, 
                                    FilterChain filterChain) throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
+            // RateLimitFilter has already validated the token if there is one
+            String email = (String) request.getAttribute(RateLimitFilter.AUTHENTICATED_EMAIL);
+            String role = (String) request.getAttribute(RateLimitFilter.AUTHENTICATED_ROLE);
+            if (email == null) {
+                String jwt = getJwtFromRequest(request);
+                Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.getClaimsIfValid(jwt) : null;
+                if (claims != null) {
+                    email = claims.getSubject();
+                    role = claims.get("role", String.class);
+                }
+            }
             
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String email = jwtTokenProvider.getEmailFromToken(jwt);
-                
+            if (email != null) {
+                // Every user gets ROLE_USER; the role claim adds e.g. ROLE_ADMIN
+                List<GrantedAuthority> authorities = new ArrayList<>(2);
+                authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+                if (StringUtils.hasText(role)) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+                }
                 UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(
-                        email, 
-                        null, 
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-                    );
+                    new UsernamePasswordAuthenticationToken(email, null, authorities);
                 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
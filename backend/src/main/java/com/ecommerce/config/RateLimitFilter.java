@@ -0,0 +1,317 @@
+package com.ecommerce.config;
+
+import com.ecommerce.dto.ErrorResponse;
+import com.ecommerce.exception.ErrorCode;
+import com.ecommerce.util.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client rate limiting and admission control
+ * Runs before JWT authentication and rejects excess requests with 429 before they
+ * reach a controller or take a database connection
+ *
+ * Requests are grouped into endpoint classes (login/register, search, orders, everything
+ * else), each with its own rate, burst and concurrency limit. Clients are identified by
+ * the email of a valid bearer token, otherwise by remote address; behind a proxy, set
+ * server.forward-headers-strategy so the remote address is the client's.
+ *
+ * Buckets are lock-free: each is a single AtomicLong updated by compare-and-set
+ * (GCRA, equivalent to a token bucket), and idle buckets are dropped when the
+ * number of tracked clients grows large.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    /** Email of the validated bearer token, reused by {@link JwtAuthenticationFilter} */
+    public static final String AUTHENTICATED_EMAIL = RateLimitFilter.class.getName() + ".email";
+
+    /** Role claim of the validated bearer token, reused by {@link JwtAuthenticationFilter} */
+    public static final String AUTHENTICATED_ROLE = RateLimitFilter.class.getName() + ".role";
+
+    private static final int MAX_TRACKED_CLIENTS = 100_000;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final Limit auth;
+    private final Limit search;
+    private final Limit orders;
+    private final Limit general;
+
+    public RateLimitFilter(Environment environment) {
+        this.enabled = environment.getProperty("app.ratelimit.enabled", Boolean.class, true);
+        // BCrypt makes login expensive, and search and orders hold connections from a pool of 20
+        this.auth = new Limit("auth", environment, 1, 10, 16);
+        this.search = new Limit("search", environment, 10, 30, 8);
+        this.orders = new Limit("orders", environment, 5, 20, 10);
+        this.general = new Limit("default", environment, 50, 100, 150);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Limit limit = classify(request);
+        String client = client(request, limit);
+
+        long now = System.nanoTime();
+        long waitNanos = limit.bucketFor(client, now).tryAcquire(now);
+        if (waitNanos > 0) {
+            limit.throttled.increment();
+            reject(response, limit, "rate", waitNanos);
+            return;
+        }
+        if (!limit.enter()) {
+            limit.shed.increment();
+            reject(response, limit, "concurrency", TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        limit.allowed.increment();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.exit();
+        }
+    }
+
+    /**
+     * Limiter state for the metrics endpoint
+     *
+     * @return per endpoint class: limits, in-flight requests, tracked clients and counters
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> snapshot = new ArrayList<>();
+        for (Limit limit : List.of(auth, search, orders, general)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("class", limit.name);
+            entry.put("ratePerSecond", limit.ratePerSecond);
+            entry.put("burst", limit.burst);
+            entry.put("maxConcurrent", limit.maxConcurrent);
+            entry.put("inFlight", limit.inFlight.get());
+            entry.put("trackedClients", limit.buckets.size());
+            entry.put("allowed", limit.allowed.sum());
+            entry.put("throttled", limit.throttled.sum());
+            entry.put("shed", limit.shed.sum());
+            snapshot.add(entry);
+        }
+        return snapshot;
+    }
+
+    private Limit classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/login") || path.startsWith("/api/auth/register")) {
+            return auth;
+        }
+        if (path.startsWith("/api/products/search")) {
+            return search;
+        }
+        if (path.startsWith("/api/orders")) {
+            return orders;
+        }
+        return general;
+    }
+
+    /**
+     * Identify the client: token email if valid, otherwise remote address
+     * Login and register are always per address; their callers have no token yet
+     */
+    private String client(HttpServletRequest request, Limit limit) {
+        if (limit != auth) {
+            String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+                Claims claims = jwtTokenProvider.getClaimsIfValid(header.substring(7));
+                if (claims != null && claims.getSubject() != null) {
+                    request.setAttribute(AUTHENTICATED_EMAIL, claims.getSubject());
+                    request.setAttribute(AUTHENTICATED_ROLE, claims.get("role", String.class));
+                    return "user:" + claims.getSubject();
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, Limit limit, String reason, long waitNanos) throws IOException {
+        long retryAfter = retryAfterSeconds(waitNanos);
+        if (limit.logWindow.tryLog()) {
+            logger.warn("Rate limit ({}) exceeded for {} requests", reason, limit.name);
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), limit.rejection);
+    }
+
+    /**
+     * Whole seconds for Retry-After, rounded up and at least 1
+     */
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    /**
+     * Limits and state of one endpoint class
+     * Package-private, like {@link Bucket}, for tests that drive them with a synthetic clock
+     */
+    static final class Limit {
+        private final String name;
+        private final double ratePerSecond;
+        private final int burst;
+        private final int maxConcurrent;
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+        private final ErrorResponse rejection;
+
+        private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+        private final long sweepIntervalNanos;
+        private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final LogWindow logWindow = new LogWindow();
+
+        Limit(String name, Environment environment, double ratePerSecond, int burst, int maxConcurrent) {
+            String prefix = "app.ratelimit." + name + ".";
+            this.name = name;
+            this.ratePerSecond = environment.getProperty(prefix + "rate-per-second", Double.class, ratePerSecond);
+            this.burst = environment.getProperty(prefix + "burst", Integer.class, burst);
+            this.maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, maxConcurrent);
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / this.ratePerSecond);
+            this.burstNanos = emissionIntervalNanos * this.burst;
+            // A bucket takes burstNanos to refill, so sweeping more often finds little to drop
+            this.sweepIntervalNanos = Math.max(burstNanos, TimeUnit.SECONDS.toNanos(1));
+            this.rejection = ErrorResponse.prebuilt(HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests",
+                    ErrorCode.RATE_LIMITED.getMessage(), ErrorCode.RATE_LIMITED.getCode());
+        }
+
+        Bucket bucketFor(String client, long now) {
+            Bucket bucket = buckets.get(client);
+            if (bucket == null) {
+                if (buckets.size() >= MAX_TRACKED_CLIENTS) {
+                    sweep(now);
+                }
+                bucket = buckets.computeIfAbsent(client, k -> new Bucket(this));
+            }
+            return bucket;
+        }
+
+        boolean enter() {
+            if (inFlight.incrementAndGet() > maxConcurrent) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        void exit() {
+            inFlight.decrementAndGet();
+        }
+
+        /**
+         * Drop buckets that have refilled completely; they behave like new ones
+         * A sweep scans every bucket, so it runs at most once per sweep interval: while many
+         * clients are active the table may grow past the limit until their buckets refill,
+         * instead of every new client paying for a scan that frees nothing.
+         */
+        void sweep(long now) {
+            long next = nextSweep.get();
+            if (now - next < 0 || !nextSweep.compareAndSet(next, now + sweepIntervalNanos)) {
+                return;
+            }
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+
+        int trackedClients() {
+            return buckets.size();
+        }
+    }
+
+    /**
+     * Token bucket as a generic cell rate algorithm: one theoretical arrival time
+     * A request is allowed while the arrival time is at most a burst ahead of now
+     */
+    static final class Bucket {
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+        Bucket(Limit limit) {
+            this.emissionIntervalNanos = limit.emissionIntervalNanos;
+            this.burstNanos = limit.burstNanos;
+        }
+
+        /**
+         * Take one token
+         *
+         * @return 0 if allowed, otherwise nanoseconds until a token is available
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long next = (tat == Long.MIN_VALUE || tat - now < 0 ? now : tat) + emissionIntervalNanos;
+                long ahead = next - now;
+                if (ahead > burstNanos) {
+                    return ahead - burstNanos;
+                }
+                if (theoreticalArrival.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            long tat = theoreticalArrival.get();
+            return tat == Long.MIN_VALUE || tat - now <= 0;
+        }
+    }
+
+    /**
+     * At most one rejection log line per endpoint class and second
+     */
+    private static final class LogWindow {
+        private final AtomicLong lastLogged = new AtomicLong();
+
+        boolean tryLog() {
+            long now = System.nanoTime();
+            long last = lastLogged.get();
+            return (last == 0 || now - last >= TimeUnit.SECONDS.toNanos(1)) && lastLogged.compareAndSet(last, now);
+        }
+    }
+}
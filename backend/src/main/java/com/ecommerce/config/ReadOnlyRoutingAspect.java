@@ -0,0 +1,38 @@
+package com.ecommerce.config;
+
+import com.ecommerce.dao.ReadOnly;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes DAO calls between primary and replica
+ * {@link ReadOnly} methods run in a read-only section; any other DAO method
+ * pins the current request to the primary before it runs
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadOnlyRoutingAspect {
+
+    @Around("execution(public * com.ecommerce.dao.*DAO.*(..)) && " +
+            "(@annotation(com.ecommerce.dao.ReadOnly) || @within(com.ecommerce.dao.ReadOnly))")
+    public Object routeReadOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+        ReplicaRoutingContext.enterReadOnly();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingContext.exitReadOnly();
+        }
+    }
+
+    @Around("execution(public * com.ecommerce.dao.*DAO.*(..)) && " +
+            "!@annotation(com.ecommerce.dao.ReadOnly) && !@within(com.ecommerce.dao.ReadOnly)")
+    public Object pinToPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        ReplicaRoutingContext.pinToPrimary();
+        return joinPoint.proceed();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.config;
+
+/**
+ * Per-thread routing state for the read-replica DataSource
+ *
+ * A thread reads from the replica only while inside a read-only DAO method and
+ * only until it touches the primary; after that it stays on the primary until
+ * the request ends (read-your-writes). Web threads are reset by
+ * {@link ReplicaStickinessFilter} at the end of each request.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<int[]> READ_ONLY_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private ReplicaRoutingContext() {
+    }
+
+    /**
+     * Enter a read-only section; sections may nest
+     */
+    public static void enterReadOnly() {
+        READ_ONLY_DEPTH.get()[0]++;
+    }
+
+    /**
+     * Leave a read-only section
+     */
+    public static void exitReadOnly() {
+        int[] depth = READ_ONLY_DEPTH.get();
+        if (depth[0] > 0) {
+            depth[0]--;
+        }
+    }
+
+    /**
+     * Pin the current thread to the primary until {@link #reset()}
+     * Called on every write or non-read-only DAO call
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    /**
+     * Run a read on the primary, restoring the previous routing afterwards
+     * For results stamped with the catalog version: the version is bumped once a write
+     * commits on the primary, and a lagging replica would cache old data under the new one
+     *
+     * @param read read to run
+     * @param <T> result type
+     * @param <E> exception thrown by the read
+     * @return result of the read
+     * @throws E if the read fails
+     */
+    public static <T, E extends Exception> T onPrimary(PrimaryRead<T, E> read) throws E {
+        boolean pinned = PINNED_TO_PRIMARY.get();
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.run();
+        } finally {
+            if (!pinned) {
+                PINNED_TO_PRIMARY.set(Boolean.FALSE);
+            }
+        }
+    }
+
+    /**
+     * @return true if connections obtained now should come from the replica
+     */
+    public static boolean useReplica() {
+        return READ_ONLY_DEPTH.get()[0] > 0 && !PINNED_TO_PRIMARY.get();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get();
+    }
+
+    /**
+     * Clear all routing state of the current thread
+     */
+    public static void reset() {
+        READ_ONLY_DEPTH.remove();
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    /**
+     * Read run by {@link #onPrimary}
+     *
+     * @param <T> result type
+     * @param <E> exception thrown by the read
+     */
+    @FunctionalInterface
+    public interface PrimaryRead<T, E extends Exception> {
+        T run() throws E;
+    }
+}
@@ -0,0 +1,166 @@
+package com.ecommerce.config;
+
+import com.ecommerce.metrics.ResponseMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Response compression
+ * Gzips responses of compressible types that are larger than the minimum size,
+ * for clients that accept gzip, and records bytes written and bytes on the wire per endpoint
+ *
+ * Deflaters and buffers are pooled: a Deflater holds a few hundred KB of native
+ * zlib state and is expensive to create for every response. Responses that already
+ * carry a Content-Encoding (pre-gzipped catalog snapshots) are passed through.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final int POOL_SIZE = 64;
+    private static final int MIN_BUFFER_SIZE = 8 * 1024;
+
+    @Autowired
+    private ResponseMetrics responseMetrics;
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int level;
+    private final int bufferSize;
+    private final Set<String> mimeTypes = new HashSet<>();
+
+    private final ArrayBlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final ArrayBlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public ResponseCompressionFilter(
+            @Value("${app.http.compression.enabled:true}") boolean enabled,
+            @Value("${app.http.compression.min-size:1024}") int minSize,
+            @Value("${app.http.compression.level:6}") int level,
+            @Value("${app.http.compression.mime-types:application/json,text/plain,text/html}") String[] mimeTypes) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.level = level;
+        this.bufferSize = Math.max(minSize, MIN_BUFFER_SIZE);
+        for (String mimeType : mimeTypes) {
+            this.mimeTypes.add(mimeType.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   FilterChain filterChain) throws ServletException, IOException {
+        boolean gzip = enabled && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        CompressingResponseWrapper wrapper = new CompressingResponseWrapper(response, this, gzip);
+
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            completed = true;
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming bodies are written after this returns; send them as they come
+                wrapper.passThrough();
+            } else if (completed) {
+                wrapper.finish();
+                responseMetrics.record(endpoint(request),
+                        wrapper.getRawBytes(), wrapper.getWireBytes(), wrapper.isGzipped());
+            } else {
+                wrapper.release();
+            }
+        }
+    }
+
+    /**
+     * Check whether the client accepts gzip, honouring q=0
+     * Brotli is not offered: neither the JDK nor our dependencies include an encoder.
+     * Also used by handlers that write precompressed bodies.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < fields.length; i++) {
+                String field = fields[i].trim();
+                if (field.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(field.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return q > 0;
+            }
+            if (coding.equals("*")) {
+                wildcard = q > 0;
+            }
+        }
+        return wildcard;
+    }
+
+    boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int semicolon = contentType.indexOf(';');
+        String mimeType = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim();
+        return mimeTypes.contains(mimeType.toLowerCase(Locale.ROOT));
+    }
+
+    int getMinSize() {
+        return minSize;
+    }
+
+    byte[] acquireBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    void releaseBuffer(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    Deflater acquireDeflater() {
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Metrics key: method and mapped URL pattern, so path variables share one entry
+     */
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "<unmapped>");
+    }
+}
@@ -0,0 +1,281 @@
+package com.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema migrations
+ * Applies classpath:db/migration/V{n}__{description}.sql scripts in version order,
+ * each exactly once, and records them in the schema_version table
+ *
+ * A database that is already current costs one query on startup. Concurrent
+ * instances (rolling deploys) serialize on a MySQL named lock, so a script is never
+ * applied twice. Databases created by the former schema.sql/data.sql bootstrap are
+ * baselined: scripts up to {@link #BASELINE_VERSION} are recorded without running,
+ * or up to {@link #VERSIONED_BASELINE_VERSION} if the bootstrap already created
+ * the version columns and stock shards.
+ */
+@Component
+public class SchemaMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String LOCK_NAME = "ecommerce_schema_migration";
+
+    /** Last version whose tables the original drop-and-create bootstrap produced */
+    private static final int BASELINE_VERSION = 2;
+
+    /** Version adding the columns and table a later bootstrap also created */
+    private static final int VERSIONED_BASELINE_VERSION = 3;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${app.schema.lock-timeout-seconds:60}")
+    private int lockTimeoutSeconds;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    /**
+     * Apply all pending migrations
+     *
+     * @return number of scripts applied
+     * @throws SQLException if a script or the bookkeeping fails
+     * @throws IOException if scripts cannot be read
+     */
+    public int migrate() throws SQLException, IOException {
+        long start = System.nanoTime();
+        List<Migration> migrations = discover();
+
+        try (Connection conn = dataSource.getConnection()) {
+            createVersionTable(conn);
+
+            // Fast path: nothing pending, no lock needed
+            Map<Integer, Long> applied = appliedVersions(conn);
+            if (isCurrent(migrations, applied)) {
+                record(0, applied, start);
+                logger.info("Schema is current at version {}", highest(applied));
+                return 0;
+            }
+
+            acquireLock(conn);
+            try {
+                // Another instance may have migrated while we waited
+                applied = appliedVersions(conn);
+                if (applied.isEmpty() && tableExists(conn, "products")) {
+                    baseline(conn, migrations);
+                    applied = appliedVersions(conn);
+                }
+
+                int count = 0;
+                for (Migration migration : migrations) {
+                    Long checksum = applied.get(migration.version);
+                    if (checksum == null) {
+                        apply(conn, migration);
+                        applied.put(migration.version, migration.checksum);
+                        count++;
+                    } else if (checksum != migration.checksum) {
+                        logger.warn("Migration {} was changed after it was applied; "
+                                + "add a new script instead", migration.script);
+                    }
+                }
+                record(count, applied, start);
+                logger.info("Applied {} schema migration(s), schema is at version {}", count, highest(applied));
+                return count;
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    /**
+     * Result of the last run for the startup report
+     *
+     * @return applied count, schema version and elapsed time
+     */
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    private List<Migration> discover() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                continue;
+            }
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                    matcher.group(2).replace('_', ' '), resource.getFilename(), resource, checksum(resource)));
+        }
+        migrations.sort(Comparator.comparingInt(m -> m.version));
+        return migrations;
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "script VARCHAR(255) NOT NULL, " +
+                    "checksum BIGINT NOT NULL, " +
+                    "execution_ms BIGINT NOT NULL, " +
+                    "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        }
+    }
+
+    private Map<Integer, Long> appliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private boolean isCurrent(List<Migration> migrations, Map<Integer, Long> applied) {
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.version)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tableExists(Connection conn, String table) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, table, new String[] {"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    private void baseline(Connection conn, List<Migration> migrations) throws SQLException {
+        // Only record what the existing schema actually has; later scripts still run
+        int baselineVersion = columnExists(conn, "products", "version") && columnExists(conn, "orders", "version")
+                && tableExists(conn, "product_stock_shards") ? VERSIONED_BASELINE_VERSION : BASELINE_VERSION;
+        for (Migration migration : migrations) {
+            if (migration.version <= baselineVersion) {
+                insertVersion(conn, migration, 0);
+            }
+        }
+        logger.info("Existing schema baselined at version {}", baselineVersion);
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        logger.info("Applying migration {}", migration.script);
+        long start = System.nanoTime();
+        ScriptUtils.executeSqlScript(conn, new EncodedResource(migration.resource, StandardCharsets.UTF_8));
+        insertVersion(conn, migration, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void insertVersion(Connection conn, Migration migration, long executionMs) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, script, checksum, execution_ms) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setString(3, migration.script);
+            stmt.setLong(4, migration.checksum);
+            stmt.setLong(5, executionMs);
+            stmt.executeUpdate();
+        }
+        if (!conn.getAutoCommit()) {
+            conn.commit();
+        }
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, lockTimeoutSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            logger.error("Error releasing schema migration lock", e);
+        }
+    }
+
+    private void record(int appliedCount, Map<Integer, Long> applied, long start) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("schemaVersion", highest(applied));
+        run.put("applied", appliedCount);
+        run.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+        lastRun = run;
+    }
+
+    private static int highest(Map<Integer, Long> applied) {
+        return applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    private static long checksum(Resource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = resource.getInputStream()) {
+            crc.update(in.readAllBytes());
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Migration script found on the classpath
+     */
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final Resource resource;
+        private final long checksum;
+
+        Migration(int version, String description, String script, Resource resource, long checksum) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.resource = resource;
+            this.checksum = checksum;
+        }
+    }
+}
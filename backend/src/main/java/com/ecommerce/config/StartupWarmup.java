@@ -0,0 +1,185 @@
+package com.ecommerce.config;
+
+import com.ecommerce.dao.ProductDAO;
+import com.ecommerce.model.Product;
+import com.ecommerce.service.CatalogSnapshotCache;
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.ProductFacetIndex;
+import com.ecommerce.util.JwtTokenProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Startup warmup
+ * Runs after the schema check and before the application reports ready:
+ * preloads the product cache, product list snapshot and facet index, primes the JWT signer and opens the pool's idle
+ * connections, all in parallel, then logs a startup-time report
+ *
+ * Warmup failures are logged and never block startup.
+ */
+@Component
+@Order(2)
+public class StartupWarmup implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CatalogSnapshotCache catalogSnapshots;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SchemaMigrator schemaMigrator;
+
+    @Value("${app.startup.warmup-enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.startup.warmup-timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    private volatile Map<String, Object> report = Map.of();
+
+    @Override
+    public void run(String... args) {
+        long start = System.nanoTime();
+        Map<String, Object> tasks = new LinkedHashMap<>();
+
+        if (enabled) {
+            ExecutorService executor = Executors.newFixedThreadPool(3, r -> {
+                Thread thread = new Thread(r, "startup-warmup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                Map<String, CompletableFuture<Map<String, Object>>> futures = new LinkedHashMap<>();
+                futures.put("productCache", submit(executor, this::preloadProductCache));
+                futures.put("jwt", submit(executor, this::primeJwt));
+                futures.put("connectionPool", submit(executor, this::touchConnections));
+
+                try {
+                    CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                            .get(timeoutSeconds, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    logger.warn("Warmup did not finish within {}s, continuing startup", timeoutSeconds);
+                } catch (Exception e) {
+                    // Individual failures are reported per task below
+                }
+                futures.forEach((name, future) -> tasks.put(name,
+                        future.isDone() ? future.join() : Map.of("status", "timeout")));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        Map<String, Object> startup = new LinkedHashMap<>();
+        startup.put("schema", schemaMigrator.getLastRun());
+        startup.put("warmup", tasks);
+        startup.put("warmupMs", (System.nanoTime() - start) / 1_000_000);
+        startup.put("jvmUptimeMs", ManagementFactory.getRuntimeMXBean().getUptime());
+        report = startup;
+        logger.info("Startup report: {}", startup);
+    }
+
+    /**
+     * Startup-time report for the metrics endpoint
+     *
+     * @return schema check, per-task warmup timings and uptime at the end of warmup
+     */
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    private Map<String, Object> preloadProductCache() throws Exception {
+        List<Product> products = productDAO.findAll();
+        productCache.putAll(products);
+        catalogSnapshots.get("products", () -> products);
+        facetIndex.refresh();
+        return Map.of("products", products.size());
+    }
+
+    private Map<String, Object> primeJwt() {
+        jwtTokenProvider.warmUp();
+        return Map.of();
+    }
+
+    /**
+     * Borrow up to minimum-idle connections at once so the pool opens them now
+     * rather than on the first requests
+     */
+    private Map<String, Object> touchConnections() throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (dataSource instanceof ReplicaRoutingDataSource routing) {
+            result.put("primary", touch(routing.getPrimary()));
+            result.put("replica", touch(routing.getReplica()));
+        } else if (dataSource instanceof HikariDataSource hikari) {
+            result.put("primary", touch(hikari));
+        }
+        return result;
+    }
+
+    private int touch(HikariDataSource pool) throws Exception {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < pool.getMinimumIdle(); i++) {
+                Connection conn = pool.getConnection();
+                connections.add(conn);
+                conn.isValid(1);
+            }
+            return connections.size();
+        } finally {
+            for (Connection conn : connections) {
+                conn.close();
+            }
+        }
+    }
+
+    private static CompletableFuture<Map<String, Object>> submit(ExecutorService executor,
+                                                                 Callable<Map<String, Object>> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            Map<String, Object> result = new LinkedHashMap<>();
+            try {
+                result.putAll(task.call());
+                result.put("status", "ok");
+            } catch (Exception e) {
+                logger.warn("Warmup task failed: {}", e.getMessage());
+                result.put("status", "failed: " + e.getMessage());
+            }
+            result.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+            return result;
+        }, executor);
+    }
+}
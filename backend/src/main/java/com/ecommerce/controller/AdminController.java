@@ -1,14 +1,27 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.async.HotSkuStockService;
+import com.ecommerce.service.ExportService;
 import com.ecommerce.service.IOrderService;
+import com.ecommerce.service.ProductImportService;
 import com.ecommerce.model.Order;
+import com.ecommerce.util.JsonStreamWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Admin Controller
@@ -22,6 +35,18 @@ public class AdminController {
     @Autowired
     private IOrderService orderService;
     
+    @Autowired
+    private JsonStreamWriter jsonStreamWriter;
+    
+    @Autowired
+    private HotSkuStockService hotSkuStockService;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
     /**
      * Get dashboard analytics
      */
@@ -36,12 +61,88 @@ public class AdminController {
         return ResponseEntity.ok(analytics);
     }
     
+    /**
+     * List products in hot-SKU mode with their shard counts
+     */
+    @GetMapping("/hot-skus")
+    public ResponseEntity<Map<Long, Integer>> getHotSkus() {
+        return ResponseEntity.ok(hotSkuStockService.getHotProducts());
+    }
+    
+    /**
+     * Enable hot-SKU mode for a product (e.g. before a flash sale)
+     */
+    @PostMapping("/hot-skus/{productId}")
+    public ResponseEntity<Map<String, Object>> enableHotSku(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "0") int shards) {
+        int created = hotSkuStockService.enable(productId, shards);
+        return ResponseEntity.ok(Map.of("productId", productId, "shards", created));
+    }
+    
+    /**
+     * Disable hot-SKU mode and fold shard stock back into the product
+     */
+    @DeleteMapping("/hot-skus/{productId}")
+    public ResponseEntity<Void> disableHotSku(@PathVariable Long productId) {
+        hotSkuStockService.disable(productId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Export products, orders or users as CSV
+     * Rows are streamed from the database straight to the response
+     */
+    @GetMapping("/export/{entity}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String entity) {
+        StreamingResponseBody body;
+        switch (entity) {
+            case "products" -> body = out -> exportService.exportProducts(out);
+            case "orders" -> body = out -> exportService.exportOrders(out);
+            case "users" -> body = out -> exportService.exportUsers(out);
+            default -> {
+                return ResponseEntity.notFound().build();
+            }
+        }
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + entity + ".csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+    
+    /**
+     * Import products from a CSV or JSON file
+     * The file is imported in the background; poll the returned job for progress and rejects
+     */
+    @PostMapping("/import/products")
+    public ResponseEntity<Map<String, Object>> importProducts(@RequestParam("file") MultipartFile file) 
+            throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        Map<String, Object> job = productImportService.startImport(
+                file.getInputStream(), file.getOriginalFilename(), file.getContentType());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    /**
+     * Get the progress of a product import
+     */
+    @GetMapping("/import/products/{jobId}")
+    public ResponseEntity<Map<String, Object>> getImportProgress(@PathVariable String jobId) {
+        Map<String, Object> progress = productImportService.getProgress(jobId);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+    
     /**
      * Get all orders (admin view)
      */
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public void getAllOrders(HttpServletResponse response) throws IOException {
+        // Streamed row by row; the list can be large
+        try (Stream<Order> orders = orderService.streamAllOrders()) {
+            jsonStreamWriter.writeArray(response, orders);
+        }
     }
 }
@@ -1,12 +1,16 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
 import com.ecommerce.service.ICartService;
+import com.ecommerce.service.IOrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +26,9 @@ public class CartController {
     @Autowired
     private ICartService cartService;
     
+    @Autowired
+    private IOrderService orderService;
+    
     @GetMapping("/{userId}")
     public ResponseEntity<Map<String, Object>> getCart(@PathVariable Long userId) {
         List<CartItem> items = cartService.getCart(userId);
@@ -44,6 +51,40 @@ public class CartController {
         return ResponseEntity.ok(item);
     }
     
+    @PostMapping("/items/bulk")
+    public ResponseEntity<List<CartItem>> addAllToCart(@RequestBody Map<String, Object> request) {
+        Long userId = Long.valueOf(request.get("userId").toString());
+        
+        List<CartItem> items = cartService.addAllToCart(userId, parseLines(request.get("items")));
+        return ResponseEntity.ok(items);
+    }
+    
+    @PostMapping("/{userId}/merge")
+    public ResponseEntity<List<CartItem>> mergeCart(
+            @PathVariable Long userId,
+            @RequestBody Map<String, Object> request) {
+        List<CartItem> items = cartService.mergeCart(userId, parseLines(request.get("items")));
+        return ResponseEntity.ok(items);
+    }
+    
+    @PostMapping("/{userId}/reorder/{orderId}")
+    public ResponseEntity<List<CartItem>> reorder(
+            @PathVariable Long userId,
+            @PathVariable Long orderId) {
+        Order order = orderService.getOrderById(orderId);
+        if (order == null || !order.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Order not found");
+        }
+        
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        
+        List<CartItem> items = cartService.addAllToCart(userId, quantities);
+        return ResponseEntity.ok(items);
+    }
+    
     @PutMapping("/items/{itemId}")
     public ResponseEntity<CartItem> updateCartItem(
             @PathVariable Long itemId,
@@ -68,4 +109,22 @@ public class CartController {
         cartService.clearCart(userId);
         return ResponseEntity.noContent().build();
     }
+    
+    /**
+     * Parse a list of {productId, quantity} lines, summing duplicate products
+     */
+    private Map<Long, Integer> parseLines(Object lines) {
+        if (!(lines instanceof List<?> list) || list.isEmpty()) {
+            throw new IllegalArgumentException("At least one cart line is required");
+        }
+        
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (Object line : list) {
+            Map<?, ?> entry = (Map<?, ?>) line;
+            Long productId = Long.valueOf(entry.get("productId").toString());
+            Integer quantity = Integer.valueOf(entry.get("quantity").toString());
+            quantities.merge(productId, quantity, Integer::sum);
+        }
+        return quantities;
+    }
 }
@@ -0,0 +1,164 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.async.WishlistNotificationService;
+import com.ecommerce.config.RateLimitFilter;
+import com.ecommerce.config.ReplicaRoutingDataSource;
+import com.ecommerce.config.StartupWarmup;
+import com.ecommerce.dao.UnitOfWork;
+import com.ecommerce.metrics.DaoMetricsAspect;
+import com.ecommerce.metrics.PoolMetrics;
+import com.ecommerce.metrics.QueryMetrics;
+import com.ecommerce.metrics.ResponseMetrics;
+import com.ecommerce.service.CatalogSnapshotCache;
+import com.ecommerce.service.ProductFacetIndex;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metrics Controller
+ * Exposes connection pool state, acquire latency, statement cache counters
+ * per-DAO-method timings, per-statement query metrics, catalog snapshot counters, facet index state,
+ * response bytes per endpoint, rate limiter state, wishlist notifier state and the startup-time report
+ * With a read replica configured, primary and replica pools are reported separately
+ */
+@RestController
+@RequestMapping("/api/admin/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PoolMetrics poolMetrics;
+
+    @Autowired
+    private DaoMetricsAspect daoMetrics;
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private CatalogSnapshotCache catalogSnapshots;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ResponseMetrics responseMetrics;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private WishlistNotificationService wishlistNotifications;
+
+    /**
+     * Get all database metrics
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pool", poolSnapshot());
+        metrics.put("statementCache", UnitOfWork.statementStats());
+        metrics.put("dao", daoMetrics.snapshot());
+        metrics.put("queries", queryMetrics.snapshot());
+        metrics.put("catalogSnapshots", catalogSnapshots.stats());
+        metrics.put("facetIndex", facetIndex.stats());
+        metrics.put("responses", responseMetrics.snapshot());
+        metrics.put("rateLimits", rateLimitFilter.snapshot());
+        metrics.put("wishlistNotifications", wishlistNotifications.getStatistics());
+        metrics.put("startup", startupWarmup.getReport());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * Get connection pool metrics only
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Object>> getPoolMetrics() {
+        return ResponseEntity.ok(poolSnapshot());
+    }
+
+    /**
+     * Get per-statement latency, acquire time and row counts, slowest total time first
+     */
+    @GetMapping("/queries")
+    public ResponseEntity<List<Map<String, Object>>> getQueryMetrics() {
+        return ResponseEntity.ok(queryMetrics.snapshot());
+    }
+
+    /**
+     * Get bytes written and bytes on the wire per endpoint
+     */
+    @GetMapping("/responses")
+    public ResponseEntity<List<Map<String, Object>>> getResponseMetrics() {
+        return ResponseEntity.ok(responseMetrics.snapshot());
+    }
+
+    /**
+     * Get rate limits, in-flight requests and allowed/throttled/shed counts per endpoint class
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<List<Map<String, Object>>> getRateLimits() {
+        return ResponseEntity.ok(rateLimitFilter.snapshot());
+    }
+
+    /**
+     * Get the most recent sampled slow statements
+     */
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<Map<String, Object>>> getSlowQueries() {
+        return ResponseEntity.ok(queryMetrics.slowQueries());
+    }
+
+    /**
+     * Clear per-statement metrics and slow-query samples
+     */
+    @DeleteMapping("/queries")
+    public ResponseEntity<Void> resetQueryMetrics() {
+        queryMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Clear response byte counters
+     */
+    @DeleteMapping("/responses")
+    public ResponseEntity<Void> resetResponseMetrics() {
+        responseMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Clear per-DAO-method timings (e.g. before a load test)
+     */
+    @DeleteMapping("/dao")
+    public ResponseEntity<Void> resetDaoMetrics() {
+        daoMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    private Map<String, Object> poolSnapshot() {
+        if (dataSource instanceof ReplicaRoutingDataSource routing) {
+            Map<String, Object> pools = new LinkedHashMap<>();
+            pools.put("primary", poolMetrics.snapshot(routing.getPrimary()));
+            pools.put("replica", poolMetrics.snapshot(routing.getReplica()));
+            return pools;
+        }
+        if (dataSource instanceof HikariDataSource hikari) {
+            return poolMetrics.snapshot(hikari);
+        }
+        return Map.of();
+    }
+}
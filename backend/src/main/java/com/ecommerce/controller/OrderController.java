@@ -22,6 +22,7 @@ public class OrderController {
     
     @Autowired
     private IOrderService orderService;
+
     
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestBody Map<String, Object> request) {
@@ -62,9 +63,24 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
     
+    @PostMapping("/{id}/payment/failure")
+    public ResponseEntity<Order> failPayment(
+            @PathVariable Long id,
+            @RequestBody(required = false) Map<String, String> request) {
+        String paymentId = request != null ? request.get("paymentId") : null;
+        Order order = orderService.failPayment(id, paymentId);
+        return ResponseEntity.ok(order);
+    }
+    
+    /**
+     * One page of orders, newest first
+     * Paged rather than streamed: a stream holds a pooled connection for as long as the
+     * client takes to read. The full list is streamed by the admin export.
+     */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getAllOrders(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(orderService.getOrdersPage(page, size));
     }
 }
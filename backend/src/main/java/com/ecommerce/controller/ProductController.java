@@ -1,19 +1,38 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dao.CatalogVersion;
+import com.ecommerce.dto.ProductBrowseRequest;
 import com.ecommerce.model.Product;
+import com.ecommerce.service.CatalogSnapshotCache;
 import com.ecommerce.service.IProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Product Controller
  * Handles product CRUD operations
+ *
+ * Product and category reads are conditional: the ETag and Last-Modified come from
+ * the catalog version, so a client or CDN revalidating an unchanged catalog gets a
+ * 304 without the service or database being called. Validators and Cache-Control are
+ * only sent with 304s and successful bodies, so errors are never cached.
+ * Product lists and categories are served from pre-serialized snapshots
+ * ({@link CatalogSnapshotCache}) rebuilt only when the catalog changes.
+ * Filtered browsing with facet counts is served from an in-memory index.
  */
 @RestController
 @RequestMapping("/api/products")
@@ -23,29 +42,69 @@ public class ProductController {
     @Autowired
     private IProductService productService;
     
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Autowired
+    private CatalogSnapshotCache snapshots;
+    
+    @Value("${app.http.catalog-max-age-seconds:60}")
+    private long catalogMaxAgeSeconds;
+    
     @GetMapping
     public ResponseEntity<List<Product>> getAllProducts(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) BigDecimal minPrice,
-            @RequestParam(required = false) BigDecimal maxPrice) {
+            @RequestParam(required = false) BigDecimal maxPrice,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         
-        List<Product> products;
+        Validators validators = validators();
+        if (notModified(request, response, validators)) {
+            return null;
+        }
         if (category != null) {
-            products = productService.getProductsByCategory(category);
+            CatalogSnapshotCache.Snapshot snapshot =
+                    snapshots.get("products?category=" + category, () -> productService.getProductsByCategory(category));
+            validators.apply(response, catalogMaxAgeSeconds);
+            snapshot.writeTo(request, response);
         } else if (minPrice != null && maxPrice != null) {
-            products = productService.getProductsByPriceRange(minPrice, maxPrice);
+            // Arbitrary ranges are not worth a snapshot each
+            List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+            validators.apply(response, catalogMaxAgeSeconds);
+            return ResponseEntity.ok(products);
         } else {
-            products = productService.getAllProducts();
+            CatalogSnapshotCache.Snapshot snapshot = snapshots.get("products", productService::getAllProducts);
+            validators.apply(response, catalogMaxAgeSeconds);
+            snapshot.writeTo(request, response);
         }
-        return ResponseEntity.ok(products);
+        // Snapshot already written to the response
+        return null;
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
+    public ResponseEntity<Product> getProduct(@PathVariable Long id, HttpServletRequest request,
+                                              HttpServletResponse response) {
+        Validators validators = validators();
+        if (notModified(request, response, validators)) {
+            return null;
+        }
         Product product = productService.getProductById(id);
+        validators.apply(response, catalogMaxAgeSeconds);
         return ResponseEntity.ok(product);
     }
     
+    /**
+     * Combined filters, sort and paging with facet counts
+     * No validators: the index may trail the catalog version by its refresh interval
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<Map<String, Object>> browseProducts(ProductBrowseRequest browse) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(catalogMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(productService.browseProducts(browse));
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<List<Product>> searchProducts(@RequestParam String q) {
         List<Product> products = productService.searchProducts(q);
@@ -53,9 +112,14 @@ public class ProductController {
     }
     
     @GetMapping("/categories")
-    public ResponseEntity<Set<String>> getCategories() {
-        Set<String> categories = productService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public void getCategories(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Validators validators = validators();
+        if (notModified(request, response, validators)) {
+            return;
+        }
+        CatalogSnapshotCache.Snapshot snapshot = snapshots.get("categories", productService::getAllCategories);
+        validators.apply(response, catalogMaxAgeSeconds);
+        snapshot.writeTo(request, response);
     }
     
     @PostMapping
@@ -75,4 +139,38 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+    
+    /**
+     * Catalog validators, taken before the body is loaded so they are never newer than the data
+     */
+    private Validators validators() {
+        return new Validators(catalogVersion.getETag(), catalogVersion.getLastModified());
+    }
+    
+    /**
+     * Check the client's validators and answer 304 if they match
+     * Evaluated on the request alone, so nothing is set on the response otherwise; when
+     * this returns true the handler returns without a body.
+     */
+    private boolean notModified(HttpServletRequest request, HttpServletResponse response, Validators validators) {
+        if (!new ServletWebRequest(request).checkNotModified(validators.etag(), validators.lastModified())) {
+            return false;
+        }
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        validators.apply(response, catalogMaxAgeSeconds);
+        return true;
+    }
+    
+    private record Validators(String etag, long lastModified) {
+        
+        /**
+         * Set the caching headers; only for 304s and successful bodies
+         */
+        void apply(HttpServletResponse response, long maxAgeSeconds) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            response.setHeader(HttpHeaders.CACHE_CONTROL,
+                    CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic().getHeaderValue());
+        }
+    }
 }
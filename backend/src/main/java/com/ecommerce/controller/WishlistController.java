@@ -0,0 +1,53 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.model.Wishlist;
+import com.ecommerce.service.IUserService;
+import com.ecommerce.service.IWishlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Wishlist Controller
+ * Handles wishlist operations; items are returned with their product details.
+ * Always works on the authenticated user's own wishlist.
+ */
+@RestController
+@RequestMapping("/api/wishlist")
+@CrossOrigin(origins = "*")
+public class WishlistController {
+    
+    @Autowired
+    private IWishlistService wishlistService;
+    
+    @Autowired
+    private IUserService userService;
+    
+    @GetMapping
+    public ResponseEntity<List<Wishlist>> getWishlist(Authentication authentication) {
+        return ResponseEntity.ok(wishlistService.getWishlist(currentUserId(authentication)));
+    }
+    
+    @PostMapping("/items/{productId}")
+    public ResponseEntity<List<Wishlist>> addToWishlist(Authentication authentication, @PathVariable Long productId) {
+        Long userId = currentUserId(authentication);
+        wishlistService.addToWishlist(userId, productId);
+        return ResponseEntity.ok(wishlistService.getWishlist(userId));
+    }
+    
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<Void> removeFromWishlist(Authentication authentication, @PathVariable Long productId) {
+        wishlistService.removeFromWishlist(currentUserId(authentication), productId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * The principal set by JwtAuthenticationFilter is the user's email
+     */
+    private Long currentUserId(Authentication authentication) {
+        return userService.getUserIdByEmail(authentication.getName());
+    }
+}
@@ -1,5 +1,8 @@
 package com.ecommerce.dao;
 
+import com.ecommerce.exception.OptimisticLockException;
+import com.ecommerce.metrics.QueryMetrics;
+import com.ecommerce.model.Versioned;
 import com.ecommerce.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,7 +12,17 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract base DAO implementation
@@ -24,16 +37,36 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
     
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     
+    /** Upper bound for cached mappers and binders; dynamic IN-list SQL beyond it is compiled per call */
+    private static final int MAX_COMPILED_MAPPERS = 256;
+    
+    /** Passed to {@link #recordQuery} where bind values are set individually */
+    protected static final Object[] PARAMS_NOT_RECORDED = null;
+    
     @Autowired
     protected DataSource dataSource;
     
+    @Autowired(required = false)
+    private QueryMetrics queryMetrics;
+    
+    // SQL -> mapper with column indexes resolved for that statement shape
+    private final ConcurrentHashMap<String, ResultSetMapper<T>> compiledMappers = new ConcurrentHashMap<>();
+    
+    // SQL -> parameter binders resolved from the first execution
+    private final ConcurrentHashMap<String, StatementBinder> statementBinders = new ConcurrentHashMap<>();
+    
     /**
-     * Get a database connection from the connection pool
+     * Get a database connection
+     * Returns the connection of the active unit of work, otherwise one from the pool
      * 
      * @return database connection
      * @throws SQLException if connection cannot be obtained
      */
     protected Connection getConnection() throws SQLException {
+        Connection current = UnitOfWork.currentConnection();
+        if (current != null) {
+            return current;
+        }
         Connection conn = dataSource.getConnection();
         logger.debug("Connection obtained from pool");
         return conn;
@@ -41,13 +74,94 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
     
     /**
      * Close database resources safely
+     * The connection of an active unit of work is left open for the unit to commit
      * 
      * @param conn Connection to close
      * @param stmt PreparedStatement to close
      * @param rs ResultSet to close
      */
     protected void closeResources(Connection conn, PreparedStatement stmt, ResultSet rs) {
-        DatabaseUtil.closeResources(conn, stmt, rs);
+        DatabaseUtil.closeResources(UnitOfWork.owns(conn) ? null : conn, 
+                                    UnitOfWork.isCached(stmt) ? null : stmt, rs);
+    }
+    
+    /**
+     * Record a statement execution in the per-statement query metrics
+     * Call from a finally block with rows still -1 if the statement failed
+     * 
+     * @param sql SQL text as prepared
+     * @param startNanos System.nanoTime() before the connection was requested
+     * @param acquiredNanos System.nanoTime() once the connection was obtained, 0 if it never was
+     * @param rows rows returned or affected, -1 if the statement failed
+     * @param params bind parameters (for the slow-query log), or {@link #PARAMS_NOT_RECORDED}
+     */
+    protected void recordQuery(String sql, long startNanos, long acquiredNanos, long rows, Object[] params) {
+        if (queryMetrics == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (acquiredNanos == 0) {
+            queryMetrics.record(sql, now - startNanos, 0, rows, params);
+        } else {
+            queryMetrics.record(sql, acquiredNanos - startNanos, now - acquiredNanos, rows, params);
+        }
+    }
+    
+    /**
+     * Prepare a statement, reusing the unit of work's cached statement for the same SQL
+     * Release it with {@link #closeResources}, which leaves cached statements open
+     * 
+     * @param conn connection to prepare on
+     * @param sql SQL to prepare
+     * @return prepared statement
+     * @throws SQLException if preparing fails
+     */
+    protected PreparedStatement prepareStatement(Connection conn, String sql) throws SQLException {
+        if (UnitOfWork.owns(conn)) {
+            return UnitOfWork.current().prepare(sql, false);
+        }
+        return conn.prepareStatement(sql);
+    }
+    
+    /**
+     * Prepare a statement returning generated keys, reusing a cached one within a unit of work
+     * 
+     * @param conn connection to prepare on
+     * @param sql SQL to prepare
+     * @return prepared statement
+     * @throws SQLException if preparing fails
+     */
+    protected PreparedStatement prepareStatementWithKeys(Connection conn, String sql) throws SQLException {
+        if (UnitOfWork.owns(conn)) {
+            return UnitOfWork.current().prepare(sql, true);
+        }
+        return conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+    }
+    
+    /**
+     * Commit a write made outside a unit of work
+     * Only needed when the pool is configured with auto-commit disabled
+     * 
+     * @param conn connection the write ran on
+     * @throws SQLException if commit fails
+     */
+    protected void commitIfStandalone(Connection conn) throws SQLException {
+        if (!UnitOfWork.owns(conn) && !conn.getAutoCommit()) {
+            conn.commit();
+        }
+    }
+    
+    /**
+     * Run several statements atomically
+     * Joins the active unit of work, or starts one that commits when the work completes
+     * 
+     * @param work statements to run; DAO calls inside share the unit's connection
+     * @param <R> result type
+     * @return result of the work
+     * @throws SQLException if any statement or the commit fails
+     */
+    protected <R> R executeInUnitOfWork(UnitOfWork.Work<R> work) throws SQLException {
+        return UnitOfWork.execute(dataSource, work);
     }
     
     /**
@@ -65,21 +179,30 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
             
             // Set parameters
-            setParameters(stmt, params);
+            bindParameters(sql, stmt, params);
             
             rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return mapper.map(rs);
+                T entity = mapper.map(rs);
+                rows = 1;
+                return entity;
             }
+            rows = 0;
             return null;
             
         } finally {
+            recordQuery(sql, start, acquired, rows, params);
             closeResources(conn, stmt, rs);
         }
     }
@@ -100,26 +223,217 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
         ResultSet rs = null;
         java.util.List<T> results = new java.util.ArrayList<>();
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
             
             // Set parameters
-            setParameters(stmt, params);
+            bindParameters(sql, stmt, params);
+            
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                results.add(mapper.map(rs));
+            }
+            
+            rows = results.size();
+            return results;
+            
+        } finally {
+            recordQuery(sql, start, acquired, rows, params);
+            closeResources(conn, stmt, rs);
+        }
+    }
+    
+    /**
+     * Execute a query and map a single result with a compiled mapper
+     * Column indexes are resolved on the first execution of the SQL and reused afterwards
+     * 
+     * @param sql SQL query
+     * @param factory mapper factory for the entity
+     * @param params query parameters
+     * @return entity if found, null otherwise
+     * @throws SQLException if query fails
+     */
+    protected T executeCompiledQuerySingle(String sql, RowMapperFactory<T> factory, Object... params) 
+            throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
+        try {
+            conn = getConnection();
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
+            
+            bindParameters(sql, stmt, params);
             
             rs = stmt.executeQuery();
             
+            if (rs.next()) {
+                T entity = compiledMapper(sql, factory, rs).map(rs);
+                rows = 1;
+                return entity;
+            }
+            rows = 0;
+            return null;
+            
+        } finally {
+            recordQuery(sql, start, acquired, rows, params);
+            closeResources(conn, stmt, rs);
+        }
+    }
+    
+    /**
+     * Execute a query and map all results with a compiled mapper
+     * 
+     * @param sql SQL query
+     * @param factory mapper factory for the entity
+     * @param params query parameters
+     * @return list of entities
+     * @throws SQLException if query fails
+     */
+    protected java.util.List<T> executeCompiledQueryList(String sql, RowMapperFactory<T> factory, Object... params) 
+            throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        java.util.List<T> results = new java.util.ArrayList<>();
+        
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
+        try {
+            conn = getConnection();
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
+            
+            bindParameters(sql, stmt, params);
+            
+            rs = stmt.executeQuery();
+            
+            ResultSetMapper<T> mapper = compiledMapper(sql, factory, rs);
             while (rs.next()) {
                 results.add(mapper.map(rs));
             }
             
+            rows = results.size();
             return results;
             
         } finally {
+            recordQuery(sql, start, acquired, rows, params);
             closeResources(conn, stmt, rs);
         }
     }
     
+    /**
+     * Execute a query and stream the results row by row
+     * The driver streams the result set instead of buffering it (fetch size Integer.MIN_VALUE),
+     * so exports of any size run in constant memory.
+     * 
+     * The stream holds a pooled connection until it is closed; always use try-with-resources.
+     * SQL errors while reading rows are rethrown as RuntimeException.
+     * 
+     * @param sql SQL query
+     * @param factory mapper factory for the entity
+     * @param params query parameters
+     * @return lazily populated stream of entities
+     * @throws SQLException if the query cannot be executed
+     */
+    protected Stream<T> executeCompiledQueryStream(String sql, RowMapperFactory<T> factory, Object... params) 
+            throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        long start = System.nanoTime();
+        long acquired = 0;
+        
+        try {
+            // Always a dedicated connection: a streaming result blocks other statements on it
+            conn = dataSource.getConnection();
+            acquired = System.nanoTime();
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            
+            bindParameters(sql, stmt, params);
+            
+            rs = stmt.executeQuery();
+            
+            ResultSetMapper<T> mapper = compiledMapper(sql, factory, rs);
+            Connection openConn = conn;
+            PreparedStatement openStmt = stmt;
+            ResultSet openRs = rs;
+            long openedAt = acquired;
+            long[] rowCount = new long[1];
+            
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!openRs.next()) {
+                            return false;
+                        }
+                        action.accept(mapper.map(openRs));
+                        rowCount[0]++;
+                        return true;
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Failed to read streamed row: " + e.getMessage(), e);
+                    }
+                }
+            };
+            
+            // Timed until the stream is closed, i.e. including the caller's consumption
+            return StreamSupport.stream(rows, false)
+                    .onClose(() -> {
+                        recordQuery(sql, start, openedAt, rowCount[0], params);
+                        closeResources(openConn, openStmt, openRs);
+                    });
+            
+        } catch (SQLException | RuntimeException e) {
+            recordQuery(sql, start, acquired, -1, params);
+            closeResources(conn, stmt, rs);
+            throw e;
+        }
+    }
+    
+    /**
+     * Get the compiled mapper for a statement, compiling it from the result metadata on first use
+     * 
+     * @param sql SQL the result set was produced by
+     * @param factory mapper factory for the entity
+     * @param rs open result set
+     * @return mapper bound to the column indexes of this statement shape
+     * @throws SQLException if metadata cannot be read
+     */
+    protected ResultSetMapper<T> compiledMapper(String sql, RowMapperFactory<T> factory, ResultSet rs) 
+            throws SQLException {
+        ResultSetMapper<T> mapper = compiledMappers.get(sql);
+        if (mapper != null) {
+            return mapper;
+        }
+        
+        mapper = factory.compile(new ColumnIndex(rs.getMetaData()));
+        if (compiledMappers.size() < MAX_COMPILED_MAPPERS) {
+            ResultSetMapper<T> existing = compiledMappers.putIfAbsent(sql, mapper);
+            if (existing != null) {
+                return existing;
+            }
+            logger.debug("Compiled row mapper for: {}", sql);
+        }
+        return mapper;
+    }
+    
     /**
      * Execute an update query (INSERT, UPDATE, DELETE)
      * 
@@ -132,23 +446,52 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
         Connection conn = null;
         PreparedStatement stmt = null;
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
             
             // Set parameters
-            setParameters(stmt, params);
+            bindParameters(sql, stmt, params);
             
             int affectedRows = stmt.executeUpdate();
+            commitIfStandalone(conn);
             logger.debug("Affected rows: {}", affectedRows);
             
+            rows = affectedRows;
             return affectedRows;
             
         } finally {
+            recordQuery(sql, start, acquired, rows, params);
             closeResources(conn, stmt, null);
         }
     }
     
+    /**
+     * Execute a compare-and-set update of a versioned entity
+     * The SQL must increment the version and end with "WHERE id = ? AND version = ?";
+     * pass the entity ID and its current version as the last two parameters
+     * 
+     * @param sql SQL update
+     * @param entity entity whose version is advanced on success
+     * @param params query parameters, ending with ID and expected version
+     * @throws OptimisticLockException if the row was changed or deleted since it was read
+     * @throws SQLException if query fails
+     */
+    protected void executeVersionedUpdate(String sql, Versioned entity, Object... params) 
+            throws SQLException {
+        if (executeUpdate(sql, params) == 0) {
+            throw new OptimisticLockException(getClass().getSimpleName().replace("DAO", "")
+                    + " " + params[params.length - 2] + " was modified or deleted since version "
+                    + entity.getVersion());
+        }
+        entity.setVersion(entity.getVersion() + 1);
+    }
+    
     /**
      * Execute an update query and return generated key
      * 
@@ -162,45 +505,151 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+            acquired = System.nanoTime();
+            stmt = prepareStatementWithKeys(conn, sql);
             
             // Set parameters
-            setParameters(stmt, params);
+            bindParameters(sql, stmt, params);
             
             int affectedRows = stmt.executeUpdate();
             
             if (affectedRows == 0) {
                 throw new SQLException("Creating entity failed, no rows affected.");
             }
+            commitIfStandalone(conn);
             
             rs = stmt.getGeneratedKeys();
             if (rs.next()) {
                 Long generatedId = rs.getLong(1);
                 logger.debug("Generated ID: {}", generatedId);
+                rows = affectedRows;
                 return generatedId;
             } else {
                 throw new SQLException("Creating entity failed, no ID obtained.");
             }
             
         } finally {
+            recordQuery(sql, start, acquired, rows, params);
+            closeResources(conn, stmt, rs);
+        }
+    }
+    
+    /**
+     * Execute a single-row query by a primitive ID
+     * Avoids the varargs array and boxing of the generic path
+     * 
+     * @param sql SQL query with a single ID parameter
+     * @param factory mapper factory for the entity
+     * @param id entity ID
+     * @return entity if found, null otherwise
+     * @throws SQLException if query fails
+     */
+    protected T executeCompiledQueryById(String sql, RowMapperFactory<T> factory, long id) 
+            throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
+        try {
+            conn = getConnection();
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
+            stmt.setLong(1, id);
+            
+            rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                T entity = compiledMapper(sql, factory, rs).map(rs);
+                rows = 1;
+                return entity;
+            }
+            rows = 0;
+            return null;
+            
+        } finally {
+            recordQuery(sql, start, acquired, rows, PARAMS_NOT_RECORDED);
             closeResources(conn, stmt, rs);
         }
     }
     
+    /**
+     * Execute an update with a single primitive ID parameter
+     * 
+     * @param sql SQL statement with a single ID parameter
+     * @param id entity ID
+     * @return number of affected rows
+     * @throws SQLException if statement fails
+     */
+    protected int executeUpdateById(String sql, long id) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
+        try {
+            conn = getConnection();
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
+            stmt.setLong(1, id);
+            
+            int affectedRows = stmt.executeUpdate();
+            commitIfStandalone(conn);
+            logger.debug("Affected rows: {}", affectedRows);
+            
+            rows = affectedRows;
+            return affectedRows;
+            
+        } finally {
+            recordQuery(sql, start, acquired, rows, PARAMS_NOT_RECORDED);
+            closeResources(conn, stmt, null);
+        }
+    }
+    
     /**
      * Set parameters on PreparedStatement
      * Uses PreparedStatement to prevent SQL injection
+     * Values are bound with typed setters (enums by name, java.time as DATE/TIMESTAMP)
      * 
      * @param stmt PreparedStatement
      * @param params parameters to set
      * @throws SQLException if parameter setting fails
      */
     protected void setParameters(PreparedStatement stmt, Object... params) throws SQLException {
-        for (int i = 0; i < params.length; i++) {
-            stmt.setObject(i + 1, params[i]);
+        StatementBinder.bindAll(stmt, params);
+    }
+    
+    /**
+     * Set parameters using the binder array cached for this SQL
+     * 
+     * @param sql SQL the statement was prepared from
+     * @param stmt PreparedStatement
+     * @param params parameters to set
+     * @throws SQLException if parameter setting fails
+     */
+    protected void bindParameters(String sql, PreparedStatement stmt, Object... params) throws SQLException {
+        if (params.length == 0) {
+            return;
+        }
+        StatementBinder binder = statementBinders.get(sql);
+        if (binder == null) {
+            binder = StatementBinder.of(params);
+            if (statementBinders.size() < MAX_COMPILED_MAPPERS) {
+                statementBinders.putIfAbsent(sql, binder);
+            }
         }
+        binder.bind(stmt, params);
     }
     
     /**
@@ -216,20 +665,25 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
             
-            setParameters(stmt, params);
+            bindParameters(sql, stmt, params);
             
             rs = stmt.executeQuery();
             
-            if (rs.next()) {
-                return rs.getLong(1);
-            }
-            return 0;
+            long count = rs.next() ? rs.getLong(1) : 0;
+            rows = 1;
+            return count;
             
         } finally {
+            recordQuery(sql, start, acquired, rows, params);
             closeResources(conn, stmt, rs);
         }
     }
@@ -244,6 +698,58 @@ public abstract class AbstractDAO<T> implements BaseDAO<T> {
         T map(ResultSet rs) throws SQLException;
     }
     
+    /**
+     * Compiles a row mapper for one statement shape
+     * Implementations look up column indexes once and capture them in the returned mapper
+     * 
+     * @param <T> Entity type
+     */
+    @FunctionalInterface
+    protected interface RowMapperFactory<T> {
+        ResultSetMapper<T> compile(ColumnIndex columns) throws SQLException;
+    }
+    
+    /**
+     * Column label to index lookup built from ResultSetMetaData
+     * Labels are matched case-insensitively; the first occurrence of a label wins
+     */
+    protected static final class ColumnIndex {
+        
+        private final Map<String, Integer> indexes = new HashMap<>();
+        
+        ColumnIndex(ResultSetMetaData metaData) throws SQLException {
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                indexes.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+        
+        /**
+         * Get the index of an optional column
+         * 
+         * @param label column label
+         * @return 1-based column index, or 0 if the column is not projected
+         */
+        public int of(String label) {
+            Integer index = indexes.get(label.toLowerCase(Locale.ROOT));
+            return index != null ? index : 0;
+        }
+        
+        /**
+         * Get the index of a column the mapper cannot do without
+         * 
+         * @param label column label
+         * @return 1-based column index
+         * @throws SQLException if the column is not projected
+         */
+        public int required(String label) throws SQLException {
+            int index = of(label);
+            if (index == 0) {
+                throw new SQLException("Column not in result set: " + label);
+            }
+            return index;
+        }
+    }
+    
     /**
      * Default implementation of count
      * Subclasses should override with specific table name
@@ -42,6 +42,9 @@ public interface BaseDAO<T> {
     
     /**
      * Update an existing entity
+     * For versioned entities ({@link com.ecommerce.model.Versioned}) carrying a version, the update
+     * only applies if the stored version still matches and throws
+     * {@link com.ecommerce.exception.OptimisticLockException} otherwise
      * 
      * @param entity entity to update
      * @return updated entity
@@ -3,7 +3,6 @@ package com.ecommerce.dao;
 import com.ecommerce.model.CartItem;
 import org.springframework.stereotype.Repository;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -14,6 +13,10 @@ import java.util.List;
 @Repository
 public class CartDAO extends AbstractDAO<CartItem> {
     
+    private static final String CART_ITEM_COLUMNS = 
+        "ci.id, ci.user_id, ci.product_id, ci.quantity, ci.price, ci.created_at, " +
+        "p.name AS product_name, p.image_url";
+    
     @Override
     public CartItem save(CartItem cartItem) throws SQLException {
         String sql = "INSERT INTO cart_items (user_id, product_id, quantity, price) VALUES (?, ?, ?, ?) " +
@@ -31,24 +34,60 @@ public class CartDAO extends AbstractDAO<CartItem> {
         return cartItem;
     }
     
+    /**
+     * Save multiple cart items with a single multi-row INSERT
+     * Existing lines for the same user/product have their quantity incremented
+     * 
+     * @param cartItems items to save
+     * @return number of affected rows as reported by the driver
+     */
+    public int saveAll(List<CartItem> cartItems) throws SQLException {
+        if (cartItems == null || cartItems.isEmpty()) {
+            return 0;
+        }
+        
+        StringBuilder sql = new StringBuilder("INSERT INTO cart_items (user_id, product_id, quantity, price) VALUES ");
+        Object[] params = new Object[cartItems.size() * 4];
+        int p = 0;
+        for (int i = 0; i < cartItems.size(); i++) {
+            CartItem item = cartItems.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            params[p++] = item.getUserId();
+            params[p++] = item.getProductId();
+            params[p++] = item.getQuantity();
+            params[p++] = item.getPrice();
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)");
+        
+        int affected = executeUpdate(sql.toString(), params);
+        logger.info("Bulk saved {} cart items", cartItems.size());
+        return affected;
+    }
+    
+    @ReadOnly
     @Override
     public CartItem findById(Long id) throws SQLException {
-        String sql = "SELECT ci.*, p.name as product_name, p.image_url FROM cart_items ci " +
+        if (id == null) {
+            return null;
+        }
+        String sql = "SELECT " + CART_ITEM_COLUMNS + " FROM cart_items ci " +
                     "JOIN products p ON ci.product_id = p.id WHERE ci.id = ?";
-        return executeQuerySingle(sql, this::mapCartItem, id);
+        return executeCompiledQueryById(sql, CART_ITEM_MAPPER, id);
     }
     
+    @ReadOnly
     @Override
     public List<CartItem> findAll() throws SQLException {
-        String sql = "SELECT ci.*, p.name as product_name, p.image_url FROM cart_items ci " +
+        String sql = "SELECT " + CART_ITEM_COLUMNS + " FROM cart_items ci " +
                     "JOIN products p ON ci.product_id = p.id";
-        return executeQueryList(sql, this::mapCartItem);
+        return executeCompiledQueryList(sql, CART_ITEM_MAPPER);
     }
     
+    @ReadOnly
     public List<CartItem> findByUserId(Long userId) throws SQLException {
-        String sql = "SELECT ci.*, p.name as product_name, p.image_url FROM cart_items ci " +
+        String sql = "SELECT " + CART_ITEM_COLUMNS + " FROM cart_items ci " +
                     "JOIN products p ON ci.product_id = p.id WHERE ci.user_id = ?";
-        return executeQueryList(sql, this::mapCartItem, userId);
+        return executeCompiledQueryList(sql, CART_ITEM_MAPPER, userId);
     }
     
     @Override
@@ -61,7 +100,7 @@ public class CartDAO extends AbstractDAO<CartItem> {
     @Override
     public boolean delete(Long id) throws SQLException {
         String sql = "DELETE FROM cart_items WHERE id = ?";
-        return executeUpdate(sql, id) > 0;
+        return id != null && executeUpdateById(sql, id) > 0;
     }
     
     public void deleteByUserId(Long userId) throws SQLException {
@@ -70,21 +109,33 @@ public class CartDAO extends AbstractDAO<CartItem> {
         logger.info("Cart cleared for user: {}", userId);
     }
     
+    @ReadOnly
     @Override
     public long count() throws SQLException {
         return executeCount("SELECT COUNT(*) FROM cart_items");
     }
     
-    private CartItem mapCartItem(ResultSet rs) throws SQLException {
-        CartItem item = new CartItem();
-        item.setId(rs.getLong("id"));
-        item.setUserId(rs.getLong("user_id"));
-        item.setProductId(rs.getLong("product_id"));
-        item.setProductName(rs.getString("product_name"));
-        item.setQuantity(rs.getInt("quantity"));
-        item.setPrice(rs.getBigDecimal("price"));
-        item.setImageUrl(rs.getString("image_url"));
-        item.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-        return item;
-    }
+    private static final RowMapperFactory<CartItem> CART_ITEM_MAPPER = columns -> {
+        int id = columns.required("id");
+        int userId = columns.of("user_id");
+        int productId = columns.of("product_id");
+        int productName = columns.of("product_name");
+        int quantity = columns.of("quantity");
+        int price = columns.of("price");
+        int imageUrl = columns.of("image_url");
+        int createdAt = columns.of("created_at");
+        
+        return rs -> {
+            CartItem item = new CartItem();
+            item.setId(rs.getLong(id));
+            if (userId > 0) item.setUserId(rs.getLong(userId));
+            if (productId > 0) item.setProductId(rs.getLong(productId));
+            if (productName > 0) item.setProductName(rs.getString(productName));
+            if (quantity > 0) item.setQuantity(rs.getInt(quantity));
+            if (price > 0) item.setPrice(rs.getBigDecimal(price));
+            if (imageUrl > 0) item.setImageUrl(rs.getString(imageUrl));
+            if (createdAt > 0) item.setCreatedAt(rs.getTimestamp(createdAt).toLocalDateTime());
+            return item;
+        };
+    };
 }
@@ -0,0 +1,78 @@
+package com.ecommerce.dao;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog version counter
+ * Advanced by every write to the products table (details, prices and stock), so
+ * product and category responses can be validated with an ETag and Last-Modified
+ * without reading the catalog
+ *
+ * The counter is per instance and starts over on restart; the instance epoch is
+ * part of the ETag so a restarted instance never reissues an old tag. Writes made
+ * by another instance are only seen here once that instance's responses expire,
+ * which is why catalog responses carry a short max-age.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = truncateToSeconds(System.currentTimeMillis());
+    private volatile String etag = buildETag(0);
+
+    /**
+     * Record a catalog write
+     * Call through {@link #changed()} so the tag only moves once the write is visible;
+     * synchronized so concurrent bumps cannot publish an older tag last
+     */
+    public synchronized void bump() {
+        long next = version.incrementAndGet();
+        lastModified = truncateToSeconds(System.currentTimeMillis());
+        etag = buildETag(next);
+    }
+
+    /**
+     * Bump the version once the current unit of work commits (immediately outside one)
+     * A response built concurrently may carry the old tag with new data, which only
+     * costs one extra full response. Data read from a replica may still predate the
+     * bump, so anything cached under the version must be loaded from the primary
+     * (see {@link com.ecommerce.config.ReplicaRoutingContext#onPrimary})
+     */
+    public void changed() {
+        UnitOfWork.afterCommit(this::bump);
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * ETag for catalog responses, e.g. W/"lxk2w3-42"
+     * Weak, since the same version is served plain and gzipped
+     *
+     * @return weak entity tag
+     */
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * Time of the last catalog write, to the second (HTTP date resolution)
+     *
+     * @return epoch milliseconds
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    private String buildETag(long value) {
+        return "W/\"" + epoch + "-" + value + "\"";
+    }
+
+    private static long truncateToSeconds(long millis) {
+        return millis - millis % 1000;
+    }
+}
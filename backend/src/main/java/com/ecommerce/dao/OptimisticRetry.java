@@ -0,0 +1,86 @@
+package com.ecommerce.dao;
+
+import com.ecommerce.config.ReplicaRoutingContext;
+import com.ecommerce.exception.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry helper for read-modify-write cycles over versioned entities
+ * Each attempt must re-read the entity, apply its change and write it back with a versioned update;
+ * attempts that lose the race are retried after a short randomized backoff
+ *
+ * Do not run attempts inside an outer unit of work: the re-read would see the same snapshot.
+ */
+public final class OptimisticRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    public static final int DEFAULT_ATTEMPTS = 3;
+
+    private OptimisticRetry() {
+    }
+
+    /**
+     * Run an attempt up to {@link #DEFAULT_ATTEMPTS} times
+     *
+     * @param attempt read-modify-write attempt
+     * @param <R> result type
+     * @return result of the first attempt that wins
+     * @throws OptimisticLockException if every attempt conflicts
+     * @throws SQLException if an attempt fails
+     */
+    public static <R> R execute(Attempt<R> attempt) throws SQLException {
+        return execute(DEFAULT_ATTEMPTS, attempt);
+    }
+
+    /**
+     * Run an attempt until it wins or the attempts are used up
+     *
+     * @param maxAttempts maximum number of attempts
+     * @param attempt read-modify-write attempt
+     * @param <R> result type
+     * @return result of the first attempt that wins
+     * @throws OptimisticLockException if every attempt conflicts
+     * @throws SQLException if an attempt fails
+     */
+    public static <R> R execute(int maxAttempts, Attempt<R> attempt) throws SQLException {
+        // Versions read from a lagging replica would conflict on every attempt
+        ReplicaRoutingContext.pinToPrimary();
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.run();
+            } catch (OptimisticLockException e) {
+                if (i >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Optimistic lock conflict, retrying (attempt {}/{}): {}",
+                        i, maxAttempts, e.getMessage());
+                backoff(i);
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            // Jitter spreads out writers that collided on the same row
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockException("Interrupted while retrying a concurrent update");
+        }
+    }
+
+    /**
+     * One read-modify-write attempt
+     *
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    public interface Attempt<R> {
+        R run() throws SQLException;
+    }
+}
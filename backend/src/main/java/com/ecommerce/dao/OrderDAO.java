@@ -18,30 +18,39 @@ import java.math.BigDecimal;
 @Repository
 public class OrderDAO extends AbstractDAO<Order> {
     
+    private static final String ORDER_COLUMNS = 
+        "id, user_id, total_amount, status, payment_id, payment_status, shipping_address, version, order_date";
+    
+    /**
+     * Save an order and its items atomically
+     */
     @Override
     public Order save(Order order) throws SQLException {
         String sql = "INSERT INTO orders (user_id, total_amount, status, payment_status, shipping_address) " +
                     "VALUES (?, ?, ?, ?, ?)";
         
-        Long orderId = executeUpdateWithGeneratedKey(sql,
-            order.getUserId(),
-            order.getTotalAmount(),
-            order.getStatus().name(),
-            order.getPaymentStatus().name(),
-            order.getShippingAddress()
-        );
-        
-        order.setId(orderId);
-        
-        // Save order items
-        if (order.getItems() != null) {
-            for (OrderItem item : order.getItems()) {
-                saveOrderItem(orderId, item);
+        return executeInUnitOfWork(conn -> {
+            Long orderId = executeUpdateWithGeneratedKey(sql,
+                order.getUserId(),
+                order.getTotalAmount(),
+                order.getStatus(),
+                order.getPaymentStatus(),
+                order.getShippingAddress()
+            );
+            
+            order.setId(orderId);
+            order.setVersion(0L);
+            
+            // Save order items
+            if (order.getItems() != null) {
+                for (OrderItem item : order.getItems()) {
+                    saveOrderItem(orderId, item);
+                }
             }
-        }
-        
-        logger.info("Order saved with ID: {}", orderId);
-        return order;
+            
+            logger.info("Order saved with ID: {}", orderId);
+            return order;
+        });
     }
     
     private void saveOrderItem(Long orderId, OrderItem item) throws SQLException {
@@ -56,10 +65,14 @@ public class OrderDAO extends AbstractDAO<Order> {
         item.setOrderId(orderId);
     }
     
+    @ReadOnly
     @Override
     public Order findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM orders WHERE id = ?";
-        Order order = executeQuerySingle(sql, this::mapOrder, id);
+        if (id == null) {
+            return null;
+        }
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders WHERE id = ?";
+        Order order = executeCompiledQueryById(sql, ORDER_MAPPER, id);
         
         if (order != null) {
             order.setItems(findOrderItems(id));
@@ -69,7 +82,8 @@ public class OrderDAO extends AbstractDAO<Order> {
     }
     
     private List<OrderItem> findOrderItems(Long orderId) throws SQLException {
-        String sql = "SELECT oi.*, p.name as product_name FROM order_items oi " +
+        String sql = "SELECT oi.id, oi.order_id, oi.product_id, oi.quantity, oi.price, p.name AS product_name " +
+                    "FROM order_items oi " +
                     "JOIN products p ON oi.product_id = p.id WHERE oi.order_id = ?";
         
         Connection conn = null;
@@ -77,9 +91,14 @@ public class OrderDAO extends AbstractDAO<Order> {
         ResultSet rs = null;
         List<OrderItem> items = new java.util.ArrayList<>();
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
             stmt.setLong(1, orderId);
             rs = stmt.executeQuery();
             
@@ -87,67 +106,125 @@ public class OrderDAO extends AbstractDAO<Order> {
                 items.add(mapOrderItem(rs));
             }
             
+            rows = items.size();
             return items;
         } finally {
+            recordQuery(sql, start, acquired, rows, PARAMS_NOT_RECORDED);
             closeResources(conn, stmt, rs);
         }
     }
     
+    @ReadOnly
     @Override
     public List<Order> findAll() throws SQLException {
-        String sql = "SELECT * FROM orders ORDER BY order_date DESC";
-        return executeQueryList(sql, this::mapOrder);
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders ORDER BY order_date DESC";
+        return executeCompiledQueryList(sql, ORDER_MAPPER);
     }
     
+    /**
+     * Find one page of orders (without items), newest first
+     *
+     * @param offset rows to skip
+     * @param limit maximum rows to return
+     */
+    @ReadOnly
+    public List<Order> findPage(int offset, int limit) throws SQLException {
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders ORDER BY order_date DESC, id DESC LIMIT ? OFFSET ?";
+        return executeCompiledQueryList(sql, ORDER_MAPPER, limit, offset);
+    }
+    
+    /**
+     * Stream all orders (without items) in ID order for exports
+     * The caller must close the stream
+     */
+    @ReadOnly
+    public java.util.stream.Stream<Order> streamAll() throws SQLException {
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders ORDER BY id";
+        return executeCompiledQueryStream(sql, ORDER_MAPPER);
+    }
+    
+    /**
+     * Stream all orders (without items) newest first, in the order of {@link #findAll()}
+     * The caller must close the stream
+     */
+    @ReadOnly
+    public java.util.stream.Stream<Order> streamAllNewestFirst() throws SQLException {
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders ORDER BY order_date DESC";
+        return executeCompiledQueryStream(sql, ORDER_MAPPER);
+    }
+    
+    @ReadOnly
     public List<Order> findByUserId(Long userId) throws SQLException {
-        String sql = "SELECT * FROM orders WHERE user_id = ? ORDER BY order_date DESC";
-        return executeQueryList(sql, this::mapOrder, userId);
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders WHERE user_id = ? ORDER BY order_date DESC";
+        return executeCompiledQueryList(sql, ORDER_MAPPER, userId);
     }
     
+    @ReadOnly
     public List<Order> findByStatus(OrderStatus status) throws SQLException {
-        String sql = "SELECT * FROM orders WHERE status = ? ORDER BY order_date DESC";
-        return executeQueryList(sql, this::mapOrder, status.name());
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders WHERE status = ? ORDER BY order_date DESC";
+        return executeCompiledQueryList(sql, ORDER_MAPPER, status);
     }
     
+    @ReadOnly
     public List<Order> findByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
-        String sql = "SELECT * FROM orders WHERE DATE(order_date) BETWEEN ? AND ? ORDER BY order_date DESC";
-        return executeQueryList(sql, this::mapOrder, startDate, endDate);
+        String sql = "SELECT " + ORDER_COLUMNS + " FROM orders WHERE DATE(order_date) BETWEEN ? AND ? ORDER BY order_date DESC";
+        return executeCompiledQueryList(sql, ORDER_MAPPER, startDate, endDate);
     }
     
+    /**
+     * Update order status and payment columns
+     * With a version set, the update is compare-and-set and fails with
+     * {@link com.ecommerce.exception.OptimisticLockException} if the order changed since it was read
+     */
     @Override
     public Order update(Order order) throws SQLException {
-        String sql = "UPDATE orders SET status = ?, payment_id = ?, payment_status = ? WHERE id = ?";
-        executeUpdate(sql,
-            order.getStatus().name(),
-            order.getPaymentId(),
-            order.getPaymentStatus().name(),
-            order.getId()
-        );
+        if (order.getVersion() == null) {
+            String sql = "UPDATE orders SET status = ?, payment_id = ?, payment_status = ?, " +
+                        "version = version + 1 WHERE id = ?";
+            executeUpdate(sql,
+                order.getStatus(),
+                order.getPaymentId(),
+                order.getPaymentStatus(),
+                order.getId()
+            );
+        } else {
+            String sql = "UPDATE orders SET status = ?, payment_id = ?, payment_status = ?, " +
+                        "version = version + 1 WHERE id = ? AND version = ?";
+            executeVersionedUpdate(sql, order,
+                order.getStatus(),
+                order.getPaymentId(),
+                order.getPaymentStatus(),
+                order.getId(),
+                order.getVersion()
+            );
+        }
         logger.info("Order updated: {}", order.getId());
         return order;
     }
     
     public void updateStatus(Long orderId, OrderStatus status) throws SQLException {
-        String sql = "UPDATE orders SET status = ? WHERE id = ?";
-        executeUpdate(sql, status.name(), orderId);
+        String sql = "UPDATE orders SET status = ?, version = version + 1 WHERE id = ?";
+        executeUpdate(sql, status, orderId);
     }
     
     public void updatePaymentStatus(Long orderId, String paymentId, PaymentStatus status) throws SQLException {
-        String sql = "UPDATE orders SET payment_id = ?, payment_status = ? WHERE id = ?";
-        executeUpdate(sql, paymentId, status.name(), orderId);
+        String sql = "UPDATE orders SET payment_id = ?, payment_status = ?, version = version + 1 WHERE id = ?";
+        executeUpdate(sql, paymentId, status, orderId);
     }
     
     @Override
     public boolean delete(Long id) throws SQLException {
         String sql = "DELETE FROM orders WHERE id = ?";
-        return executeUpdate(sql, id) > 0;
+        return id != null && executeUpdateById(sql, id) > 0;
     }
     
+    @ReadOnly
     @Override
     public long count() throws SQLException {
         return executeCount("SELECT COUNT(*) FROM orders");
     }
     
+    @ReadOnly
     public BigDecimal getTotalSalesByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
         String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM orders " +
                     "WHERE DATE(order_date) BETWEEN ? AND ? AND payment_status = 'COMPLETED'";
@@ -155,39 +232,57 @@ public class OrderDAO extends AbstractDAO<Order> {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
-            stmt.setObject(1, startDate);
-            stmt.setObject(2, endDate);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
+            setParameters(stmt, startDate, endDate);
             rs = stmt.executeQuery();
             
-            if (rs.next()) {
-                return rs.getBigDecimal(1);
-            }
-            return BigDecimal.ZERO;
+            BigDecimal total = rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO;
+            rows = 1;
+            return total;
         } finally {
+            recordQuery(sql, start, acquired, rows, new Object[] {startDate, endDate});
             closeResources(conn, stmt, rs);
         }
     }
     
+    @ReadOnly
     public long countOrdersByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
         String sql = "SELECT COUNT(*) FROM orders WHERE DATE(order_date) BETWEEN ? AND ?";
         return executeCount(sql, startDate, endDate);
     }
     
-    private Order mapOrder(ResultSet rs) throws SQLException {
-        Order order = new Order();
-        order.setId(rs.getLong("id"));
-        order.setUserId(rs.getLong("user_id"));
-        order.setTotalAmount(rs.getBigDecimal("total_amount"));
-        order.setStatus(OrderStatus.valueOf(rs.getString("status")));
-        order.setPaymentId(rs.getString("payment_id"));
-        order.setPaymentStatus(PaymentStatus.valueOf(rs.getString("payment_status")));
-        order.setShippingAddress(rs.getString("shipping_address"));
-        order.setOrderDate(rs.getTimestamp("order_date").toLocalDateTime());
-        return order;
-    }
+    private static final RowMapperFactory<Order> ORDER_MAPPER = columns -> {
+        int id = columns.required("id");
+        int userId = columns.of("user_id");
+        int totalAmount = columns.of("total_amount");
+        int status = columns.of("status");
+        int paymentId = columns.of("payment_id");
+        int paymentStatus = columns.of("payment_status");
+        int shippingAddress = columns.of("shipping_address");
+        int orderDate = columns.of("order_date");
+        int version = columns.of("version");
+        
+        return rs -> {
+            Order order = new Order();
+            order.setId(rs.getLong(id));
+            if (userId > 0) order.setUserId(rs.getLong(userId));
+            if (totalAmount > 0) order.setTotalAmount(rs.getBigDecimal(totalAmount));
+            if (status > 0) order.setStatus(OrderStatus.valueOf(rs.getString(status)));
+            if (paymentId > 0) order.setPaymentId(rs.getString(paymentId));
+            if (paymentStatus > 0) order.setPaymentStatus(PaymentStatus.valueOf(rs.getString(paymentStatus)));
+            if (shippingAddress > 0) order.setShippingAddress(rs.getString(shippingAddress));
+            if (orderDate > 0) order.setOrderDate(rs.getTimestamp(orderDate).toLocalDateTime());
+            if (version > 0) order.setVersion(rs.getLong(version));
+            return order;
+        };
+    };
     
     private OrderItem mapOrderItem(ResultSet rs) throws SQLException {
         OrderItem item = new OrderItem();
@@ -0,0 +1,33 @@
+package com.ecommerce.dao;
+
+import com.ecommerce.model.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Callback for price and stock changes of watched products
+ * Before a product update, import upsert or single-product stock change, {@link ProductDAO}
+ * asks each listener whether it watches the product; only then is the row read first, and
+ * the old and new values are reported once the write has committed. Unwatched products cost
+ * a lookup, not a query. Checkout's batched stock reduction is not reported.
+ */
+public interface ProductChangeListener {
+
+    /**
+     * Check whether changes to a product should be reported
+     * Called on the writing thread; must be cheap and must not query the database
+     *
+     * @param productId product ID
+     * @return true to have the change reported
+     */
+    boolean isWatching(Long productId);
+
+    /**
+     * Report a committed change
+     *
+     * @param before product as it was before the write
+     * @param newPrice price after the write
+     * @param newStock stock quantity after the write
+     */
+    void productChanged(Product before, BigDecimal newPrice, int newStock);
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.dao;
 
+import com.ecommerce.exception.ShardedStockException;
 import com.ecommerce.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
@@ -15,6 +17,22 @@ import java.util.List;
 @Repository
 public class ProductDAO extends AbstractDAO<Product> {
     
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Autowired(required = false)
+    private List<ProductChangeListener> changeListeners = List.of();
+    
+    @Autowired(required = false)
+    private StockShardRouter stockShardRouter;
+    
+    private static final String PRODUCT_COLUMNS = 
+        "id, name, description, price, stock_quantity, category, image_url, version, created_at, updated_at";
+    
+    /** Projection without the TEXT description, for cart and checkout lookups */
+    private static final String PRODUCT_SUMMARY_COLUMNS = 
+        "id, name, price, stock_quantity, category, image_url, version, created_at, updated_at";
+    
     @Override
     public Product save(Product product) throws SQLException {
         String sql = "INSERT INTO products (name, description, price, stock_quantity, category, image_url) " +
@@ -30,41 +48,60 @@ public class ProductDAO extends AbstractDAO<Product> {
         );
         
         product.setId(productId);
+        product.setVersion(0L);
+        catalogVersion.changed();
         logger.info("Product saved with ID: {}", productId);
         return product;
     }
     
+    @ReadOnly
     @Override
     public Product findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM products WHERE id = ?";
-        return executeQuerySingle(sql, this::mapProduct, id);
+        if (id == null) {
+            return null;
+        }
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE id = ?";
+        return executeCompiledQueryById(sql, PRODUCT_MAPPER, id);
     }
     
+    @ReadOnly
     @Override
     public List<Product> findAll() throws SQLException {
-        String sql = "SELECT * FROM products ORDER BY created_at DESC";
-        return executeQueryList(sql, this::mapProduct);
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products ORDER BY created_at DESC";
+        return executeCompiledQueryList(sql, PRODUCT_MAPPER);
+    }
+    
+    /**
+     * Stream all products in ID order for exports
+     * The caller must close the stream
+     */
+    @ReadOnly
+    public java.util.stream.Stream<Product> streamAll() throws SQLException {
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products ORDER BY id";
+        return executeCompiledQueryStream(sql, PRODUCT_MAPPER);
     }
     
     /**
      * Find products by category
      */
+    @ReadOnly
     public List<Product> findByCategory(String category) throws SQLException {
-        String sql = "SELECT * FROM products WHERE category = ? ORDER BY name";
-        return executeQueryList(sql, this::mapProduct, category);
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE category = ? ORDER BY name";
+        return executeCompiledQueryList(sql, PRODUCT_MAPPER, category);
     }
     
     /**
      * Find products by multiple categories
      * Demonstrates Collections usage
      */
+    @ReadOnly
     public List<Product> findByCategories(List<String> categories) throws SQLException {
         if (categories == null || categories.isEmpty()) {
             return findAll();
         }
         
         // Build dynamic SQL with IN clause
-        StringBuilder sql = new StringBuilder("SELECT * FROM products WHERE category IN (");
+        StringBuilder sql = new StringBuilder("SELECT " + PRODUCT_COLUMNS + " FROM products WHERE category IN (");
         for (int i = 0; i < categories.size(); i++) {
             sql.append("?");
             if (i < categories.size() - 1) {
@@ -73,77 +110,205 @@ public class ProductDAO extends AbstractDAO<Product> {
         }
         sql.append(") ORDER BY name");
         
-        return executeQueryList(sql.toString(), this::mapProduct, categories.toArray());
+        return executeCompiledQueryList(sql.toString(), PRODUCT_MAPPER, categories.toArray());
+    }
+    
+    /**
+     * Find products by a set of IDs in a single query
+     * Used for batched validation of multi-line cart operations
+     * The description is not loaded
+     * 
+     * @param ids product IDs
+     * @return map of product ID to product (missing IDs are absent)
+     */
+    @ReadOnly
+    public java.util.Map<Long, Product> findByIds(java.util.Collection<Long> ids) throws SQLException {
+        java.util.Map<Long, Product> products = new java.util.HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return products;
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT " + PRODUCT_SUMMARY_COLUMNS + " FROM products WHERE id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        
+        for (Product product : executeCompiledQueryList(sql.toString(), PRODUCT_MAPPER, ids.toArray())) {
+            products.put(product.getId(), product);
+        }
+        return products;
     }
     
     /**
      * Search products by name or description
      */
+    @ReadOnly
     public List<Product> searchProducts(String query) throws SQLException {
-        String sql = "SELECT * FROM products WHERE name LIKE ? OR description LIKE ? ORDER BY name";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE name LIKE ? OR description LIKE ? ORDER BY name";
         String searchPattern = "%" + query + "%";
-        return executeQueryList(sql, this::mapProduct, searchPattern, searchPattern);
+        return executeCompiledQueryList(sql, PRODUCT_MAPPER, searchPattern, searchPattern);
     }
     
     /**
      * Find products by price range
      */
+    @ReadOnly
     public List<Product> findByPriceRange(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice) 
             throws SQLException {
-        String sql = "SELECT * FROM products WHERE price BETWEEN ? AND ? ORDER BY price";
-        return executeQueryList(sql, this::mapProduct, minPrice, maxPrice);
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE price BETWEEN ? AND ? ORDER BY price";
+        return executeCompiledQueryList(sql, PRODUCT_MAPPER, minPrice, maxPrice);
     }
     
     /**
      * Find products in stock
      */
+    @ReadOnly
     public List<Product> findInStock() throws SQLException {
-        String sql = "SELECT * FROM products WHERE stock_quantity > 0 ORDER BY name";
-        return executeQueryList(sql, this::mapProduct);
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE stock_quantity > 0 ORDER BY name";
+        return executeCompiledQueryList(sql, PRODUCT_MAPPER);
     }
     
+    /**
+     * Update all product columns
+     * With a version set, the update is compare-and-set and fails with
+     * {@link com.ecommerce.exception.OptimisticLockException} if the product changed since it was read
+     * (stock writes advance the version too, so a stale stock value is never written back)
+     * 
+     * The stock of a hot-SKU product is left to its shards: the update is refused with
+     * {@link ShardedStockException} if it would change the stock
+     */
     @Override
     public Product update(Product product) throws SQLException {
+        Product before = findIfWatched(product.getId());
+        boolean sharded = isSharded(product.getId());
+        if (sharded) {
+            Product current = before != null ? before : findById(product.getId());
+            if (current != null && product.getStockQuantity() != null
+                    && !product.getStockQuantity().equals(current.getStockQuantity())) {
+                throw new ShardedStockException(product.getId());
+            }
+        }
+        
         String sql = "UPDATE products SET name = ?, description = ?, price = ?, " +
-                    "stock_quantity = ?, category = ?, image_url = ?, updated_at = CURRENT_TIMESTAMP " +
-                    "WHERE id = ?";
+                    (sharded ? "" : "stock_quantity = ?, ") +
+                    "category = ?, image_url = ?, version = version + 1, " +
+                    "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        List<Object> params = new java.util.ArrayList<>(9);
+        params.add(product.getName());
+        params.add(product.getDescription());
+        params.add(product.getPrice());
+        if (!sharded) {
+            params.add(product.getStockQuantity());
+        }
+        params.add(product.getCategory());
+        params.add(product.getImageUrl());
+        params.add(product.getId());
         
-        executeUpdate(sql,
-            product.getName(),
-            product.getDescription(),
-            product.getPrice(),
-            product.getStockQuantity(),
-            product.getCategory(),
-            product.getImageUrl(),
-            product.getId()
-        );
+        if (product.getVersion() == null) {
+            executeUpdate(sql, params.toArray());
+        } else {
+            params.add(product.getVersion());
+            executeVersionedUpdate(sql + " AND version = ?", product, params.toArray());
+        }
         
+        catalogVersion.changed();
+        if (before != null && product.getPrice() != null && product.getStockQuantity() != null) {
+            notifyChanged(before, product.getPrice(), product.getStockQuantity());
+        }
         logger.info("Product updated: {}", product.getId());
         return product;
     }
     
     /**
-     * Update product stock quantity
-     * Used for inventory management
+     * Set product stock quantity if the product is still at the expected version
+     * Absolute writes must be compare-and-set, otherwise concurrent decrements are lost
+     * 
+     * @param productId product ID
+     * @param newQuantity new stock quantity
+     * @param expectedVersion version the quantity was computed from
+     * @return true if updated, false if the product changed in the meantime
      */
-    public void updateStock(Long productId, int newQuantity) throws SQLException {
-        String sql = "UPDATE products SET stock_quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        executeUpdate(sql, newQuantity, productId);
-        logger.info("Stock updated for product {}: new quantity = {}", productId, newQuantity);
+    public boolean updateStock(Long productId, int newQuantity, long expectedVersion) throws SQLException {
+        if (isSharded(productId)) {
+            throw new ShardedStockException(productId);
+        }
+        String sql = "UPDATE products SET stock_quantity = ?, version = version + 1, " +
+                    "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND version = ?";
+        boolean updated = executeUpdate(sql, newQuantity, productId, expectedVersion) > 0;
+        if (updated) {
+            catalogVersion.changed();
+            logger.info("Stock updated for product {}: new quantity = {}", productId, newQuantity);
+        }
+        return updated;
+    }
+    
+    /**
+     * Add a delta to product stock in place
+     * Used by inventory updates; relative writes need no version check.
+     * Hot-SKU products are adjusted through their stock shards. Watching listeners are
+     * told the new stock once the write commits.
+     * 
+     * @param productId product ID
+     * @param delta quantity to add (negative to remove)
+     * @return new stock quantity, or null if the product is missing or stock would go negative
+     */
+    public Integer adjustStock(Long productId, int delta) throws SQLException {
+        return executeInUnitOfWork(conn -> {
+            Product before = findIfWatched(productId);
+            Integer stock = isSharded(productId)
+                    ? stockShardRouter.adjust(conn, productId, delta)
+                    : adjustUnsharded(conn, productId, delta);
+            if (before != null && stock != null) {
+                notifyChanged(before, before.getPrice(), stock);
+            }
+            return stock;
+        });
+    }
+    
+    /**
+     * Add a delta to the stock column of a product that is not sharded
+     */
+    private Integer adjustUnsharded(java.sql.Connection conn, Long productId, int delta) throws SQLException {
+        String sql = "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, " +
+                    "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stock_quantity + ? >= 0";
+        java.sql.PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = prepareStatement(conn, sql);
+            setParameters(stmt, delta, productId, delta);
+            if (stmt.executeUpdate() == 0) {
+                return null;
+            }
+            catalogVersion.changed();
+            closeResources(null, stmt, null);
+            
+            stmt = prepareStatement(conn, "SELECT stock_quantity FROM products WHERE id = ?");
+            setParameters(stmt, productId);
+            rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : null;
+        } finally {
+            closeResources(null, stmt, rs);
+        }
     }
     
     /**
      * Reduce product stock (for order processing)
-     * Returns true if stock was reduced successfully
+     * Returns true if stock was reduced successfully. Hot-SKU and watched products go
+     * through {@link #adjustStock}, which reads the stock back after the write.
      */
     public boolean reduceStock(Long productId, int quantity) throws SQLException {
+        if (isSharded(productId) || isWatched(productId)) {
+            return adjustStock(productId, -quantity) != null;
+        }
         String sql = "UPDATE products SET stock_quantity = stock_quantity - ?, " +
-                    "updated_at = CURRENT_TIMESTAMP " +
+                    "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
                     "WHERE id = ? AND stock_quantity >= ?";
         
         int affected = executeUpdate(sql, quantity, productId, quantity);
         
         if (affected > 0) {
+            catalogVersion.changed();
             logger.info("Stock reduced for product {}: quantity = {}", productId, quantity);
             return true;
         } else {
@@ -152,24 +317,273 @@ public class ProductDAO extends AbstractDAO<Product> {
         }
     }
     
+    /**
+     * Lock stock rows for a set of products within the caller's transaction
+     * Rows are locked in ascending ID order so concurrent checkouts cannot deadlock
+     * 
+     * @param conn transactional connection (auto-commit disabled)
+     * @param productIds product IDs to lock
+     * @return map of product ID to current stock quantity (missing products are absent)
+     */
+    public java.util.Map<Long, Integer> lockStockForUpdate(java.sql.Connection conn, 
+                                                           java.util.Collection<Long> productIds) 
+            throws SQLException {
+        java.util.List<Long> ids = new java.util.ArrayList<>(productIds);
+        java.util.Collections.sort(ids);
+        
+        StringBuilder sql = new StringBuilder("SELECT id, stock_quantity FROM products WHERE id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY id FOR UPDATE");
+        
+        java.util.Map<Long, Integer> stock = new java.util.HashMap<>();
+        java.sql.PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Object[] params = ids.toArray();
+        String query = sql.toString();
+        long start = System.nanoTime();
+        long rows = -1;
+        try {
+            stmt = conn.prepareStatement(query);
+            setParameters(stmt, params);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                stock.put(rs.getLong(1), rs.getInt(2));
+            }
+            rows = stock.size();
+            return stock;
+        } finally {
+            recordQuery(query, start, start, rows, params);
+            closeResources(null, stmt, rs);
+        }
+    }
+    
+    /**
+     * Reduce stock for several products with a single UPDATE
+     * Callers must have validated the quantities under {@link #lockStockForUpdate}
+     * 
+     * @param conn transactional connection holding the row locks
+     * @param quantities product ID to quantity to subtract
+     * @return number of updated rows
+     */
+    public int reduceStockBatch(java.sql.Connection conn, java.util.Map<Long, Integer> quantities) 
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE products SET stock_quantity = stock_quantity - CASE id");
+        Object[] params = new Object[quantities.size() * 3];
+        int p = 0;
+        for (java.util.Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            sql.append(" WHEN ? THEN ?");
+            params[p++] = entry.getKey();
+            params[p++] = entry.getValue();
+        }
+        sql.append(" END, version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id IN (");
+        int i = 0;
+        for (Long productId : quantities.keySet()) {
+            sql.append(i++ == 0 ? "?" : ", ?");
+            params[p++] = productId;
+        }
+        sql.append(")");
+        
+        java.sql.PreparedStatement stmt = null;
+        String query = sql.toString();
+        long start = System.nanoTime();
+        long rows = -1;
+        try {
+            stmt = conn.prepareStatement(query);
+            setParameters(stmt, params);
+            int affected = stmt.executeUpdate();
+            catalogVersion.changed();
+            logger.info("Stock reduced for {} products in one batch", affected);
+            rows = affected;
+            return affected;
+        } finally {
+            recordQuery(query, start, start, rows, params);
+            closeResources(null, stmt, null);
+        }
+    }
+    
     /**
      * Increase product stock (for restocking)
+     * Hot-SKU products are restocked through their stock shards. They and watched products
+     * go through {@link #adjustStock}, which reads the stock back and reports the change.
      */
     public void increaseStock(Long productId, int quantity) throws SQLException {
+        if (isSharded(productId) || isWatched(productId)) {
+            adjustStock(productId, quantity);
+            logger.info("Stock increased for product {}: quantity = {}", productId, quantity);
+            return;
+        }
         String sql = "UPDATE products SET stock_quantity = stock_quantity + ?, " +
-                    "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+                    "version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         executeUpdate(sql, quantity, productId);
+        catalogVersion.changed();
         logger.info("Stock increased for product {}: quantity = {}", productId, quantity);
     }
     
+    /**
+     * Check whether a product's stock is held in hot-SKU shards
+     * Such products refuse absolute stock writes; see {@link StockShardRouter}
+     */
+    public boolean isSharded(Long productId) {
+        return stockShardRouter != null && productId != null && stockShardRouter.isSharded(productId);
+    }
+    
+    /**
+     * Read a product before a write if a change listener watches it
+     * A direct call, so the read goes to the primary (or the unit's connection), not a replica
+     */
+    private Product findIfWatched(Long productId) throws SQLException {
+        return isWatched(productId) ? findById(productId) : null;
+    }
+    
+    private boolean isWatched(Long productId) {
+        for (ProductChangeListener listener : changeListeners) {
+            if (listener.isWatching(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Report a change to the watching listeners once the write has committed
+     */
+    private void notifyChanged(Product before, java.math.BigDecimal newPrice, int newStock) {
+        UnitOfWork.afterCommit(() -> {
+            for (ProductChangeListener listener : changeListeners) {
+                if (listener.isWatching(before.getId())) {
+                    listener.productChanged(before, newPrice, newStock);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Find which of the given product IDs exist, within the caller's transaction
+     *
+     * @param conn transactional connection
+     * @param productIds product IDs to check
+     * @return the IDs that exist
+     */
+    public java.util.Set<Long> findExistingIds(java.sql.Connection conn, java.util.Collection<Long> productIds)
+            throws SQLException {
+        java.util.Set<Long> existing = new java.util.HashSet<>();
+        if (productIds.isEmpty()) {
+            return existing;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT id FROM products WHERE id IN (");
+        for (int i = 0; i < productIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        java.sql.PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Object[] params = productIds.toArray();
+        String query = sql.toString();
+        long start = System.nanoTime();
+        long rows = -1;
+        try {
+            stmt = prepareStatement(conn, query);
+            setParameters(stmt, params);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                existing.add(rs.getLong(1));
+            }
+            rows = existing.size();
+            return existing;
+        } finally {
+            recordQuery(query, start, start, rows, PARAMS_NOT_RECORDED);
+            closeResources(null, stmt, rs);
+        }
+    }
+
+    /**
+     * Insert or update several products with one multi-row statement
+     * Products with an ID update that row (their ID must exist; see {@link #findExistingIds}),
+     * the others are inserted. A null description, category or image URL keeps the stored value.
+     * The catalog version is not advanced; bulk callers do that once when they finish.
+     * Updates of watched products are reported to the change listeners after commit.
+     * Stock is written as an absolute value, so hot-SKU products are refused with
+     * {@link ShardedStockException}; callers should filter them out first.
+     *
+     * @param conn transactional connection
+     * @param products products to write
+     * @return affected rows as reported by the driver (1 per insert, 2 per changed update)
+     */
+    public int upsertBatch(java.sql.Connection conn, List<Product> products) throws SQLException {
+        if (products.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO products (id, name, description, price, stock_quantity, category, image_url) VALUES ");
+        Object[] params = new Object[products.size() * 7];
+        // Watched products as read before the write, by ID
+        java.util.Map<Long, Product> watched = new java.util.HashMap<>();
+        int p = 0;
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (isSharded(product.getId())) {
+                throw new ShardedStockException(product.getId());
+            }
+            Product before = product.getId() != null ? findIfWatched(product.getId()) : null;
+            if (before != null) {
+                watched.put(before.getId(), before);
+            }
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?)");
+            params[p++] = product.getId();
+            params[p++] = product.getName();
+            params[p++] = product.getDescription();
+            params[p++] = product.getPrice();
+            params[p++] = product.getStockQuantity();
+            params[p++] = product.getCategory();
+            params[p++] = product.getImageUrl();
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE name = VALUES(name), ")
+           .append("description = COALESCE(VALUES(description), description), ")
+           .append("price = VALUES(price), stock_quantity = VALUES(stock_quantity), ")
+           .append("category = COALESCE(VALUES(category), category), ")
+           .append("image_url = COALESCE(VALUES(image_url), image_url), ")
+           .append("version = version + 1, updated_at = CURRENT_TIMESTAMP");
+
+        java.sql.PreparedStatement stmt = null;
+        String query = sql.toString();
+        long start = System.nanoTime();
+        long rows = -1;
+        try {
+            // Full batches share one SQL string, so the unit of work reuses the statement
+            stmt = prepareStatement(conn, query);
+            setParameters(stmt, params);
+            int affected = stmt.executeUpdate();
+            rows = affected;
+            for (Product product : products) {
+                Product before = product.getId() != null ? watched.get(product.getId()) : null;
+                if (before != null) {
+                    notifyChanged(before, product.getPrice(), product.getStockQuantity());
+                }
+            }
+            return affected;
+        } finally {
+            recordQuery(query, start, start, rows, PARAMS_NOT_RECORDED);
+            closeResources(null, stmt, null);
+        }
+    }
+
     @Override
     public boolean delete(Long id) throws SQLException {
         String sql = "DELETE FROM products WHERE id = ?";
-        int affected = executeUpdate(sql, id);
+        int affected = id != null ? executeUpdateById(sql, id) : 0;
+        if (affected > 0) {
+            catalogVersion.changed();
+        }
         logger.info("Product deleted: {}", id);
         return affected > 0;
     }
     
+    @ReadOnly
     @Override
     public long count() throws SQLException {
         String sql = "SELECT COUNT(*) FROM products";
@@ -179,6 +593,7 @@ public class ProductDAO extends AbstractDAO<Product> {
     /**
      * Count products by category
      */
+    @ReadOnly
     public long countByCategory(String category) throws SQLException {
         String sql = "SELECT COUNT(*) FROM products WHERE category = ?";
         return executeCount(sql, category);
@@ -188,6 +603,7 @@ public class ProductDAO extends AbstractDAO<Product> {
      * Get all unique categories
      * Demonstrates Set usage for unique values
      */
+    @ReadOnly
     public java.util.Set<String> getAllCategories() throws SQLException {
         String sql = "SELECT DISTINCT category FROM products WHERE category IS NOT NULL ORDER BY category";
         List<Product> products = executeQueryList(sql, rs -> {
@@ -205,19 +621,34 @@ public class ProductDAO extends AbstractDAO<Product> {
     }
     
     /**
-     * Map ResultSet to Product object
+     * Compile a Product mapper for the projected columns
+     * Columns missing from the projection (e.g. description) are left unset
      */
-    private Product mapProduct(ResultSet rs) throws SQLException {
-        Product product = new Product();
-        product.setId(rs.getLong("id"));
-        product.setName(rs.getString("name"));
-        product.setDescription(rs.getString("description"));
-        product.setPrice(rs.getBigDecimal("price"));
-        product.setStockQuantity(rs.getInt("stock_quantity"));
-        product.setCategory(rs.getString("category"));
-        product.setImageUrl(rs.getString("image_url"));
-        product.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-        product.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-        return product;
-    }
+    private static final RowMapperFactory<Product> PRODUCT_MAPPER = columns -> {
+        int id = columns.required("id");
+        int name = columns.of("name");
+        int description = columns.of("description");
+        int price = columns.of("price");
+        int stockQuantity = columns.of("stock_quantity");
+        int category = columns.of("category");
+        int imageUrl = columns.of("image_url");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
+        int version = columns.of("version");
+        
+        return rs -> {
+            Product product = new Product();
+            product.setId(rs.getLong(id));
+            if (name > 0) product.setName(rs.getString(name));
+            if (description > 0) product.setDescription(rs.getString(description));
+            if (price > 0) product.setPrice(rs.getBigDecimal(price));
+            if (stockQuantity > 0) product.setStockQuantity(rs.getInt(stockQuantity));
+            if (category > 0) product.setCategory(rs.getString(category));
+            if (imageUrl > 0) product.setImageUrl(rs.getString(imageUrl));
+            if (createdAt > 0) product.setCreatedAt(rs.getTimestamp(createdAt).toLocalDateTime());
+            if (updatedAt > 0) product.setUpdatedAt(rs.getTimestamp(updatedAt).toLocalDateTime());
+            if (version > 0) product.setVersion(rs.getLong(version));
+            return product;
+        };
+    };
 }
@@ -0,0 +1,20 @@
+package com.ecommerce.dao;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a DAO method as read-only
+ * When a read replica is configured, such methods run against the replica
+ * unless the current request has already used the primary
+ *
+ * Only annotate reads that can tolerate replication lag.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.dao;
+
+import com.ecommerce.config.ReplicaRoutingContext;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request coalescing for identical concurrent reads
+ * The first caller for a key runs the load; callers arriving while it is in flight
+ * wait for it and receive the same result (or the same exception). Once the load
+ * completes the key is released, so nothing is cached beyond the flight itself.
+ *
+ * Results are shared instances and must not be modified by callers. Callers inside a
+ * unit of work or pinned to the primary load on their own: they must see their own writes.
+ */
+public final class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run the load for a key, or join the identical load already in flight
+     *
+     * @param key identifies the query and its arguments
+     * @param loader load to run
+     * @param <V> result type
+     * @return loaded value
+     * @throws SQLException if the load fails
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String key, Loader<V> loader) throws SQLException {
+        if (UnitOfWork.isActive() || ReplicaRoutingContext.isPinnedToPrimary()) {
+            return loader.load();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return (V) await(existing);
+        }
+
+        try {
+            V value = loader.load();
+            flight.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws SQLException {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Load shared by all callers of one flight
+     *
+     * @param <V> result type
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws SQLException;
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecommerce.dao;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Typed parameter binding for PreparedStatements
+ * Replaces setObject so the driver does not dispatch on the value type for every parameter
+ *
+ * A StatementBinder holds one binder per parameter position, resolved from the
+ * parameter types of the first execution. A later value of a different type
+ * (e.g. null, or Integer instead of Long) falls back to a per-class lookup.
+ *
+ * Enums are bound by name, LocalDate as DATE and LocalDateTime as TIMESTAMP.
+ */
+final class StatementBinder {
+
+    /**
+     * Binds a single non-null value at a parameter index
+     */
+    @FunctionalInterface
+    interface ParameterBinder {
+        void bind(PreparedStatement stmt, int index, Object value) throws SQLException;
+    }
+
+    private static final ClassValue<ParameterBinder> BINDERS = new ClassValue<>() {
+        @Override
+        protected ParameterBinder computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private final Class<?>[] types;
+    private final ParameterBinder[] binders;
+
+    private StatementBinder(Class<?>[] types, ParameterBinder[] binders) {
+        this.types = types;
+        this.binders = binders;
+    }
+
+    /**
+     * Build a binder array for the given parameter values
+     *
+     * @param params sample parameters of the statement
+     * @return statement binder
+     */
+    static StatementBinder of(Object... params) {
+        Class<?>[] types = new Class<?>[params.length];
+        ParameterBinder[] binders = new ParameterBinder[params.length];
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] != null) {
+                types[i] = params[i].getClass();
+                binders[i] = BINDERS.get(types[i]);
+            }
+        }
+        return new StatementBinder(types, binders);
+    }
+
+    /**
+     * Bind all parameters using the precomputed binders
+     *
+     * @param stmt statement to bind
+     * @param params parameter values
+     * @throws SQLException if binding fails
+     */
+    void bind(PreparedStatement stmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object value = params[i];
+            if (value == null) {
+                stmt.setNull(i + 1, Types.NULL);
+            } else if (i < types.length && types[i] == value.getClass()) {
+                binders[i].bind(stmt, i + 1, value);
+            } else {
+                BINDERS.get(value.getClass()).bind(stmt, i + 1, value);
+            }
+        }
+    }
+
+    /**
+     * Bind parameters without a precomputed binder array
+     *
+     * @param stmt statement to bind
+     * @param params parameter values
+     * @throws SQLException if binding fails
+     */
+    static void bindAll(PreparedStatement stmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            bindValue(stmt, i + 1, params[i]);
+        }
+    }
+
+    /**
+     * Bind a single value by its runtime type
+     *
+     * @param stmt statement to bind
+     * @param index 1-based parameter index
+     * @param value value, may be null
+     * @throws SQLException if binding fails
+     */
+    static void bindValue(PreparedStatement stmt, int index, Object value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.NULL);
+        } else {
+            BINDERS.get(value.getClass()).bind(stmt, index, value);
+        }
+    }
+
+    private static ParameterBinder resolve(Class<?> type) {
+        if (type == Long.class) {
+            return (stmt, index, value) -> stmt.setLong(index, (Long) value);
+        }
+        if (type == Integer.class) {
+            return (stmt, index, value) -> stmt.setInt(index, (Integer) value);
+        }
+        if (type == String.class) {
+            return (stmt, index, value) -> stmt.setString(index, (String) value);
+        }
+        if (type == BigDecimal.class) {
+            return (stmt, index, value) -> stmt.setBigDecimal(index, (BigDecimal) value);
+        }
+        if (type == Boolean.class) {
+            return (stmt, index, value) -> stmt.setBoolean(index, (Boolean) value);
+        }
+        if (type == Double.class) {
+            return (stmt, index, value) -> stmt.setDouble(index, (Double) value);
+        }
+        if (type == LocalDate.class) {
+            return (stmt, index, value) -> stmt.setDate(index, Date.valueOf((LocalDate) value));
+        }
+        if (type == LocalDateTime.class) {
+            return (stmt, index, value) -> stmt.setTimestamp(index, Timestamp.valueOf((LocalDateTime) value));
+        }
+        if (Enum.class.isAssignableFrom(type)) {
+            return (stmt, index, value) -> stmt.setString(index, ((Enum<?>) value).name());
+        }
+        return PreparedStatement::setObject;
+    }
+}
@@ -0,0 +1,297 @@
+package com.ecommerce.dao;
+
+import com.ecommerce.model.StockShard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StockShardDAO implementation
+ * Manages sharded stock rows for hot (flash-sale) products
+ *
+ * Methods taking a Connection run inside the caller's transaction
+ */
+@Repository
+public class StockShardDAO extends AbstractDAO<StockShard> {
+
+    private static final String SHARD_COLUMNS = "product_id, shard_no, quantity";
+
+    private static final String SHARD_TOTAL =
+        "(SELECT COALESCE(SUM(quantity), 0) FROM product_stock_shards WHERE product_id = ?)";
+
+    private static final String RECONCILE_SQL =
+        "UPDATE products SET stock_quantity = " + SHARD_TOTAL + ", version = version + 1, " +
+        "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stock_quantity <> " + SHARD_TOTAL;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Override
+    public StockShard save(StockShard shard) throws SQLException {
+        String sql = "INSERT INTO product_stock_shards (product_id, shard_no, quantity) VALUES (?, ?, ?)";
+        executeUpdate(sql, shard.getProductId(), shard.getShardNo(), shard.getQuantity());
+        return shard;
+    }
+
+    /**
+     * Get the combined stock of a sharded product
+     * Shards are keyed by product ID, as in {@link #delete}
+     *
+     * @param productId product ID
+     * @return a shard without shard number holding the total, or null if the product is not sharded
+     */
+    @Override
+    public StockShard findById(Long productId) throws SQLException {
+        if (productId == null) {
+            return null;
+        }
+        String sql = "SELECT product_id, SUM(quantity) AS quantity FROM product_stock_shards " +
+                    "WHERE product_id = ? GROUP BY product_id";
+        return executeCompiledQueryById(sql, SHARD_MAPPER, productId);
+    }
+
+    @Override
+    public List<StockShard> findAll() throws SQLException {
+        String sql = "SELECT " + SHARD_COLUMNS + " FROM product_stock_shards ORDER BY product_id, shard_no";
+        return executeCompiledQueryList(sql, SHARD_MAPPER);
+    }
+
+    public List<StockShard> findByProductId(Long productId) throws SQLException {
+        String sql = "SELECT " + SHARD_COLUMNS + " FROM product_stock_shards WHERE product_id = ? ORDER BY shard_no";
+        return executeCompiledQueryList(sql, SHARD_MAPPER, productId);
+    }
+
+    /**
+     * Get the shard count of every sharded product
+     *
+     * @return map of product ID to number of shards
+     */
+    public Map<Long, Integer> findShardCounts() throws SQLException {
+        String sql = "SELECT product_id, COUNT(*) FROM product_stock_shards GROUP BY product_id";
+        List<StockShard> rows = executeQueryList(sql, rs ->
+            new StockShard(rs.getLong(1), rs.getInt(2), 0));
+        
+        Map<Long, Integer> counts = new java.util.HashMap<>();
+        for (StockShard row : rows) {
+            counts.put(row.getProductId(), row.getShardNo());
+        }
+        return counts;
+    }
+
+    @Override
+    public StockShard update(StockShard shard) throws SQLException {
+        String sql = "UPDATE product_stock_shards SET quantity = ? WHERE product_id = ? AND shard_no = ?";
+        executeUpdate(sql, shard.getQuantity(), shard.getProductId(), shard.getShardNo());
+        return shard;
+    }
+
+    /**
+     * Delete all shards of a product
+     */
+    @Override
+    public boolean delete(Long productId) throws SQLException {
+        String sql = "DELETE FROM product_stock_shards WHERE product_id = ?";
+        return executeUpdate(sql, productId) > 0;
+    }
+
+    @Override
+    public long count() throws SQLException {
+        return executeCount("SELECT COUNT(*) FROM product_stock_shards");
+    }
+
+    /**
+     * Split a product's current stock evenly over new shard rows
+     * The product row is locked so no stock change is lost during the split
+     *
+     * @param conn transactional connection
+     * @param productId product ID
+     * @param shards number of shards
+     * @return total stock that was distributed
+     */
+    public int createShards(Connection conn, Long productId, int shards) throws SQLException {
+        int stock = lockProductStock(conn, productId);
+
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(
+                "INSERT INTO product_stock_shards (product_id, shard_no, quantity) VALUES (?, ?, ?)");
+            for (int shardNo = 0; shardNo < shards; shardNo++) {
+                // Spread the remainder over the first shards
+                int quantity = stock / shards + (shardNo < stock % shards ? 1 : 0);
+                setParameters(stmt, productId, shardNo, quantity);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            logger.info("Product {} split into {} stock shards ({} units)", productId, shards, stock);
+            return stock;
+        } finally {
+            closeResources(null, stmt, null);
+        }
+    }
+
+    /**
+     * Take quantity from a single shard if it holds enough
+     *
+     * @param conn transactional connection
+     * @return true if the shard was decremented
+     */
+    public boolean reserveFromShard(Connection conn, Long productId, int shardNo, int quantity)
+            throws SQLException {
+        String sql = "UPDATE product_stock_shards SET quantity = quantity - ? " +
+                    "WHERE product_id = ? AND shard_no = ? AND quantity >= ?";
+        return executeUpdateOn(conn, sql, quantity, productId, shardNo, quantity) > 0;
+    }
+
+    /**
+     * Add quantity back to a shard (cancellations, restocks)
+     *
+     * @param conn transactional connection
+     */
+    public void releaseToShard(Connection conn, Long productId, int shardNo, int quantity)
+            throws SQLException {
+        String sql = "UPDATE product_stock_shards SET quantity = quantity + ? " +
+                    "WHERE product_id = ? AND shard_no = ?";
+        executeUpdateOn(conn, sql, quantity, productId, shardNo);
+    }
+
+    /**
+     * Lock all shards of a product in shard order
+     * Used as the slow path when no single shard can satisfy a reservation
+     *
+     * @param conn transactional connection
+     * @return shards with their current quantities
+     */
+    public List<StockShard> lockShards(Connection conn, Long productId) throws SQLException {
+        String sql = "SELECT " + SHARD_COLUMNS + " FROM product_stock_shards " +
+                    "WHERE product_id = ? ORDER BY shard_no FOR UPDATE";
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<StockShard> shards = new java.util.ArrayList<>();
+        try {
+            stmt = prepareStatement(conn, sql);
+            setParameters(stmt, productId);
+            rs = stmt.executeQuery();
+            ResultSetMapper<StockShard> mapper = compiledMapper(sql, SHARD_MAPPER, rs);
+            while (rs.next()) {
+                shards.add(mapper.map(rs));
+            }
+            return shards;
+        } finally {
+            closeResources(null, stmt, rs);
+        }
+    }
+
+    /**
+     * Sum a product's shards without locking them
+     *
+     * @param conn connection to read with (sees the caller's uncommitted changes)
+     * @param productId product ID
+     * @return total shard stock
+     */
+    public int sumShards(Connection conn, Long productId) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(quantity), 0) FROM product_stock_shards WHERE product_id = ?";
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        long start = System.nanoTime();
+        long rows = -1;
+        try {
+            stmt = prepareStatement(conn, sql);
+            setParameters(stmt, productId);
+            rs = stmt.executeQuery();
+            int total = rs.next() ? rs.getInt(1) : 0;
+            rows = 1;
+            return total;
+        } finally {
+            recordQuery(sql, start, start, rows, PARAMS_NOT_RECORDED);
+            closeResources(null, stmt, rs);
+        }
+    }
+
+    /**
+     * Write the sum of all shards back to products.stock_quantity
+     * The row, its version and the catalog version are only touched if the sum differs,
+     * so an idle hot SKU does not invalidate catalog caches or versioned edits
+     *
+     * @param productId product ID
+     * @return true if the product row was changed
+     */
+    public boolean reconcile(Long productId) throws SQLException {
+        boolean changed = executeUpdate(RECONCILE_SQL, productId, productId, productId) > 0;
+        if (changed) {
+            catalogVersion.changed();
+        }
+        return changed;
+    }
+
+    /**
+     * Reconcile the product row and remove its shards
+     *
+     * @param conn transactional connection
+     * @param productId product ID
+     */
+    public void collapseShards(Connection conn, Long productId) throws SQLException {
+        lockShards(conn, productId);
+        boolean changed = executeUpdateOn(conn, RECONCILE_SQL, productId, productId, productId) > 0;
+        executeUpdateOn(conn, "DELETE FROM product_stock_shards WHERE product_id = ?", productId);
+        if (changed) {
+            catalogVersion.changed();
+        }
+        logger.info("Stock shards collapsed for product {}", productId);
+    }
+
+    private int lockProductStock(Connection conn, Long productId) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = prepareStatement(conn, "SELECT stock_quantity FROM products WHERE id = ? FOR UPDATE");
+            setParameters(stmt, productId);
+            rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("Product not found: " + productId);
+            }
+            return rs.getInt(1);
+        } finally {
+            closeResources(null, stmt, rs);
+        }
+    }
+
+    private int executeUpdateOn(Connection conn, String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = null;
+        long start = System.nanoTime();
+        long rows = -1;
+        try {
+            stmt = prepareStatement(conn, sql);
+            setParameters(stmt, params);
+            int affected = stmt.executeUpdate();
+            rows = affected;
+            return affected;
+        } finally {
+            recordQuery(sql, start, start, rows, params);
+            closeResources(null, stmt, null);
+        }
+    }
+
+    /**
+     * Compile a StockShard mapper for the projected columns
+     * Aggregates without a shard_no column leave the shard number unset
+     */
+    private static final RowMapperFactory<StockShard> SHARD_MAPPER = columns -> {
+        int productId = columns.required("product_id");
+        int shardNo = columns.of("shard_no");
+        int quantity = columns.required("quantity");
+
+        return rs -> {
+            StockShard shard = new StockShard();
+            shard.setProductId(rs.getLong(productId));
+            if (shardNo > 0) shard.setShardNo(rs.getInt(shardNo));
+            shard.setQuantity(rs.getInt(quantity));
+            return shard;
+        };
+    };
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Router for products whose stock is held in shard rows
+ * While a product is in hot-SKU mode, products.stock_quantity is only a copy of the
+ * shard total that is periodically written back from the shards. {@link ProductDAO}
+ * therefore sends relative stock changes of such products here and refuses absolute
+ * ones, which the next write-back would discard.
+ */
+public interface StockShardRouter {
+
+    /**
+     * Check whether a product's stock is sharded
+     * Called on every stock write; must be cheap
+     *
+     * @param productId product ID
+     * @return true if stock changes must go through {@link #adjust}
+     */
+    boolean isSharded(Long productId);
+
+    /**
+     * Add a delta to a sharded product's stock within the caller's transaction
+     *
+     * @param conn transactional connection
+     * @param productId product ID
+     * @param delta quantity to add (negative to remove)
+     * @return new total stock, or null if the shards hold less than a negative delta removes
+     */
+    Integer adjust(Connection conn, Long productId, int delta) throws SQLException;
+}
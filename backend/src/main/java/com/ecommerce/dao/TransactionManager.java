@@ -1,5 +1,7 @@
 package com.ecommerce.dao;
 
+import com.ecommerce.config.ReplicaRoutingContext;
+import com.ecommerce.exception.ECommerceException;
 import com.ecommerce.exception.TransactionException;
 import com.ecommerce.util.DatabaseUtil;
 import org.slf4j.Logger;
@@ -23,6 +25,9 @@ public class TransactionManager {
     
     private static final Logger logger = LoggerFactory.getLogger(TransactionManager.class);
     
+    /** SQLState of a transaction rolled back as a deadlock victim or to be rerun */
+    private static final String DEADLOCK_SQL_STATE = "40001";
+    
     @Autowired
     private DataSource dataSource;
     
@@ -30,22 +35,33 @@ public class TransactionManager {
      * Execute a callback within a transaction
      * Demonstrates manual transaction management with commit/rollback
      * 
+     * The connection is bound as the current unit of work, so DAO calls made by the
+     * callback join the transaction. If a unit is already active, the callback joins it.
+     * 
      * @param callback transaction callback containing business logic
      * @param <T> return type
      * @return result from callback
      * @throws TransactionException if transaction fails
      */
     public <T> T executeInTransaction(TransactionCallback<T> callback) throws TransactionException {
+        Connection current = UnitOfWork.currentConnection();
+        if (current != null) {
+            return joinTransaction(current, callback);
+        }
+        
         Connection conn = null;
+        UnitOfWork unit = null;
         boolean originalAutoCommit = true;
         
         try {
-            // Get connection from pool
+            // Get connection from pool; the rest of the request reads its own writes
+            ReplicaRoutingContext.pinToPrimary();
             conn = dataSource.getConnection();
             originalAutoCommit = conn.getAutoCommit();
             
             // Disable auto-commit for manual transaction management
             conn.setAutoCommit(false);
+            unit = UnitOfWork.begin(conn);
             logger.debug("Transaction started - auto-commit disabled");
             
             // Execute business logic
@@ -53,6 +69,7 @@ public class TransactionManager {
             
             // Commit transaction if successful
             conn.commit();
+            unit.committed();
             logger.info("Transaction committed successfully");
             
             return result;
@@ -68,9 +85,16 @@ public class TransactionManager {
                     throw new TransactionException("Transaction rollback failed", rollbackEx);
                 }
             }
+            // Business failures (e.g. insufficient stock) keep their own type and status
+            if (e instanceof ECommerceException) {
+                throw (ECommerceException) e;
+            }
             throw new TransactionException("Transaction failed: " + e.getMessage(), e);
             
         } finally {
+            if (unit != null) {
+                unit.end();
+            }
             // Restore original auto-commit state and close connection
             if (conn != null) {
                 try {
@@ -84,6 +108,56 @@ public class TransactionManager {
         }
     }
     
+    /**
+     * Execute a callback within a transaction, rerunning it if the database rolls it back
+     * as a deadlock victim, or the callback asks for a rerun with SQLState 40001
+     * The whole transaction is rolled back first, so the callback starts over and must
+     * have no side effects outside the database. Joins an active unit without retrying.
+     * 
+     * @param maxAttempts maximum number of attempts
+     * @param callback transaction callback containing business logic
+     * @param <T> return type
+     * @return result from the first attempt that commits
+     * @throws TransactionException if an attempt fails for another reason or every attempt deadlocks
+     */
+    public <T> T executeInTransaction(int maxAttempts, TransactionCallback<T> callback) 
+            throws TransactionException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return executeInTransaction(callback);
+            } catch (TransactionException e) {
+                if (attempt >= maxAttempts || UnitOfWork.isActive() || !isDeadlock(e)) {
+                    throw e;
+                }
+                logger.warn("Transaction rolled back for a rerun, retrying (attempt {}/{})", attempt, maxAttempts);
+            }
+        }
+    }
+    
+    private static boolean isDeadlock(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException 
+                    && DEADLOCK_SQL_STATE.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Run a callback inside the already active transaction
+     * Commit and rollback are left to the outer transaction
+     */
+    private <T> T joinTransaction(Connection conn, TransactionCallback<T> callback) {
+        try {
+            return callback.execute(conn);
+        } catch (ECommerceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TransactionException("Transaction failed: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Execute a void callback within a transaction
      * 
@@ -106,13 +180,25 @@ public class TransactionManager {
      */
     public void executeMultipleInTransaction(TransactionCallbackVoid... callbacks) 
             throws TransactionException {
+        if (UnitOfWork.isActive()) {
+            executeInTransactionVoid(conn -> {
+                for (TransactionCallbackVoid callback : callbacks) {
+                    callback.execute(conn);
+                }
+            });
+            return;
+        }
+        
         Connection conn = null;
+        UnitOfWork unit = null;
         boolean originalAutoCommit = true;
         
         try {
+            ReplicaRoutingContext.pinToPrimary();
             conn = dataSource.getConnection();
             originalAutoCommit = conn.getAutoCommit();
             conn.setAutoCommit(false);
+            unit = UnitOfWork.begin(conn);
             
             logger.debug("Batch transaction started with {} operations", callbacks.length);
             
@@ -124,6 +210,7 @@ public class TransactionManager {
             
             // Commit all operations
             conn.commit();
+            unit.committed();
             logger.info("Batch transaction committed successfully - {} operations", callbacks.length);
             
         } catch (Exception e) {
@@ -133,6 +220,9 @@ public class TransactionManager {
             throw new TransactionException("Batch transaction failed: " + e.getMessage(), e);
             
         } finally {
+            if (unit != null) {
+                unit.end();
+            }
             if (conn != null) {
                 try {
                     conn.setAutoCommit(originalAutoCommit);
@@ -152,6 +242,7 @@ public class TransactionManager {
      * @throws SQLException if connection cannot be obtained
      */
     public Connection beginTransaction() throws SQLException {
+        ReplicaRoutingContext.pinToPrimary();
         Connection conn = dataSource.getConnection();
         conn.setAutoCommit(false);
         logger.debug("Transaction begun - connection provided to caller");
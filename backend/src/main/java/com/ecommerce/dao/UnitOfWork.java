@@ -0,0 +1,276 @@
+package com.ecommerce.dao;
+
+import com.ecommerce.config.ReplicaRoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Unit of work bound to the current thread
+ * Demonstrates connection-per-transaction: every DAO call made while a unit is
+ * active runs on the unit's connection and commits or rolls back with it
+ *
+ * Outside a unit, each DAO call takes its own pooled connection and runs in
+ * auto-commit mode, so single reads never leave an InnoDB transaction open.
+ * Units started while another is active join the outer unit.
+ *
+ * Within a unit, prepared statements are cached by SQL and reused, so loops of
+ * identical DAO calls prepare each statement once; all are closed when the unit ends.
+ * Actions registered with {@link #afterCommit} run once the unit has committed.
+ */
+public final class UnitOfWork {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /** Bound on cached statements per unit; dynamic IN-list SQL beyond it is not cached */
+    private static final int MAX_CACHED_STATEMENTS = 64;
+
+    private static final LongAdder PREPARED = new LongAdder();
+    private static final LongAdder REUSED = new LongAdder();
+
+    private final Connection connection;
+
+    // Units are thread-confined, so plain collections are enough
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final Map<String, PreparedStatement> keyStatements = new HashMap<>();
+    private final Set<PreparedStatement> cached = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    private UnitOfWork(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Get the connection of the active unit
+     *
+     * @return bound connection, or null outside a unit
+     */
+    public static Connection currentConnection() {
+        UnitOfWork unit = CURRENT.get();
+        return unit != null ? unit.connection : null;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Check whether a connection belongs to the active unit
+     * Such connections must not be closed or committed by individual DAO calls
+     *
+     * @param conn connection to check
+     * @return true if conn is the bound connection
+     */
+    public static boolean owns(Connection conn) {
+        UnitOfWork unit = CURRENT.get();
+        return unit != null && conn != null && unit.connection == conn;
+    }
+
+    /**
+     * Run an action once the active unit commits, or right away outside a unit
+     * Used to publish changes (cache invalidation, version counters) only when
+     * other connections can see them; the action is dropped if the unit rolls back
+     *
+     * @param action action to run after commit
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit != null) {
+            unit.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Prepare a statement on the unit's connection, reusing a cached one for the same SQL
+     *
+     * @param sql SQL to prepare
+     * @param returnGeneratedKeys whether generated keys are requested
+     * @return prepared statement; callers must not close it
+     * @throws SQLException if preparing fails
+     */
+    PreparedStatement prepare(String sql, boolean returnGeneratedKeys) throws SQLException {
+        Map<String, PreparedStatement> cache = returnGeneratedKeys ? keyStatements : statements;
+        PreparedStatement stmt = cache.get(sql);
+        if (stmt != null) {
+            REUSED.increment();
+            return stmt;
+        }
+
+        stmt = returnGeneratedKeys
+                ? connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql);
+        PREPARED.increment();
+        if (cached.size() < MAX_CACHED_STATEMENTS) {
+            cache.put(sql, stmt);
+            cached.add(stmt);
+        }
+        return stmt;
+    }
+
+    /**
+     * Get the active unit
+     *
+     * @return current unit, or null outside a unit
+     */
+    static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Check whether a statement is cached by the active unit and must stay open
+     *
+     * @param stmt statement to check
+     * @return true if the unit will close the statement itself
+     */
+    public static boolean isCached(PreparedStatement stmt) {
+        UnitOfWork unit = CURRENT.get();
+        return unit != null && stmt != null && unit.cached.contains(stmt);
+    }
+
+    /**
+     * Statement cache counters across all units
+     *
+     * @return prepared and reused statement counts
+     */
+    public static Map<String, Long> statementStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        long prepared = PREPARED.sum();
+        long reused = REUSED.sum();
+        stats.put("prepared", prepared);
+        stats.put("reused", reused);
+        stats.put("hitRatePercent", prepared + reused == 0 ? 0 : reused * 100 / (prepared + reused));
+        return stats;
+    }
+
+    /**
+     * Bind a transactional connection to the current thread
+     * The caller owns the connection and must call {@link #end()} before closing it
+     *
+     * @param conn connection with auto-commit disabled
+     * @return the bound unit
+     */
+    static UnitOfWork begin(Connection conn) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A unit of work is already active on this thread");
+        }
+        UnitOfWork unit = new UnitOfWork(conn);
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    /**
+     * Run the actions registered with {@link #afterCommit}
+     * Called by the unit's owner after a successful commit
+     */
+    void committed() {
+        for (Runnable action : afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.error("Error running after-commit action", e);
+            }
+        }
+        afterCommit.clear();
+    }
+
+    /**
+     * Close cached statements and unbind this unit from the current thread
+     */
+    void end() {
+        for (PreparedStatement stmt : cached) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                logger.error("Error closing cached statement", e);
+            }
+        }
+        cached.clear();
+        statements.clear();
+        keyStatements.clear();
+        afterCommit.clear();
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Run work in a unit of work, joining the active unit if there is one
+     * A new unit commits when the work completes and rolls back if it throws
+     *
+     * @param dataSource pool to take the connection from
+     * @param work work to run on the unit's connection
+     * @param <R> result type
+     * @return result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    public static <R> R execute(DataSource dataSource, Work<R> work) throws SQLException {
+        Connection current = currentConnection();
+        if (current != null) {
+            return work.execute(current);
+        }
+
+        // A unit opened for a read-only DAO method may run on the replica
+        if (!ReplicaRoutingContext.useReplica()) {
+            ReplicaRoutingContext.pinToPrimary();
+        }
+        Connection conn = dataSource.getConnection();
+        boolean originalAutoCommit = conn.getAutoCommit();
+        UnitOfWork unit = null;
+        try {
+            conn.setAutoCommit(false);
+            unit = begin(conn);
+
+            R result = work.execute(conn);
+            conn.commit();
+            unit.committed();
+            return result;
+
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.rollback();
+                logger.warn("Unit of work rolled back: {}", e.getMessage());
+            } catch (SQLException rollbackEx) {
+                e.addSuppressed(rollbackEx);
+            }
+            throw e;
+
+        } finally {
+            if (unit != null) {
+                unit.end();
+            }
+            try {
+                conn.setAutoCommit(originalAutoCommit);
+            } catch (SQLException e) {
+                logger.error("Error restoring auto-commit", e);
+            }
+            conn.close();
+        }
+    }
+
+    /**
+     * Work executed on the unit's connection
+     *
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    public interface Work<R> {
+        R execute(Connection conn) throws SQLException;
+    }
+}
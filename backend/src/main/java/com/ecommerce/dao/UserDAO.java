@@ -18,29 +18,37 @@ import java.util.List;
 @Repository
 public class UserDAO extends AbstractDAO<User> {
     
+    private static final String USER_COLUMNS = 
+        "id, email, password, first_name, last_name, role, created_at, updated_at";
+    
+    /**
+     * Save a user and its customer/admin details atomically
+     */
     @Override
     public User save(User user) throws SQLException {
         String sql = "INSERT INTO users (email, password, first_name, last_name, role) VALUES (?, ?, ?, ?, ?)";
         
-        Long userId = executeUpdateWithGeneratedKey(sql,
-            user.getEmail(),
-            user.getPassword(),
-            user.getFirstName(),
-            user.getLastName(),
-            user.getRole().name()
-        );
-        
-        user.setId(userId);
-        
-        // Save type-specific data
-        if (user instanceof Customer) {
-            saveCustomerDetails((Customer) user);
-        } else if (user instanceof Admin) {
-            saveAdminDetails((Admin) user);
-        }
-        
-        logger.info("User saved with ID: {}", userId);
-        return user;
+        return executeInUnitOfWork(conn -> {
+            Long userId = executeUpdateWithGeneratedKey(sql,
+                user.getEmail(),
+                user.getPassword(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole()
+            );
+            
+            user.setId(userId);
+            
+            // Save type-specific data
+            if (user instanceof Customer) {
+                saveCustomerDetails((Customer) user);
+            } else if (user instanceof Admin) {
+                saveAdminDetails((Admin) user);
+            }
+            
+            logger.info("User saved with ID: {}", userId);
+            return user;
+        });
     }
     
     /**
@@ -63,14 +71,18 @@ public class UserDAO extends AbstractDAO<User> {
         executeUpdate(sql,
             admin.getId(),
             admin.getDepartment(),
-            admin.getAccessLevel() != null ? admin.getAccessLevel().name() : AccessLevel.LIMITED.name()
+            admin.getAccessLevel() != null ? admin.getAccessLevel() : AccessLevel.LIMITED
         );
     }
     
+    @ReadOnly
     @Override
     public User findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM users WHERE id = ?";
-        return executeQuerySingle(sql, this::mapUser, id);
+        if (id == null) {
+            return null;
+        }
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE id = ?";
+        return executeCompiledQueryById(sql, userMapper, id);
     }
     
     /**
@@ -78,22 +90,63 @@ public class UserDAO extends AbstractDAO<User> {
      * Used for authentication
      */
     public User findByEmail(String email) throws SQLException {
-        String sql = "SELECT * FROM users WHERE email = ?";
-        return executeQuerySingle(sql, this::mapUser, email);
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE email = ?";
+        return executeCompiledQuerySingle(sql, userMapper, email);
     }
     
+    @ReadOnly
     @Override
     public List<User> findAll() throws SQLException {
-        String sql = "SELECT * FROM users ORDER BY created_at DESC";
-        return executeQueryList(sql, this::mapUser);
+        String sql = "SELECT " + USER_COLUMNS + " FROM users ORDER BY created_at DESC";
+        // One connection for the user rows and their per-user detail lookups
+        return executeInUnitOfWork(conn -> executeCompiledQueryList(sql, userMapper));
+    }
+    
+    /**
+     * Stream all users in ID order for exports
+     * Customer/admin details and passwords are not loaded; the caller must close the stream
+     */
+    @ReadOnly
+    public java.util.stream.Stream<User> streamAll() throws SQLException {
+        String sql = "SELECT id, email, first_name, last_name, role, created_at, updated_at FROM users ORDER BY id";
+        return executeCompiledQueryStream(sql, USER_SUMMARY_MAPPER);
+    }
+    
+    /**
+     * Find users by a set of IDs in a single query, for notification fan-out
+     * Customer/admin details and passwords are not loaded
+     * 
+     * @param ids user IDs
+     * @return map of user ID to user (missing IDs are absent)
+     */
+    @ReadOnly
+    public java.util.Map<Long, User> findSummariesByIds(java.util.Collection<Long> ids) throws SQLException {
+        java.util.Map<Long, User> users = new java.util.HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return users;
+        }
+        
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, email, first_name, last_name, role FROM users WHERE id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        
+        for (User user : executeCompiledQueryList(sql.toString(), USER_SUMMARY_MAPPER, ids.toArray())) {
+            users.put(user.getId(), user);
+        }
+        return users;
     }
     
     /**
      * Find all users by role
      */
+    @ReadOnly
     public List<User> findByRole(UserRole role) throws SQLException {
-        String sql = "SELECT * FROM users WHERE role = ? ORDER BY created_at DESC";
-        return executeQueryList(sql, this::mapUser, role.name());
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE role = ? ORDER BY created_at DESC";
+        // One connection for the user rows and their per-user detail lookups
+        return executeInUnitOfWork(conn -> executeCompiledQueryList(sql, userMapper, role));
     }
     
     @Override
@@ -101,22 +154,24 @@ public class UserDAO extends AbstractDAO<User> {
         String sql = "UPDATE users SET email = ?, first_name = ?, last_name = ?, " +
                     "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         
-        executeUpdate(sql,
-            user.getEmail(),
-            user.getFirstName(),
-            user.getLastName(),
-            user.getId()
-        );
-        
-        // Update type-specific data
-        if (user instanceof Customer) {
-            updateCustomerDetails((Customer) user);
-        } else if (user instanceof Admin) {
-            updateAdminDetails((Admin) user);
-        }
-        
-        logger.info("User updated: {}", user.getId());
-        return user;
+        return executeInUnitOfWork(conn -> {
+            executeUpdate(sql,
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getId()
+            );
+            
+            // Update type-specific data
+            if (user instanceof Customer) {
+                updateCustomerDetails((Customer) user);
+            } else if (user instanceof Admin) {
+                updateAdminDetails((Admin) user);
+            }
+            
+            logger.info("User updated: {}", user.getId());
+            return user;
+        });
     }
     
     /**
@@ -138,7 +193,7 @@ public class UserDAO extends AbstractDAO<User> {
         String sql = "UPDATE admins SET department = ?, access_level = ? WHERE user_id = ?";
         executeUpdate(sql,
             admin.getDepartment(),
-            admin.getAccessLevel().name(),
+            admin.getAccessLevel(),
             admin.getId()
         );
     }
@@ -155,17 +210,29 @@ public class UserDAO extends AbstractDAO<User> {
     @Override
     public boolean delete(Long id) throws SQLException {
         String sql = "DELETE FROM users WHERE id = ?";
-        int affected = executeUpdate(sql, id);
+        int affected = id != null ? executeUpdateById(sql, id) : 0;
         logger.info("User deleted: {}", id);
         return affected > 0;
     }
     
+    @ReadOnly
     @Override
     public long count() throws SQLException {
         String sql = "SELECT COUNT(*) FROM users";
         return executeCount(sql);
     }
     
+    /**
+     * Find a user's ID by email, for resolving the authenticated principal
+     *
+     * @return user ID, or null if no user has this email
+     */
+    public Long findIdByEmail(String email) throws SQLException {
+        String sql = "SELECT id, email, first_name, last_name, role, created_at, updated_at FROM users WHERE email = ?";
+        User user = executeCompiledQuerySingle(sql, USER_SUMMARY_MAPPER, email);
+        return user != null ? user.getId() : null;
+    }
+    
     /**
      * Check if email already exists
      */
@@ -175,55 +242,101 @@ public class UserDAO extends AbstractDAO<User> {
     }
     
     /**
-     * Map ResultSet to User object (polymorphic)
+     * Compile a User mapper (polymorphic)
      * Demonstrates polymorphism - returns Customer or Admin based on role
      */
-    private User mapUser(ResultSet rs) throws SQLException {
-        UserRole role = UserRole.valueOf(rs.getString("role"));
-        User user;
+    private final RowMapperFactory<User> userMapper = columns -> {
+        int id = columns.required("id");
+        int role = columns.required("role");
+        int email = columns.of("email");
+        int password = columns.of("password");
+        int firstName = columns.of("first_name");
+        int lastName = columns.of("last_name");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
         
-        // Create appropriate subclass based on role
-        if (role == UserRole.CUSTOMER) {
-            user = new Customer();
-            loadCustomerDetails((Customer) user, rs.getLong("id"));
-        } else {
-            user = new Admin();
-            loadAdminDetails((Admin) user, rs.getLong("id"));
-        }
-        
-        // Set common fields
-        user.setId(rs.getLong("id"));
-        user.setEmail(rs.getString("email"));
-        user.setPassword(rs.getString("password"));
-        user.setFirstName(rs.getString("first_name"));
-        user.setLastName(rs.getString("last_name"));
-        user.setRole(role);
-        user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-        user.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return rs -> {
+            long userId = rs.getLong(id);
+            UserRole userRole = UserRole.valueOf(rs.getString(role));
+            User user;
+            
+            // Create appropriate subclass based on role
+            if (userRole == UserRole.CUSTOMER) {
+                user = new Customer();
+                loadCustomerDetails((Customer) user, userId);
+            } else {
+                user = new Admin();
+                loadAdminDetails((Admin) user, userId);
+            }
+            
+            // Set common fields
+            user.setId(userId);
+            if (email > 0) user.setEmail(rs.getString(email));
+            if (password > 0) user.setPassword(rs.getString(password));
+            if (firstName > 0) user.setFirstName(rs.getString(firstName));
+            if (lastName > 0) user.setLastName(rs.getString(lastName));
+            user.setRole(userRole);
+            if (createdAt > 0) user.setCreatedAt(rs.getTimestamp(createdAt).toLocalDateTime());
+            if (updatedAt > 0) user.setUpdatedAt(rs.getTimestamp(updatedAt).toLocalDateTime());
+            
+            return user;
+        };
+    };
+    
+    /**
+     * Compile a User mapper that skips the per-user customer/admin lookups
+     */
+    private static final RowMapperFactory<User> USER_SUMMARY_MAPPER = columns -> {
+        int id = columns.required("id");
+        int role = columns.required("role");
+        int email = columns.of("email");
+        int firstName = columns.of("first_name");
+        int lastName = columns.of("last_name");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
         
-        return user;
-    }
+        return rs -> {
+            UserRole userRole = UserRole.valueOf(rs.getString(role));
+            User user = userRole == UserRole.CUSTOMER ? new Customer() : new Admin();
+            user.setId(rs.getLong(id));
+            if (email > 0) user.setEmail(rs.getString(email));
+            if (firstName > 0) user.setFirstName(rs.getString(firstName));
+            if (lastName > 0) user.setLastName(rs.getString(lastName));
+            user.setRole(userRole);
+            if (createdAt > 0) user.setCreatedAt(rs.getTimestamp(createdAt).toLocalDateTime());
+            if (updatedAt > 0) user.setUpdatedAt(rs.getTimestamp(updatedAt).toLocalDateTime());
+            return user;
+        };
+    };
     
     /**
      * Load customer-specific details
      */
     private void loadCustomerDetails(Customer customer, Long userId) throws SQLException {
-        String sql = "SELECT * FROM customers WHERE user_id = ?";
+        String sql = "SELECT phone_number, shipping_address FROM customers WHERE user_id = ?";
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
             stmt.setLong(1, userId);
             rs = stmt.executeQuery();
             
+            rows = 0;
             if (rs.next()) {
                 customer.setPhoneNumber(rs.getString("phone_number"));
                 customer.setShippingAddress(rs.getString("shipping_address"));
+                rows = 1;
             }
         } finally {
+            recordQuery(sql, start, acquired, rows, PARAMS_NOT_RECORDED);
             closeResources(conn, stmt, rs);
         }
     }
@@ -232,23 +345,31 @@ public class UserDAO extends AbstractDAO<User> {
      * Load admin-specific details
      */
     private void loadAdminDetails(Admin admin, Long userId) throws SQLException {
-        String sql = "SELECT * FROM admins WHERE user_id = ?";
+        String sql = "SELECT department, access_level FROM admins WHERE user_id = ?";
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
+        long start = System.nanoTime();
+        long acquired = 0;
+        long rows = -1;
+        
         try {
             conn = getConnection();
-            stmt = conn.prepareStatement(sql);
+            acquired = System.nanoTime();
+            stmt = prepareStatement(conn, sql);
             stmt.setLong(1, userId);
             rs = stmt.executeQuery();
             
+            rows = 0;
             if (rs.next()) {
                 admin.setDepartment(rs.getString("department"));
                 String accessLevel = rs.getString("access_level");
                 admin.setAccessLevel(accessLevel != null ? AccessLevel.valueOf(accessLevel) : AccessLevel.LIMITED);
+                rows = 1;
             }
         } finally {
+            recordQuery(sql, start, acquired, rows, PARAMS_NOT_RECORDED);
             closeResources(conn, stmt, rs);
         }
     }
@@ -1,11 +1,12 @@
 package com.ecommerce.dao;
 
+import com.ecommerce.model.Product;
 import com.ecommerce.model.Wishlist;
 import org.springframework.stereotype.Repository;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * WishlistDAO implementation
@@ -22,21 +23,65 @@ public class WishlistDAO extends AbstractDAO<Wishlist> {
         return wishlist;
     }
     
+    @ReadOnly
     @Override
     public Wishlist findById(Long id) throws SQLException {
-        String sql = "SELECT * FROM wishlist WHERE id = ?";
-        return executeQuerySingle(sql, this::mapWishlist, id);
+        if (id == null) {
+            return null;
+        }
+        String sql = "SELECT id, user_id, product_id, added_at FROM wishlist WHERE id = ?";
+        return executeCompiledQueryById(sql, WISHLIST_MAPPER, id);
     }
     
+    @ReadOnly
     @Override
     public List<Wishlist> findAll() throws SQLException {
-        String sql = "SELECT * FROM wishlist";
-        return executeQueryList(sql, this::mapWishlist);
+        String sql = "SELECT id, user_id, product_id, added_at FROM wishlist";
+        return executeCompiledQueryList(sql, WISHLIST_MAPPER);
     }
     
+    @ReadOnly
     public List<Wishlist> findByUserId(Long userId) throws SQLException {
-        String sql = "SELECT * FROM wishlist WHERE user_id = ?";
-        return executeQueryList(sql, this::mapWishlist, userId);
+        String sql = "SELECT id, user_id, product_id, added_at FROM wishlist WHERE user_id = ?";
+        return executeCompiledQueryList(sql, WISHLIST_MAPPER, userId);
+    }
+    
+    /**
+     * Find a user's wishlist with product details, newest first, in a single join
+     * The product description is not loaded
+     * 
+     * @param userId user ID
+     * @return wishlist items with their products
+     */
+    @ReadOnly
+    public List<Wishlist> findWithProductsByUserId(Long userId) throws SQLException {
+        String sql = "SELECT w.id, w.user_id, w.product_id, w.added_at, p.name AS product_name, " +
+                    "p.price AS product_price, p.stock_quantity AS product_stock_quantity, " +
+                    "p.category AS product_category, p.image_url AS product_image_url, " +
+                    "p.version AS product_version " +
+                    "FROM wishlist w JOIN products p ON p.id = w.product_id " +
+                    "WHERE w.user_id = ? ORDER BY w.added_at DESC, w.id DESC";
+        return executeCompiledQueryList(sql, WISHLIST_PRODUCT_MAPPER, userId);
+    }
+    
+    /**
+     * Stream every (user, product) pair, for building the watcher index
+     * The caller must close the stream
+     */
+    @ReadOnly
+    public Stream<Wishlist> streamAll() throws SQLException {
+        String sql = "SELECT id, user_id, product_id FROM wishlist ORDER BY product_id";
+        return executeCompiledQueryStream(sql, WISHLIST_MAPPER);
+    }
+    
+    /**
+     * Add a product to a wishlist unless it is already there
+     * 
+     * @return true if added, false if the product was already on the wishlist
+     */
+    public boolean addIfAbsent(Long userId, Long productId) throws SQLException {
+        String sql = "INSERT IGNORE INTO wishlist (user_id, product_id) VALUES (?, ?)";
+        return executeUpdate(sql, userId, productId) > 0;
     }
     
     @Override
@@ -47,7 +92,7 @@ public class WishlistDAO extends AbstractDAO<Wishlist> {
     @Override
     public boolean delete(Long id) throws SQLException {
         String sql = "DELETE FROM wishlist WHERE id = ?";
-        return executeUpdate(sql, id) > 0;
+        return id != null && executeUpdateById(sql, id) > 0;
     }
     
     public boolean deleteByUserAndProduct(Long userId, Long productId) throws SQLException {
@@ -55,17 +100,49 @@ public class WishlistDAO extends AbstractDAO<Wishlist> {
         return executeUpdate(sql, userId, productId) > 0;
     }
     
+    @ReadOnly
     @Override
     public long count() throws SQLException {
         return executeCount("SELECT COUNT(*) FROM wishlist");
     }
     
-    private Wishlist mapWishlist(ResultSet rs) throws SQLException {
-        Wishlist wishlist = new Wishlist();
-        wishlist.setId(rs.getLong("id"));
-        wishlist.setUserId(rs.getLong("user_id"));
-        wishlist.setProductId(rs.getLong("product_id"));
-        wishlist.setAddedAt(rs.getTimestamp("added_at").toLocalDateTime());
-        return wishlist;
-    }
+    private static final RowMapperFactory<Wishlist> WISHLIST_MAPPER = columns -> {
+        int id = columns.required("id");
+        int userId = columns.required("user_id");
+        int productId = columns.required("product_id");
+        int addedAt = columns.of("added_at");
+        
+        return rs -> {
+            Wishlist wishlist = new Wishlist();
+            wishlist.setId(rs.getLong(id));
+            wishlist.setUserId(rs.getLong(userId));
+            wishlist.setProductId(rs.getLong(productId));
+            if (addedAt > 0) wishlist.setAddedAt(rs.getTimestamp(addedAt).toLocalDateTime());
+            return wishlist;
+        };
+    };
+    
+    private static final RowMapperFactory<Wishlist> WISHLIST_PRODUCT_MAPPER = columns -> {
+        ResultSetMapper<Wishlist> item = WISHLIST_MAPPER.compile(columns);
+        int name = columns.required("product_name");
+        int price = columns.required("product_price");
+        int stockQuantity = columns.required("product_stock_quantity");
+        int category = columns.required("product_category");
+        int imageUrl = columns.required("product_image_url");
+        int version = columns.required("product_version");
+        
+        return rs -> {
+            Wishlist wishlist = item.map(rs);
+            Product product = new Product();
+            product.setId(wishlist.getProductId());
+            product.setName(rs.getString(name));
+            product.setPrice(rs.getBigDecimal(price));
+            product.setStockQuantity(rs.getInt(stockQuantity));
+            product.setCategory(rs.getString(category));
+            product.setImageUrl(rs.getString(imageUrl));
+            product.setVersion(rs.getLong(version));
+            wishlist.setProduct(product);
+            return wishlist;
+        };
+    };
 }
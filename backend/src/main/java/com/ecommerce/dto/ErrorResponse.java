@@ -39,4 +39,41 @@ public class ErrorResponse {
 
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+
+    /**
+     * Immutable response that can be built once and shared across requests
+     * The timestamp is taken when the body is serialized
+     *
+     * @return shared error response
+     */
+    public static ErrorResponse prebuilt(int status, String error, String message, String errorCode) {
+        return new Prebuilt(status, error, message, errorCode);
+    }
+
+    /**
+     * Shared response body; setters are rejected so one request cannot alter another's body
+     */
+    private static final class Prebuilt extends ErrorResponse {
+        Prebuilt(int status, String error, String message, String errorCode) {
+            super(status, error, message, errorCode);
+        }
+
+        @Override
+        public LocalDateTime getTimestamp() { return LocalDateTime.now(); }
+
+        @Override
+        public void setStatus(int status) { throw new UnsupportedOperationException("Shared error response"); }
+
+        @Override
+        public void setError(String error) { throw new UnsupportedOperationException("Shared error response"); }
+
+        @Override
+        public void setMessage(String message) { throw new UnsupportedOperationException("Shared error response"); }
+
+        @Override
+        public void setErrorCode(String errorCode) { throw new UnsupportedOperationException("Shared error response"); }
+
+        @Override
+        public void setTimestamp(LocalDateTime timestamp) { throw new UnsupportedOperationException("Shared error response"); }
+    }
 }
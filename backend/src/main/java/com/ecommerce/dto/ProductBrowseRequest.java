@@ -0,0 +1,50 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Product browse request DTO
+ * Bound from query parameters, e.g. ?category=Sports&category=Home&priceRange=1&inStock=true&sort=price_asc
+ * Categories are alternatives, as are price ranges; the facets themselves are combined
+ */
+public class ProductBrowseRequest {
+    private List<String> category;
+
+    /** Indexes into the configured price ranges, as returned in the price facet */
+    private List<Integer> priceRange;
+
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean inStock;
+
+    /** newest (default), price_asc, price_desc or name */
+    private String sort;
+
+    private int page = 0;
+    private int size = 20;
+
+    public List<String> getCategory() { return category; }
+    public void setCategory(List<String> category) { this.category = category; }
+
+    public List<Integer> getPriceRange() { return priceRange; }
+    public void setPriceRange(List<Integer> priceRange) { this.priceRange = priceRange; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+
+    public Boolean getInStock() { return inStock; }
+    public void setInStock(Boolean inStock) { this.inStock = inStock; }
+
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
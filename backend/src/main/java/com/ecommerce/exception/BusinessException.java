@@ -0,0 +1,24 @@
+package com.ecommerce.exception;
+
+/**
+ * Base class for expected business failures (not found, out of stock, conflicts)
+ * These are ordinary control flow and can be thrown thousands of times a second
+ * during a sale, so they skip the stack trace and suppression list: creating one
+ * costs about as much as creating its message.
+ * 
+ * Use a plain {@link ECommerceException} for failures that need a stack trace to debug.
+ */
+public class BusinessException extends ECommerceException {
+    
+    public BusinessException(String message, ErrorCode errorCode) {
+        super(message, errorCode, false);
+    }
+    
+    /**
+     * Constructor without detail; the error code's message is used and the
+     * response body can be served pre-built
+     */
+    public BusinessException(ErrorCode errorCode) {
+        super(errorCode.getMessage(), errorCode, false);
+    }
+}
@@ -18,6 +18,16 @@ public class ECommerceException extends RuntimeException {
         this.errorCode = errorCode;
     }
     
+    /**
+     * Constructor for exceptions that may skip capturing a stack trace
+     * 
+     * @param writableStackTrace false to skip fillInStackTrace (see {@link BusinessException})
+     */
+    protected ECommerceException(String message, ErrorCode errorCode, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+    }
+    
     public ErrorCode getErrorCode() {
         return errorCode;
     }
@@ -13,10 +13,12 @@ public enum ErrorCode {
     // Product errors
     PRODUCT_NOT_FOUND("PROD_001", "Product not found"),
     INSUFFICIENT_STOCK("PROD_002", "Insufficient stock"),
+    STOCK_SHARDED("PROD_003", "Stock of a hot-SKU product cannot be set directly"),
     
     // Order errors
     ORDER_NOT_FOUND("ORD_001", "Order not found"),
     ORDER_CREATION_FAILED("ORD_002", "Order creation failed"),
+    INVALID_ORDER_STATUS("ORD_003", "Order cannot move to the requested status"),
     
     // Payment errors
     PAYMENT_FAILED("PAY_001", "Payment processing failed"),
@@ -25,10 +27,12 @@ public enum ErrorCode {
     // Database errors
     TRANSACTION_FAILED("DB_001", "Database transaction failed"),
     DATABASE_ERROR("DB_002", "Database operation failed"),
+    CONCURRENT_MODIFICATION("DB_003", "Record was modified concurrently"),
     
     // General errors
     VALIDATION_ERROR("GEN_001", "Validation error"),
-    INTERNAL_ERROR("GEN_002", "Internal server error");
+    INTERNAL_ERROR("GEN_002", "Internal server error"),
+    RATE_LIMITED("GEN_003", "Too many requests, please retry later");
     
     private final String code;
     private final String message;
@@ -3,6 +3,7 @@ package com.ecommerce.exception;
 import com.ecommerce.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,30 +13,45 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Global Exception Handler
  * Centralized exception handling for all controllers
  * Maps exceptions to appropriate HTTP status codes
+ *
+ * 4xx outcomes are expected business failures: they are logged at WARN, at most once
+ * per error code and interval, with a count of the ones suppressed in between.
+ * Exceptions carrying their error code's default message are answered with a
+ * response body built once per code.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    private static final ErrorResponse INTERNAL_ERROR = ErrorResponse.prebuilt(
+        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+        "Internal Server Error",
+        "An unexpected error occurred. Please try again later.",
+        ErrorCode.INTERNAL_ERROR.getCode()
+    );
+    
+    private final Map<ErrorCode, ErrorResponse> prebuilt = new ConcurrentHashMap<>();
+    private final LogRateLimiter clientErrorLog;
+    
+    public GlobalExceptionHandler(@Value("${app.logging.client-error-interval-ms:1000}") long clientErrorIntervalMs) {
+        this.clientErrorLog = new LogRateLimiter(clientErrorIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
     /**
      * Handle UserNotFoundException
      */
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex) {
-        logger.error("User not found: {}", ex.getMessage());
-        ErrorResponse error = new ErrorResponse(
-            HttpStatus.NOT_FOUND.value(),
-            "User Not Found",
-            ex.getMessage(),
-            ex.getErrorCodeString()
-        );
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        logClientError("User not found", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.NOT_FOUND, "User Not Found", ex);
     }
     
     /**
@@ -43,14 +59,8 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleProductNotFound(ProductNotFoundException ex) {
-        logger.error("Product not found: {}", ex.getMessage());
-        ErrorResponse error = new ErrorResponse(
-            HttpStatus.NOT_FOUND.value(),
-            "Product Not Found",
-            ex.getMessage(),
-            ex.getErrorCodeString()
-        );
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        logClientError("Product not found", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.NOT_FOUND, "Product Not Found", ex);
     }
     
     /**
@@ -58,14 +68,8 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(OrderNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleOrderNotFound(OrderNotFoundException ex) {
-        logger.error("Order not found: {}", ex.getMessage());
-        ErrorResponse error = new ErrorResponse(
-            HttpStatus.NOT_FOUND.value(),
-            "Order Not Found",
-            ex.getMessage(),
-            ex.getErrorCodeString()
-        );
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        logClientError("Order not found", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.NOT_FOUND, "Order Not Found", ex);
     }
     
     /**
@@ -73,7 +77,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(InsufficientStockException.class)
     public ResponseEntity<ErrorResponse> handleInsufficientStock(InsufficientStockException ex) {
-        logger.error("Insufficient stock: {}", ex.getMessage());
+        logClientError("Insufficient stock", ex.getErrorCodeString(), ex.getMessage());
         ErrorResponse error = new ErrorResponse(
             HttpStatus.BAD_REQUEST.value(),
             "Insufficient Stock",
@@ -83,12 +87,21 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handle StockReservationException (all short lines in one response)
+     */
+    @ExceptionHandler(StockReservationException.class)
+    public ResponseEntity<ErrorResponse> handleStockReservation(StockReservationException ex) {
+        logClientError("Stock reservation failed", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, "Insufficient Stock", ex);
+    }
+    
     /**
      * Handle PaymentFailedException
      */
     @ExceptionHandler(PaymentFailedException.class)
     public ResponseEntity<ErrorResponse> handlePaymentFailed(PaymentFailedException ex) {
-        logger.error("Payment failed: {}", ex.getMessage());
+        logClientError("Payment failed", ex.getErrorCodeString(), ex.getMessage());
         ErrorResponse error = new ErrorResponse(
             HttpStatus.PAYMENT_REQUIRED.value(),
             "Payment Failed",
@@ -112,20 +125,44 @@ public class GlobalExceptionHandler {
         );
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-    
+
+    /**
+     * Handle OptimisticLockException
+     * The client must reload the resource and resubmit its change
+     */
+    @ExceptionHandler(OptimisticLockException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockException(OptimisticLockException ex) {
+        logClientError("Concurrent modification", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.CONFLICT, "Conflict", ex);
+    }
+
+    /**
+     * Handle ShardedStockException
+     * The stock must be changed by restocking, or after hot-SKU mode is disabled
+     */
+    @ExceptionHandler(ShardedStockException.class)
+    public ResponseEntity<ErrorResponse> handleShardedStockException(ShardedStockException ex) {
+        logClientError("Sharded stock write", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.CONFLICT, "Conflict", ex);
+    }
+
+    /**
+     * Handle InvalidOrderStatusException
+     * The order's current status does not allow the change
+     */
+    @ExceptionHandler(InvalidOrderStatusException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidOrderStatus(InvalidOrderStatusException ex) {
+        logClientError("Invalid order status change", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.CONFLICT, "Conflict", ex);
+    }
+
     /**
      * Handle UnauthorizedException
      */
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<ErrorResponse> handleUnauthorized(UnauthorizedException ex) {
-        logger.error("Unauthorized access: {}", ex.getMessage());
-        ErrorResponse error = new ErrorResponse(
-            HttpStatus.FORBIDDEN.value(),
-            "Unauthorized",
-            ex.getMessage(),
-            ex.getErrorCodeString()
-        );
-        return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
+        logClientError("Unauthorized access", ex.getErrorCode(), ex.getMessage());
+        return respond(HttpStatus.FORBIDDEN, "Unauthorized", ex);
     }
     
     /**
@@ -140,7 +177,7 @@ public class GlobalExceptionHandler {
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
-        logger.error("Validation failed: {}", errors);
+        logClientError("Validation failed", ErrorCode.VALIDATION_ERROR, errors);
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
     
@@ -149,7 +186,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
-        logger.error("Invalid argument: {}", ex.getMessage());
+        logClientError("Invalid argument", ErrorCode.VALIDATION_ERROR, ex.getMessage());
         ErrorResponse error = new ErrorResponse(
             HttpStatus.BAD_REQUEST.value(),
             "Invalid Request",
@@ -165,12 +202,37 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         logger.error("Unexpected error occurred", ex);
-        ErrorResponse error = new ErrorResponse(
-            HttpStatus.INTERNAL_SERVER_ERROR.value(),
-            "Internal Server Error",
-            "An unexpected error occurred. Please try again later.",
-            ErrorCode.INTERNAL_ERROR.getCode()
-        );
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        return new ResponseEntity<>(INTERNAL_ERROR, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    
+    /**
+     * Build the response for an ECommerceException
+     * Exceptions without a specific message share one body per error code
+     */
+    private ResponseEntity<ErrorResponse> respond(HttpStatus status, String title, ECommerceException ex) {
+        ErrorCode code = ex.getErrorCode();
+        ErrorResponse error;
+        if (ex.getMessage() == null || ex.getMessage().equals(code.getMessage())) {
+            error = prebuilt.computeIfAbsent(code, c ->
+                ErrorResponse.prebuilt(status.value(), title, c.getMessage(), c.getCode()));
+        } else {
+            error = new ErrorResponse(status.value(), title, ex.getMessage(), code.getCode());
+        }
+        return new ResponseEntity<>(error, status);
+    }
+    
+    /**
+     * Log a 4xx outcome at WARN, rate-limited per error code
+     */
+    private void logClientError(String what, Object code, Object detail) {
+        long suppressed = clientErrorLog.acquire(code);
+        if (suppressed < 0 || !logger.isWarnEnabled()) {
+            return;
+        }
+        if (suppressed > 0) {
+            logger.warn("{}: {} ({} similar suppressed)", what, detail, suppressed);
+        } else {
+            logger.warn("{}: {}", what, detail);
+        }
     }
 }
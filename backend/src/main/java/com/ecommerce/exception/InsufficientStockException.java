@@ -3,6 +3,7 @@ package com.ecommerce.exception;
 /**
  * Exception thrown when product stock is insufficient for order
  * Extends RuntimeException for unchecked exception handling
+ * Like {@link BusinessException}, it is expected control flow and captures no stack trace
  */
 public class InsufficientStockException extends RuntimeException {
     
@@ -16,7 +17,7 @@ public class InsufficientStockException extends RuntimeException {
      */
     public InsufficientStockException(Long productId, int requested, int available) {
         super(String.format("Insufficient stock for product %d. Requested: %d, Available: %d",
-                           productId, requested, available));
+                           productId, requested, available), null, false, false);
         this.productId = productId;
         this.requestedQuantity = requested;
         this.availableQuantity = available;
@@ -27,7 +28,7 @@ public class InsufficientStockException extends RuntimeException {
      */
     public InsufficientStockException(String productName, int requested, int available) {
         super(String.format("Insufficient stock for %s. Requested: %d, Available: %d",
-                           productName, requested, available));
+                           productName, requested, available), null, false, false);
         this.productName = productName;
         this.requestedQuantity = requested;
         this.availableQuantity = available;
@@ -39,7 +40,7 @@ public class InsufficientStockException extends RuntimeException {
     public InsufficientStockException(Long productId, String productName, 
                                      int requested, int available) {
         super(String.format("Insufficient stock for %s (ID: %d). Requested: %d, Available: %d",
-                           productName, productId, requested, available));
+                           productName, productId, requested, available), null, false, false);
         this.productId = productId;
         this.productName = productName;
         this.requestedQuantity = requested;
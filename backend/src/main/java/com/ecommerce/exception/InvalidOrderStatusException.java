@@ -0,0 +1,18 @@
+package com.ecommerce.exception;
+
+import com.ecommerce.model.OrderStatus;
+
+/**
+ * Exception thrown when an order is moved to a status its current one cannot reach
+ * See {@link OrderStatus#canMoveTo}
+ */
+public class InvalidOrderStatusException extends BusinessException {
+
+    public InvalidOrderStatusException(Long orderId, OrderStatus from, OrderStatus to) {
+        super("Order " + orderId + " cannot move from " + from + " to " + to, ErrorCode.INVALID_ORDER_STATUS);
+    }
+
+    public InvalidOrderStatusException(String message) {
+        super(message, ErrorCode.INVALID_ORDER_STATUS);
+    }
+}
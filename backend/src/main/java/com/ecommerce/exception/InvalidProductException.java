@@ -12,14 +12,14 @@ public class InvalidProductException extends SmartShopException {
      * Constructor with message
      */
     public InvalidProductException(String message) {
-        super("INVALID_PRODUCT", message);
+        super("INVALID_PRODUCT", message, false);
     }
     
     /**
      * Constructor with product ID
      */
     public InvalidProductException(Long productId) {
-        super("INVALID_PRODUCT", "Product with ID " + productId + " not found or invalid");
+        super("INVALID_PRODUCT", "Product with ID " + productId + " not found or invalid", false);
         this.productId = productId;
     }
     
@@ -27,7 +27,7 @@ public class InvalidProductException extends SmartShopException {
      * Constructor with product ID and custom message
      */
     public InvalidProductException(Long productId, String message) {
-        super("INVALID_PRODUCT", message);
+        super("INVALID_PRODUCT", message, false);
         this.productId = productId;
     }
     
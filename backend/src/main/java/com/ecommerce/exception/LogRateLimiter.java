@@ -0,0 +1,42 @@
+package com.ecommerce.exception;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allows one log line per key and interval
+ * Events in between are counted and reported with the next line that is let through,
+ * so a burst of identical client errors costs one line per interval instead of one per request
+ */
+class LogRateLimiter {
+
+    private final long intervalNanos;
+    private final ConcurrentHashMap<Object, Window> windows = new ConcurrentHashMap<>();
+
+    LogRateLimiter(long interval, TimeUnit unit) {
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Register one event for the key
+     *
+     * @return -1 if the event should not be logged, otherwise the number of events
+     *         suppressed since the last logged one
+     */
+    long acquire(Object key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.nanoTime();
+        long last = window.lastLogged.get();
+        if ((last == 0 || now - last >= intervalNanos) && window.lastLogged.compareAndSet(last, now)) {
+            return window.suppressed.getAndSet(0);
+        }
+        window.suppressed.incrementAndGet();
+        return -1;
+    }
+
+    private static final class Window {
+        private final AtomicLong lastLogged = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+}
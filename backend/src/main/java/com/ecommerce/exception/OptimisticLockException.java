@@ -0,0 +1,12 @@
+package com.ecommerce.exception;
+
+/**
+ * Exception thrown when a versioned update finds the row changed (or deleted) since it was read
+ * Callers either re-read and retry or report the conflict to the client
+ */
+public class OptimisticLockException extends BusinessException {
+    
+    public OptimisticLockException(String message) {
+        super(message, ErrorCode.CONCURRENT_MODIFICATION);
+    }
+}
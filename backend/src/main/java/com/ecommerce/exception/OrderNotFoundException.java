@@ -1,6 +1,6 @@
 package com.ecommerce.exception;
 
-public class OrderNotFoundException extends ECommerceException {
+public class OrderNotFoundException extends BusinessException {
     public OrderNotFoundException(String message) {
         super(message, ErrorCode.ORDER_NOT_FOUND);
     }
@@ -14,7 +14,7 @@ public class PaymentFailedException extends SmartShopException {
      * Constructor with payment method and message
      */
     public PaymentFailedException(String paymentMethod, String message) {
-        super("PAYMENT_FAILED", "Payment via " + paymentMethod + " failed: " + message);
+        super("PAYMENT_FAILED", "Payment via " + paymentMethod + " failed: " + message, false);
         this.paymentMethod = paymentMethod;
         this.failureReason = message;
     }
@@ -24,7 +24,7 @@ public class PaymentFailedException extends SmartShopException {
      */
     public PaymentFailedException(String paymentMethod, String transactionId, String message) {
         super("PAYMENT_FAILED", 
-              "Payment via " + paymentMethod + " failed (Transaction: " + transactionId + "): " + message);
+              "Payment via " + paymentMethod + " failed (Transaction: " + transactionId + "): " + message, false);
         this.paymentMethod = paymentMethod;
         this.transactionId = transactionId;
         this.failureReason = message;
@@ -1,6 +1,6 @@
 package com.ecommerce.exception;
 
-public class ProductNotFoundException extends ECommerceException {
+public class ProductNotFoundException extends BusinessException {
     public ProductNotFoundException(String message) {
         super(message, ErrorCode.PRODUCT_NOT_FOUND);
     }
@@ -0,0 +1,14 @@
+package com.ecommerce.exception;
+
+/**
+ * Exception thrown when stock of a hot-SKU product is set to an absolute value
+ * Its stock lives in shard rows and can only be changed by restocking or reserving,
+ * or set directly once hot-SKU mode is disabled
+ */
+public class ShardedStockException extends BusinessException {
+
+    public ShardedStockException(Long productId) {
+        super("Product " + productId + " is in hot-SKU mode: its stock can only be changed by restocking, "
+                + "or set after disabling hot-SKU mode", ErrorCode.STOCK_SHARDED);
+    }
+}
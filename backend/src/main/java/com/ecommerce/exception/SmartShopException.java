@@ -44,6 +44,15 @@ public class SmartShopException extends Exception {
         this.userMessage = message;
     }
     
+    /**
+     * Constructor for expected failures that skip capturing a stack trace
+     */
+    protected SmartShopException(String errorCode, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+        this.userMessage = message;
+    }
+    
     public String getErrorCode() {
         return errorCode;
     }
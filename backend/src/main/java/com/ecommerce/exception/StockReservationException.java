@@ -0,0 +1,66 @@
+package com.ecommerce.exception;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Exception thrown when a multi-line stock reservation fails
+ * Reports every line that could not be reserved, not just the first one
+ */
+public class StockReservationException extends BusinessException {
+    
+    private final List<Shortage> shortages;
+    
+    public StockReservationException(List<Shortage> shortages) {
+        super(shortages.stream()
+                .map(Shortage::toString)
+                .collect(Collectors.joining("; ", "Insufficient stock: ", "")),
+              ErrorCode.INSUFFICIENT_STOCK);
+        this.shortages = Collections.unmodifiableList(shortages);
+    }
+    
+    public List<Shortage> getShortages() {
+        return shortages;
+    }
+    
+    /**
+     * A single line that could not be reserved
+     */
+    public static class Shortage {
+        
+        private final Long productId;
+        private final String productName;
+        private final int requestedQuantity;
+        private final int availableQuantity;
+        
+        public Shortage(Long productId, String productName, int requestedQuantity, int availableQuantity) {
+            this.productId = productId;
+            this.productName = productName;
+            this.requestedQuantity = requestedQuantity;
+            this.availableQuantity = availableQuantity;
+        }
+        
+        public Long getProductId() {
+            return productId;
+        }
+        
+        public String getProductName() {
+            return productName;
+        }
+        
+        public int getRequestedQuantity() {
+            return requestedQuantity;
+        }
+        
+        public int getAvailableQuantity() {
+            return availableQuantity;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s (ID: %d) requested %d, available %d",
+                               productName, productId, requestedQuantity, availableQuantity);
+        }
+    }
+}
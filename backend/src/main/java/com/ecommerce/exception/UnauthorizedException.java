@@ -1,6 +1,6 @@
 package com.ecommerce.exception;
 
-public class UnauthorizedException extends ECommerceException {
+public class UnauthorizedException extends BusinessException {
     public UnauthorizedException(String message) {
         super(message, ErrorCode.UNAUTHORIZED);
     }
@@ -1,6 +1,6 @@
 package com.ecommerce.exception;
 
-public class UserNotFoundException extends ECommerceException {
+public class UserNotFoundException extends BusinessException {
     public UserNotFoundException(String message) {
         super(message, ErrorCode.USER_NOT_FOUND);
     }
@@ -0,0 +1,57 @@
+package com.ecommerce.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public DAO method
+ * Each call holds a pooled connection for (nearly) its whole duration,
+ * so this is the connection usage time broken down per DAO method
+ *
+ * Calls from a DAO to its own methods are not intercepted.
+ * Stream-returning methods are timed until the stream is returned, not until it is consumed.
+ */
+@Aspect
+@Component
+public class DaoMetricsAspect {
+
+    // "ProductDAO.findById" -> histogram
+    private final ConcurrentHashMap<String, LatencyHistogram> methods = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.ecommerce.dao.*DAO.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            String key = joinPoint.getTarget().getClass().getSimpleName()
+                    + "." + joinPoint.getSignature().getName();
+            methods.computeIfAbsent(key, k -> new LatencyHistogram())
+                   .recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Snapshot of all DAO method timings, sorted by method name
+     *
+     * @return method name to histogram snapshot
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        methods.forEach((method, histogram) -> snapshot.put(method, histogram.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * Clear all DAO method timings
+     */
+    public void reset() {
+        methods.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HikariCP metrics collector
+ * Registered as the pool's MetricsTrackerFactory to record connection acquire latency,
+ * connection usage (checkout to return) time and acquire timeouts
+ *
+ * Live pool state (active/idle/waiting) is read from the pool MXBean when a snapshot is taken.
+ */
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    // pool name -> recorded metrics
+    private final ConcurrentHashMap<String, Recorder> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return pools.computeIfAbsent(poolName, name -> new Recorder());
+    }
+
+    /**
+     * Snapshot of a pool's live state and recorded histograms
+     *
+     * @param dataSource pool to read live state from
+     * @return metrics map
+     */
+    public Map<String, Object> snapshot(HikariDataSource dataSource) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("poolName", dataSource.getPoolName());
+        snapshot.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+        snapshot.put("minimumIdle", dataSource.getMinimumIdle());
+
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            snapshot.put("active", pool.getActiveConnections());
+            snapshot.put("idle", pool.getIdleConnections());
+            snapshot.put("total", pool.getTotalConnections());
+            snapshot.put("waiting", pool.getThreadsAwaitingConnection());
+        }
+
+        Recorder recorder = pools.get(dataSource.getPoolName());
+        if (recorder != null) {
+            snapshot.put("connectionsCreated", recorder.connectionsCreated.sum());
+            snapshot.put("acquireTimeouts", recorder.timeouts.sum());
+            snapshot.put("acquireLatency", recorder.acquireLatency.snapshot());
+            snapshot.put("connectionUsage", recorder.usageTime.snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Metrics recorded by Hikari for one pool
+     */
+    private static final class Recorder implements IMetricsTracker {
+
+        private final LatencyHistogram acquireLatency = new LatencyHistogram();
+        private final LatencyHistogram usageTime = new LatencyHistogram();
+        private final LongAdder connectionsCreated = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            connectionsCreated.increment();
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireLatency.recordNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageTime.recordMicros(elapsedBorrowedMillis * 1000);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
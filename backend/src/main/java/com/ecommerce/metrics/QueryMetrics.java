@@ -0,0 +1,219 @@
+package com.ecommerce.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement JDBC metrics
+ * Records connection acquire time, execution time, row counts and errors per statement shape,
+ * and logs a rate-limited sample of slow statements with the types of their bind parameters
+ *
+ * Statement shapes are the SQL text with IN-lists and CASE branches collapsed, so dynamic
+ * batch queries of different sizes share one entry. Recording a statement already seen is
+ * a map lookup plus atomic increments and does not allocate; only the first execution of
+ * new SQL text and slow-query logging allocate.
+ */
+@Component
+public class QueryMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private static final int MAX_SHAPES = 512;
+    private static final int MAX_SQL_TEXTS = 2048;
+    private static final int RECENT_SLOW_QUERIES = 64;
+    private static final String OTHER = "<other>";
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern CASE_BRANCHES = Pattern.compile("(\\s+WHEN \\? THEN \\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Exact SQL text -> stats of its shape; avoids normalizing on every call
+    private final ConcurrentHashMap<String, QueryStats> bySql = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, QueryStats> byShape = new ConcurrentHashMap<>();
+
+    private final AtomicReferenceArray<Map<String, Object>> recentSlow = new AtomicReferenceArray<>(RECENT_SLOW_QUERIES);
+    private final AtomicLong slowCursor = new AtomicLong();
+
+    private final long slowQueryNanos;
+    private final long slowLogIntervalNanos;
+
+    public QueryMetrics(@Value("${app.metrics.slow-query-ms:200}") long slowQueryMs,
+                        @Value("${app.metrics.slow-query-log-interval-ms:1000}") long slowLogIntervalMs) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+        this.slowLogIntervalNanos = TimeUnit.MILLISECONDS.toNanos(slowLogIntervalMs);
+    }
+
+    /**
+     * Record one statement execution
+     *
+     * @param sql SQL text as prepared
+     * @param acquireNanos time spent obtaining the connection (0 inside a unit of work)
+     * @param executeNanos time from connection acquired to results read
+     * @param rows rows returned or affected, negative if the statement failed
+     * @param params bind parameters, or null if not available
+     */
+    public void record(String sql, long acquireNanos, long executeNanos, long rows, Object[] params) {
+        QueryStats stats = statsFor(sql);
+        stats.acquire.recordNanos(acquireNanos);
+        stats.execute.recordNanos(executeNanos);
+        if (rows < 0) {
+            stats.errors.increment();
+        } else {
+            stats.rows.add(rows);
+        }
+
+        if (executeNanos >= slowQueryNanos) {
+            stats.slow.increment();
+            long now = System.nanoTime();
+            long last = stats.lastSlowLog.get();
+            // Sample: at most one log line per shape and interval
+            if ((last == 0 || now - last >= slowLogIntervalNanos) && stats.lastSlowLog.compareAndSet(last, now)) {
+                logSlow(stats.shape, acquireNanos, executeNanos, rows, params);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of all statement shapes, slowest total time first
+     *
+     * @return list of per-shape metrics
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<QueryStats> all = new ArrayList<>(byShape.values());
+        all.sort((a, b) -> Long.compare(b.execute.getTotalMicros(), a.execute.getTotalMicros()));
+
+        List<Map<String, Object>> snapshot = new ArrayList<>(all.size());
+        for (QueryStats stats : all) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sql", stats.shape);
+            entry.put("rows", stats.rows.sum());
+            entry.put("errors", stats.errors.sum());
+            entry.put("slow", stats.slow.sum());
+            entry.put("execute", stats.execute.snapshot());
+            entry.put("acquire", stats.acquire.snapshot());
+            snapshot.add(entry);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Most recent sampled slow statements, newest first
+     *
+     * @return slow statement records
+     */
+    public List<Map<String, Object>> slowQueries() {
+        List<Map<String, Object>> slow = new ArrayList<>();
+        long cursor = slowCursor.get();
+        for (long i = cursor - 1; i >= 0 && i >= cursor - RECENT_SLOW_QUERIES; i--) {
+            Map<String, Object> entry = recentSlow.get((int) (i % RECENT_SLOW_QUERIES));
+            if (entry != null) {
+                slow.add(entry);
+            }
+        }
+        return slow;
+    }
+
+    /**
+     * Clear all statement metrics and slow-query samples
+     */
+    public void reset() {
+        bySql.clear();
+        byShape.clear();
+        for (int i = 0; i < RECENT_SLOW_QUERIES; i++) {
+            recentSlow.set(i, null);
+        }
+        slowCursor.set(0);
+    }
+
+    private QueryStats statsFor(String sql) {
+        QueryStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+
+        String shape = shapeOf(sql);
+        stats = byShape.get(shape);
+        if (stats == null) {
+            if (byShape.size() >= MAX_SHAPES) {
+                shape = OTHER;
+            }
+            stats = byShape.computeIfAbsent(shape, QueryStats::new);
+        }
+        if (bySql.size() < MAX_SQL_TEXTS) {
+            bySql.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    private void logSlow(String shape, long acquireNanos, long executeNanos, long rows, Object[] params) {
+        String binds = bindShape(params);
+        logger.warn("Slow query: {} ms (acquire {} ms, rows {}) {} binds={}",
+                TimeUnit.NANOSECONDS.toMillis(executeNanos), TimeUnit.NANOSECONDS.toMillis(acquireNanos),
+                rows < 0 ? "failed" : rows, shape, binds);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("at", System.currentTimeMillis());
+        entry.put("sql", shape);
+        entry.put("executeMs", TimeUnit.NANOSECONDS.toMillis(executeNanos));
+        entry.put("acquireMs", TimeUnit.NANOSECONDS.toMillis(acquireNanos));
+        entry.put("rows", rows);
+        entry.put("binds", binds);
+        recentSlow.set((int) (slowCursor.getAndIncrement() % RECENT_SLOW_QUERIES), entry);
+    }
+
+    /**
+     * Collapse variable parts of generated SQL so batches of any size share one shape
+     */
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = IN_LIST.matcher(shape).replaceAll("(?, ...)");
+        return CASE_BRANCHES.matcher(shape).replaceAll(" WHEN ? THEN ? ...");
+    }
+
+    /**
+     * Describe bind parameters by type only; values may be personal data
+     */
+    static String bindShape(Object[] params) {
+        if (params == null) {
+            return "n/a";
+        }
+        StringBuilder shape = new StringBuilder("(");
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                shape.append(", ");
+            }
+            shape.append(params[i] == null ? "null" : params[i].getClass().getSimpleName());
+        }
+        return shape.append(')').toString();
+    }
+
+    /**
+     * Metrics of one statement shape
+     */
+    private static final class QueryStats {
+        private final String shape;
+        private final LatencyHistogram execute = new LatencyHistogram();
+        private final LatencyHistogram acquire = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final AtomicLong lastSlowLog = new AtomicLong();
+
+        QueryStats(String shape) {
+            this.shape = shape;
+        }
+    }
+}
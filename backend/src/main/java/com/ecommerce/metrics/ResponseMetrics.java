@@ -0,0 +1,72 @@
+package com.ecommerce.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Response size metrics per endpoint
+ * Records bytes produced by the application and bytes sent on the wire after compression
+ */
+@Component
+public class ResponseMetrics {
+
+    private final ConcurrentHashMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Record one completed response
+     *
+     * @param endpoint method and URL pattern
+     * @param rawBytes body bytes written by the application
+     * @param wireBytes body bytes sent to the client
+     * @param gzipped whether the body was gzipped
+     */
+    public void record(String endpoint, long rawBytes, long wireBytes, boolean gzipped) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.responses.increment();
+        stats.rawBytes.add(rawBytes);
+        stats.wireBytes.add(wireBytes);
+        if (gzipped) {
+            stats.gzipped.increment();
+        }
+    }
+
+    /**
+     * Snapshot of all endpoints, most bytes on the wire first
+     *
+     * @return list of per-endpoint metrics
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> snapshot = new ArrayList<>();
+        endpoints.forEach((endpoint, stats) -> {
+            long raw = stats.rawBytes.sum();
+            long wire = stats.wireBytes.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("endpoint", endpoint);
+            entry.put("responses", stats.responses.sum());
+            entry.put("gzipped", stats.gzipped.sum());
+            entry.put("rawBytes", raw);
+            entry.put("wireBytes", wire);
+            entry.put("savedPercent", raw == 0 ? 0 : (raw - wire) * 100 / raw);
+            snapshot.add(entry);
+        });
+        snapshot.sort((a, b) -> Long.compare((Long) b.get("wireBytes"), (Long) a.get("wireBytes")));
+        return snapshot;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder gzipped = new LongAdder();
+        private final LongAdder rawBytes = new LongAdder();
+        private final LongAdder wireBytes = new LongAdder();
+    }
+}
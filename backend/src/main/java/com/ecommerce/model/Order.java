@@ -11,7 +11,7 @@ import java.util.Objects;
  * Represents a customer order with multiple items
  * Demonstrates encapsulation and composition
  */
-public class Order {
+public class Order implements Versioned {
     
     // Private fields (Encapsulation)
     private Long id;
@@ -23,6 +23,7 @@ public class Order {
     private PaymentStatus paymentStatus;
     private String shippingAddress;
     private LocalDateTime orderDate;
+    private Long version;
 
     /**
      * Default constructor
@@ -119,6 +120,16 @@ public class Order {
         this.orderDate = orderDate;
     }
 
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business methods
     
     /**
@@ -2,6 +2,8 @@ package com.ecommerce.model;
 
 /**
  * Enum representing order status lifecycle
+ * Orders move forward one way: PENDING, PROCESSING, SHIPPED, DELIVERED. They can be
+ * cancelled until they ship. DELIVERED and CANCELLED are final.
  */
 public enum OrderStatus {
     PENDING("Pending"),
@@ -19,4 +21,25 @@ public enum OrderStatus {
     public String getDisplayName() {
         return displayName;
     }
+
+    /**
+     * Check whether an order in this status may move to another
+     * Staying in the same status is allowed; going back is not, so stock returned by a
+     * cancellation cannot be returned again
+     *
+     * @param next requested status
+     * @return true if the transition is allowed
+     */
+    public boolean canMoveTo(OrderStatus next) {
+        if (next == this) {
+            return true;
+        }
+        if (this == DELIVERED || this == CANCELLED) {
+            return false;
+        }
+        if (next == CANCELLED) {
+            return this == PENDING || this == PROCESSING;
+        }
+        return next.ordinal() > ordinal();
+    }
 }
@@ -8,7 +8,7 @@ import java.util.Objects;
  * Product model class
  * Demonstrates encapsulation with private fields and public getters/setters
  */
-public class Product {
+public class Product implements Versioned {
     
     // Private fields (Encapsulation)
     private Long id;
@@ -20,6 +20,7 @@ public class Product {
     private String imageUrl;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     /**
      * Default constructor
@@ -117,6 +118,16 @@ public class Product {
         this.updatedAt = updatedAt;
     }
 
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business methods
     
     /**
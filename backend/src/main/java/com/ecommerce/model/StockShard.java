@@ -0,0 +1,79 @@
+package com.ecommerce.model;
+
+import java.util.Objects;
+
+/**
+ * StockShard model class
+ * One slice of a hot product's stock, stored as a separate row so that
+ * concurrent reservations spread their row locks over several rows
+ */
+public class StockShard {
+    
+    private Long productId;
+    private Integer shardNo;
+    private Integer quantity;
+
+    /**
+     * Default constructor
+     */
+    public StockShard() {
+        this.quantity = 0;
+    }
+
+    /**
+     * Parameterized constructor
+     */
+    public StockShard(Long productId, Integer shardNo, Integer quantity) {
+        this.productId = productId;
+        this.shardNo = shardNo;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getShardNo() {
+        return shardNo;
+    }
+
+    public void setShardNo(Integer shardNo) {
+        this.shardNo = shardNo;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StockShard that = (StockShard) o;
+        return Objects.equals(productId, that.productId) && Objects.equals(shardNo, that.shardNo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productId, shardNo);
+    }
+
+    @Override
+    public String toString() {
+        return "StockShard{" +
+                "productId=" + productId +
+                ", shardNo=" + shardNo +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
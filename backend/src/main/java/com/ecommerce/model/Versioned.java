@@ -0,0 +1,14 @@
+package com.ecommerce.model;
+
+/**
+ * Entity carrying an optimistic lock version
+ * The version is read with the row and must match on update; every update increments it
+ *
+ * A null version means the caller did not read the row first; updates then apply unconditionally.
+ */
+public interface Versioned {
+
+    Long getVersion();
+
+    void setVersion(Long version);
+}
@@ -15,6 +15,9 @@ public class Wishlist {
     private Long userId;
     private Long productId;
     private LocalDateTime addedAt;
+    
+    // Product details, loaded with the wishlist for display (null otherwise)
+    private Product product;
 
     /**
      * Default constructor
@@ -66,6 +69,14 @@ public class Wishlist {
         this.addedAt = addedAt;
     }
 
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,6 +1,8 @@
 package com.ecommerce.payment;
 
 import java.math.BigDecimal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.UUID;
 
 /**
@@ -10,6 +12,8 @@ import java.util.UUID;
  */
 public class CODPayment implements PaymentStrategy {
     
+    private static final Logger logger = LoggerFactory.getLogger(CODPayment.class);
+    
     private String deliveryAddress;
     private String phoneNumber;
     private String transactionId;
@@ -28,20 +32,18 @@ public class CODPayment implements PaymentStrategy {
         }
         
         try {
-            System.out.println("Processing COD order for ₹" + amount);
-            System.out.println("Delivery Address: " + deliveryAddress);
-            System.out.println("Contact: " + phoneNumber);
+            logger.debug("Processing COD order for ₹{}", amount);
             
             // Generate transaction ID
             this.transactionId = "COD-" + UUID.randomUUID().toString().substring(0, 10).toUpperCase();
             
             statusMessage = "COD order placed successfully. Pay on delivery.";
-            System.out.println("✓ COD Order placed! Reference ID: " + transactionId);
+            logger.debug("COD order placed, reference ID: {}", transactionId);
             return true;
             
         } catch (Exception e) {
             statusMessage = "COD order failed: " + e.getMessage();
-            System.err.println(statusMessage);
+            logger.warn(statusMessage);
             return false;
         }
     }
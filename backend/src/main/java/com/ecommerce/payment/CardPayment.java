@@ -1,6 +1,8 @@
 package com.ecommerce.payment;
 
 import java.math.BigDecimal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.UUID;
 
 /**
@@ -10,6 +12,8 @@ import java.util.UUID;
  */
 public class CardPayment implements PaymentStrategy {
     
+    private static final Logger logger = LoggerFactory.getLogger(CardPayment.class);
+    
     private String cardNumber;
     private String cardHolderName;
     private String expiryDate;
@@ -33,9 +37,7 @@ public class CardPayment implements PaymentStrategy {
         
         try {
             // Simulate card payment processing
-            System.out.println("Processing card payment of ₹" + amount);
-            System.out.println("Card: " + maskCardNumber());
-            System.out.println("Holder: " + cardHolderName);
+            logger.debug("Processing card payment of ₹{} with card {}", amount, maskCardNumber());
             
             // Generate transaction ID
             this.transactionId = "CARD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
@@ -44,7 +46,7 @@ public class CardPayment implements PaymentStrategy {
             Thread.sleep(2000);
             
             statusMessage = "Payment successful via Card";
-            System.out.println("✓ Payment successful! Transaction ID: " + transactionId);
+            logger.debug("Card payment successful, transaction ID: {}", transactionId);
             return true;
             
         } catch (InterruptedException e) {
@@ -53,7 +55,7 @@ public class CardPayment implements PaymentStrategy {
             return false;
         } catch (Exception e) {
             statusMessage = "Card payment failed: " + e.getMessage();
-            System.err.println(statusMessage);
+            logger.warn(statusMessage);
             return false;
         }
     }
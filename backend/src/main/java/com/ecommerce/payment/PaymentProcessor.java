@@ -1,6 +1,8 @@
 package com.ecommerce.payment;
 
 import java.math.BigDecimal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Payment Processor
@@ -11,6 +13,8 @@ import java.math.BigDecimal;
  */
 public class PaymentProcessor {
     
+    private static final Logger logger = LoggerFactory.getLogger(PaymentProcessor.class);
+    
     /**
      * Process payment using any payment strategy
      * Demonstrates polymorphism - same method works with different implementations
@@ -20,14 +24,12 @@ public class PaymentProcessor {
      * @return true if payment successful
      */
     public boolean processPayment(PaymentStrategy paymentStrategy, BigDecimal amount) {
-        System.out.println("\n=== Payment Processing Started ===");
-        System.out.println("Payment Method: " + paymentStrategy.getPaymentType());
-        System.out.println("Amount: ₹" + amount);
-        System.out.println("================================");
+        logger.debug("Payment processing started: method={}, amount=₹{}", 
+                     paymentStrategy.getPaymentType(), amount);
         
         // Validate payment details first
         if (!paymentStrategy.validatePaymentDetails()) {
-            System.err.println("✗ Payment validation failed!");
+            logger.warn("Payment validation failed for method {}", paymentStrategy.getPaymentType());
             return false;
         }
         
@@ -35,13 +37,10 @@ public class PaymentProcessor {
         boolean success = paymentStrategy.processPayment(amount);
         
         if (success) {
-            System.out.println("Transaction ID: " + paymentStrategy.getTransactionId());
-            System.out.println("Status: " + paymentStrategy.getStatusMessage());
-            System.out.println("=== Payment Completed Successfully ===\n");
+            logger.info("Payment completed: transactionId={}, status={}", 
+                        paymentStrategy.getTransactionId(), paymentStrategy.getStatusMessage());
         } else {
-            System.err.println("✗ Payment Failed!");
-            System.err.println("Reason: " + paymentStrategy.getStatusMessage());
-            System.out.println("=== Payment Failed ===\n");
+            logger.warn("Payment failed: {}", paymentStrategy.getStatusMessage());
         }
         
         return success;
@@ -62,7 +61,7 @@ public class PaymentProcessor {
         
         while (attempts < maxRetries) {
             attempts++;
-            System.out.println("Payment attempt " + attempts + " of " + maxRetries);
+            logger.debug("Payment attempt {} of {}", attempts, maxRetries);
             
             boolean success = processPayment(paymentStrategy, amount);
             
@@ -71,7 +70,7 @@ public class PaymentProcessor {
             }
             
             if (attempts < maxRetries) {
-                System.out.println("Retrying payment...\n");
+                logger.debug("Retrying payment...");
                 try {
                     Thread.sleep(1000); // Wait 1 second before retry
                 } catch (InterruptedException e) {
@@ -81,7 +80,7 @@ public class PaymentProcessor {
             }
         }
         
-        System.err.println("Payment failed after " + maxRetries + " attempts");
+        logger.warn("Payment failed after {} attempts", maxRetries);
         return false;
     }
     
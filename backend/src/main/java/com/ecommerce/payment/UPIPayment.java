@@ -1,6 +1,8 @@
 package com.ecommerce.payment;
 
 import java.math.BigDecimal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.UUID;
 
 /**
@@ -10,6 +12,8 @@ import java.util.UUID;
  */
 public class UPIPayment implements PaymentStrategy {
     
+    private static final Logger logger = LoggerFactory.getLogger(UPIPayment.class);
+    
     private String upiId;
     private String pin;
     private String transactionId;
@@ -28,8 +32,7 @@ public class UPIPayment implements PaymentStrategy {
         }
         
         try {
-            System.out.println("Processing UPI payment of ₹" + amount);
-            System.out.println("UPI ID: " + upiId);
+            logger.debug("Processing UPI payment of ₹{}", amount);
             
             // Generate transaction ID
             this.transactionId = "UPI-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
@@ -38,7 +41,7 @@ public class UPIPayment implements PaymentStrategy {
             Thread.sleep(1500);
             
             statusMessage = "Payment successful via UPI";
-            System.out.println("✓ UPI Payment successful! Transaction ID: " + transactionId);
+            logger.debug("UPI payment successful, transaction ID: {}", transactionId);
             return true;
             
         } catch (InterruptedException e) {
@@ -47,7 +50,7 @@ public class UPIPayment implements PaymentStrategy {
             return false;
         } catch (Exception e) {
             statusMessage = "UPI payment failed: " + e.getMessage();
-            System.err.println(statusMessage);
+            logger.warn(statusMessage);
             return false;
         }
     }
@@ -0,0 +1,160 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ReplicaRoutingContext;
+import com.ecommerce.config.ResponseCompressionFilter;
+import com.ecommerce.dao.CatalogVersion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized catalog responses
+ * Holds the JSON of hot catalog reads (all products, products by category, categories)
+ * as byte arrays, plain and gzipped, stamped with the catalog version they were built at
+ *
+ * A snapshot is served as long as the catalog version is unchanged; the first read
+ * after a product write rebuilds it from the primary. Serving a snapshot is a map lookup and one write
+ * of the stored bytes to the servlet output stream.
+ */
+@Component
+public class CatalogSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotCache.class);
+
+    /** Bound on cached keys; category names come from the query string */
+    private static final int MAX_ENTRIES = 256;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Get the snapshot for a key, rebuilding it if the catalog changed since it was built
+     *
+     * @param key endpoint and parameters, e.g. "products?category=Books"
+     * @param loader loads the response value on a miss
+     * @return current snapshot
+     */
+    public Snapshot get(String key, Supplier<?> loader) {
+        // Read the version before loading, so a snapshot is never stamped newer than its data
+        long version = catalogVersion.current();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.version == version) {
+            hits.increment();
+            return snapshot;
+        }
+
+        misses.increment();
+        // From the primary: the version was bumped there, a replica may not have the write yet
+        snapshot = build(version, ReplicaRoutingContext.onPrimary(loader::get));
+        if (snapshots.size() < MAX_ENTRIES || snapshots.containsKey(key)) {
+            snapshots.merge(key, snapshot, (old, built) -> built.version >= old.version ? built : old);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Evict all snapshots
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    /**
+     * Snapshot counters for the metrics endpoint
+     *
+     * @return entries, hits, misses and stored bytes
+     */
+    public Map<String, Object> stats() {
+        long bytes = 0;
+        for (Snapshot snapshot : snapshots.values()) {
+            bytes += snapshot.json.length + snapshot.gzip.length;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", snapshots.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("bytes", bytes);
+        return stats;
+    }
+
+    private Snapshot build(long version, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] gzip = gzip(json);
+            logger.debug("Catalog snapshot built at version {}: {} bytes, {} gzipped", version, json.length, gzip.length);
+            return new Snapshot(version, json, gzip);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog snapshot", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serialized response at one catalog version
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Snapshot(long version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        /**
+         * Write the snapshot as the response body, gzipped if the client accepts it
+         *
+         * @param request request carrying Accept-Encoding
+         * @param response response to write to
+         * @throws IOException if writing fails
+         */
+        public void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            boolean useGzip = gzip.length < json.length
+                    && ResponseCompressionFilter.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            byte[] body = useGzip ? gzip : json;
+
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (useGzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
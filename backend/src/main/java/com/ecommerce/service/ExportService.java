@@ -0,0 +1,157 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dao.OrderDAO;
+import com.ecommerce.dao.ProductDAO;
+import com.ecommerce.dao.UserDAO;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * CSV export service
+ * Streams rows from the database straight to the output, one row at a time,
+ * so exports run in constant memory regardless of table size
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private OrderDAO orderDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    /**
+     * Write all products as CSV
+     *
+     * @param out output stream (not closed)
+     * @return number of rows written
+     */
+    public long exportProducts(OutputStream out) throws IOException {
+        Writer writer = writer(out);
+        writer.write("id,name,category,price,stock_quantity,image_url,created_at,updated_at\n");
+
+        long rows = 0;
+        try (Stream<Product> products = productDAO.streamAll()) {
+            Iterator<Product> it = products.iterator();
+            while (it.hasNext()) {
+                Product p = it.next();
+                writeRow(writer,
+                    p.getId(), p.getName(), p.getCategory(), p.getPrice(), p.getStockQuantity(),
+                    p.getImageUrl(), p.getCreatedAt(), p.getUpdatedAt());
+                rows++;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to export products: " + e.getMessage());
+        }
+
+        writer.flush();
+        logger.info("Exported {} products", rows);
+        return rows;
+    }
+
+    /**
+     * Write all orders (without items) as CSV
+     *
+     * @param out output stream (not closed)
+     * @return number of rows written
+     */
+    public long exportOrders(OutputStream out) throws IOException {
+        Writer writer = writer(out);
+        writer.write("id,user_id,total_amount,status,payment_status,payment_id,order_date\n");
+
+        long rows = 0;
+        try (Stream<Order> orders = orderDAO.streamAll()) {
+            Iterator<Order> it = orders.iterator();
+            while (it.hasNext()) {
+                Order o = it.next();
+                writeRow(writer,
+                    o.getId(), o.getUserId(), o.getTotalAmount(), o.getStatus(), o.getPaymentStatus(),
+                    o.getPaymentId(), o.getOrderDate());
+                rows++;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to export orders: " + e.getMessage());
+        }
+
+        writer.flush();
+        logger.info("Exported {} orders", rows);
+        return rows;
+    }
+
+    /**
+     * Write all users as CSV (no passwords or contact details)
+     *
+     * @param out output stream (not closed)
+     * @return number of rows written
+     */
+    public long exportUsers(OutputStream out) throws IOException {
+        Writer writer = writer(out);
+        writer.write("id,email,first_name,last_name,role,created_at\n");
+
+        long rows = 0;
+        try (Stream<User> users = userDAO.streamAll()) {
+            Iterator<User> it = users.iterator();
+            while (it.hasNext()) {
+                User u = it.next();
+                writeRow(writer,
+                    u.getId(), u.getEmail(), u.getFirstName(), u.getLastName(), u.getRole(),
+                    u.getCreatedAt());
+                rows++;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to export users: " + e.getMessage());
+        }
+
+        writer.flush();
+        logger.info("Exported {} users", rows);
+        return rows;
+    }
+
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    /**
+     * Write one CSV row, quoting fields that contain separators, quotes or line breaks
+     */
+    private static void writeRow(Writer writer, Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (fields[i] == null) {
+                continue;
+            }
+            String value = fields[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+}
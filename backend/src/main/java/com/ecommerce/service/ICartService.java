@@ -2,6 +2,7 @@ package com.ecommerce.service;
 
 import com.ecommerce.model.CartItem;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Cart Service Interface
@@ -18,6 +19,24 @@ public interface ICartService {
      */
     CartItem addToCart(Long userId, Long productId, Integer quantity);
     
+    /**
+     * Add multiple items to cart in one operation
+     * All lines are validated together; nothing is added if any line is invalid
+     * @param userId user ID
+     * @param quantities product ID to quantity to add
+     * @return cart items that were added
+     */
+    List<CartItem> addAllToCart(Long userId, Map<Long, Integer> quantities);
+    
+    /**
+     * Merge a guest cart into the user's cart
+     * Unknown or sold-out products are skipped and quantities are capped at available stock
+     * @param userId user ID
+     * @param guestQuantities product ID to quantity from the guest cart
+     * @return cart items that were merged
+     */
+    List<CartItem> mergeCart(Long userId, Map<Long, Integer> guestQuantities);
+    
     /**
      * Update cart item quantity
      * @param userId user ID
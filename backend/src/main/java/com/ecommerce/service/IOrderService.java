@@ -3,6 +3,7 @@ package com.ecommerce.service;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderStatus;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Order Service Interface
@@ -34,9 +35,11 @@ public interface IOrderService {
     
     /**
      * Update order status
+     * Cancelling an order that has not shipped returns its stock
      * @param orderId order ID
      * @param status new status
      * @return updated order
+     * @throws com.ecommerce.exception.InvalidOrderStatusException if the current status cannot move to it
      */
     Order updateOrderStatus(Long orderId, OrderStatus status);
     
@@ -48,9 +51,33 @@ public interface IOrderService {
      */
     Order processPayment(Long orderId, String paymentId);
     
+    /**
+     * Record a failed payment, cancel the order and return its stock
+     * @param orderId order ID
+     * @param paymentId payment transaction ID, may be null
+     * @return updated order
+     * @throws com.ecommerce.exception.InvalidOrderStatusException if the order is paid, shipped or delivered
+     */
+    Order failPayment(Long orderId, String paymentId);
+    
     /**
      * Get all orders (admin)
      * @return list of all orders
      */
     List<Order> getAllOrders();
+    
+    /**
+     * Get one page of orders, newest first
+     * @param page zero-based page number
+     * @param size page size, capped at 100
+     * @return orders without items
+     */
+    List<Order> getOrdersPage(int page, int size);
+    
+    /**
+     * Stream all orders (admin), newest first, for large responses
+     * The caller must close the stream
+     * @return stream of orders without items
+     */
+    Stream<Order> streamAllOrders();
 }
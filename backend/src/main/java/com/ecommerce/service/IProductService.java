@@ -1,8 +1,10 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.ProductBrowseRequest;
 import com.ecommerce.model.Product;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Product Service Interface
@@ -71,4 +73,11 @@ public interface IProductService {
      * @return set of categories
      */
     java.util.Set<String> getAllCategories();
+    
+    /**
+     * Browse products with combined filters, sort, paging and facet counts
+     * @param request filters, sort and page
+     * @return page of products with total and per-facet counts
+     */
+    Map<String, Object> browseProducts(ProductBrowseRequest request);
 }
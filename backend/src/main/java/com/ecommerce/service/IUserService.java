@@ -43,4 +43,12 @@ public interface IUserService {
      * @return true if exists
      */
     boolean emailExists(String email);
+    
+    /**
+     * Get the ID of the user with an email, e.g. the authenticated principal
+     * @param email user email
+     * @return user ID
+     * @throws com.ecommerce.exception.UnauthorizedException if no user has this email
+     */
+    Long getUserIdByEmail(String email);
 }
@@ -0,0 +1,34 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Wishlist;
+import java.util.List;
+
+/**
+ * Wishlist Service Interface
+ * Defines contract for wishlist operations
+ */
+public interface IWishlistService {
+    
+    /**
+     * Get a user's wishlist with product details
+     * @param userId user ID
+     * @return wishlist items, newest first
+     */
+    List<Wishlist> getWishlist(Long userId);
+    
+    /**
+     * Add a product to a user's wishlist (no-op if already there)
+     * @param userId user ID
+     * @param productId product ID
+     * @return true if added
+     */
+    boolean addToWishlist(Long userId, Long productId);
+    
+    /**
+     * Remove a product from a user's wishlist
+     * @param userId user ID
+     * @param productId product ID
+     * @return true if removed
+     */
+    boolean removeFromWishlist(Long userId, Long productId);
+}
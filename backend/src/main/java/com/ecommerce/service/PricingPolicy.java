@@ -0,0 +1,54 @@
+package com.ecommerce.service;
+
+/**
+ * Pricing policy applied to a cart subtotal
+ * Demonstrates the Strategy pattern for pluggable tax and discount rules
+ *
+ * All amounts are in minor units (see {@link com.ecommerce.util.MoneyUtil}).
+ * Policies are evaluated once per cart mutation, not on every read.
+ */
+@FunctionalInterface
+public interface PricingPolicy {
+
+    /** Policy that charges exactly the subtotal */
+    PricingPolicy NONE = (subtotal, totalItems) -> subtotal;
+
+    /**
+     * Calculate the amount payable for a subtotal
+     *
+     * @param subtotal sum of line totals in minor units
+     * @param totalItems sum of line quantities
+     * @return payable amount in minor units
+     */
+    long apply(long subtotal, int totalItems);
+
+    /**
+     * Apply another policy to the result of this one
+     *
+     * @param next policy to apply afterwards
+     * @return combined policy
+     */
+    default PricingPolicy andThen(PricingPolicy next) {
+        return (subtotal, totalItems) -> next.apply(apply(subtotal, totalItems), totalItems);
+    }
+
+    /**
+     * Percentage discount, e.g. 1000 basis points = 10% off
+     *
+     * @param basisPoints discount in hundredths of a percent
+     * @return discount policy
+     */
+    static PricingPolicy percentOff(int basisPoints) {
+        return (subtotal, totalItems) -> subtotal - Math.round(subtotal * basisPoints / 10_000.0);
+    }
+
+    /**
+     * Tax added on top of the amount, e.g. 1800 basis points = 18% GST
+     *
+     * @param basisPoints tax rate in hundredths of a percent
+     * @return tax policy
+     */
+    static PricingPolicy tax(int basisPoints) {
+        return (subtotal, totalItems) -> subtotal + Math.round(subtotal * basisPoints / 10_000.0);
+    }
+}
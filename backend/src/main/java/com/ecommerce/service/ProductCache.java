@@ -0,0 +1,133 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dao.ProductDAO;
+import com.ecommerce.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through product cache
+ * Used to hydrate display fields (name, price, image) for carts and listings
+ *
+ * Cached products are shared instances and must not be modified by callers.
+ * Entries expire after a fixed TTL and are evicted explicitly on product writes.
+ */
+@Component
+public class ProductCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCache.class);
+    private static final long TTL_MILLIS = 5 * 60 * 1000L;
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Get a product from cache, loading it on a miss
+     *
+     * @param productId product ID
+     * @return product or null if it does not exist
+     */
+    public Product get(Long productId) throws SQLException {
+        Entry entry = entries.get(productId);
+        if (entry != null && !entry.isExpired()) {
+            return entry.product;
+        }
+
+        Product product = productDAO.findById(productId);
+        if (product != null) {
+            entries.put(productId, new Entry(product));
+        }
+        return product;
+    }
+
+    /**
+     * Get several products, loading all misses with a single query
+     *
+     * @param productIds product IDs
+     * @return map of product ID to product (missing products are absent)
+     */
+    public Map<Long, Product> getAll(Collection<Long> productIds) throws SQLException {
+        Map<Long, Product> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+
+        for (Long id : productIds) {
+            Entry entry = entries.get(id);
+            if (entry != null && !entry.isExpired()) {
+                result.put(id, entry.product);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<Long, Product> loaded = productDAO.findByIds(misses);
+            for (Product product : loaded.values()) {
+                entries.put(product.getId(), new Entry(product));
+            }
+            result.putAll(loaded);
+            logger.debug("Product cache loaded {} of {} missing products", loaded.size(), misses.size());
+        }
+
+        return result;
+    }
+
+    /**
+     * Load the given products into the cache, replacing existing entries
+     *
+     * @param products products to cache
+     */
+    public void putAll(Collection<Product> products) {
+        for (Product product : products) {
+            entries.put(product.getId(), new Entry(product));
+        }
+    }
+
+    /**
+     * Evict a product after it was changed
+     *
+     * @param productId product ID
+     */
+    public void evict(Long productId) {
+        entries.remove(productId);
+    }
+
+    /**
+     * Evict all products
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Cached product with its load time
+     */
+    private static final class Entry {
+        private final Product product;
+        private final long loadedAt;
+
+        Entry(Product product) {
+            this.product = product;
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > TTL_MILLIS;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.service;
 
 import com.ecommerce.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -13,6 +15,8 @@ import java.util.stream.Collectors;
  */
 public class ProductCatalog {
     
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+    
     // List of all products
     private List<Product> products;
     
@@ -60,7 +64,7 @@ public class ProductCatalog {
         // Add category to set
         categories.add(category);
         
-        System.out.println("Added product: " + product.getName() + " to catalog");
+        logger.debug("Added product: {} to catalog", product.getName());
     }
     
     /**
@@ -310,7 +314,7 @@ public class ProductCatalog {
             if (categoryList != null) {
                 categoryList.remove(product);
             }
-            System.out.println("Removed product: " + product.getName());
+            logger.debug("Removed product: {}", product.getName());
             return true;
         }
         return false;
@@ -324,7 +328,7 @@ public class ProductCatalog {
         productMap.clear();
         productsByCategory.clear();
         categories.clear();
-        System.out.println("Catalog cleared");
+        logger.debug("Catalog cleared");
     }
     
     /**
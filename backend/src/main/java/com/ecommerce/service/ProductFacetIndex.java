@@ -0,0 +1,487 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ReplicaRoutingContext;
+import com.ecommerce.dao.CatalogVersion;
+import com.ecommerce.dao.ProductDAO;
+import com.ecommerce.dto.ProductBrowseRequest;
+import com.ecommerce.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory facet index over the product catalog
+ * Backs filtered browsing: every category, every price range and the in-stock state has
+ * a posting list (a BitSet over product positions), so combining filters is a few
+ * word-wise ANDs and a facet count is one more AND and a cardinality. Sort orders are
+ * precomputed permutations, so a page is read off in one pass without sorting.
+ *
+ * The index is an immutable snapshot of the products table, rebuilt when the catalog
+ * version moves but at most once per refresh interval (every order moves it). One caller
+ * rebuilds while the others keep reading the previous snapshot, so results may lag a
+ * write by up to that interval. Products in results are shared instances and must not
+ * be modified by callers.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private final BigDecimal[] bounds;
+    private final long refreshMillis;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final LongAdder builds = new LongAdder();
+    private volatile long lastBuildMillis;
+    private volatile Index index;
+
+    public ProductFacetIndex(@Value("${app.catalog.price-ranges:25,50,100,250,500}") String priceRanges,
+                             @Value("${app.catalog.facet-refresh-ms:1000}") long refreshMillis) {
+        this.bounds = parseBounds(priceRanges);
+        this.refreshMillis = refreshMillis;
+    }
+
+    /**
+     * Filter, sort and page the catalog, with counts for every facet value
+     * Counts are disjunctive: each facet is counted with the other facets' filters applied
+     * but not its own, so a client can show how many products each alternative would add
+     *
+     * @param request filters, sort and page
+     * @return total, page, size, totalPages, sort, items and facets
+     * @throws SQLException if the index has to be built and the catalog cannot be read
+     */
+    public Map<String, Object> browse(ProductBrowseRequest request) throws SQLException {
+        Index snapshot = current();
+        Sort sort = Sort.parse(request.getSort());
+        int page = Math.max(request.getPage(), 0);
+        int size = Math.min(Math.max(request.getSize(), 1), MAX_PAGE_SIZE);
+
+        BitSet categories = snapshot.categoryFilter(request.getCategory());
+        BitSet prices = snapshot.priceFilter(request.getPriceRange(), request.getMinPrice(), request.getMaxPrice());
+        BitSet stock = snapshot.stockFilter(request.getInStock());
+
+        BitSet matches = snapshot.select(categories, prices, stock);
+        int total = matches.cardinality();
+        long offset = (long) page * size;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", total);
+        result.put("page", page);
+        result.put("size", size);
+        result.put("totalPages", (total + size - 1) / size);
+        result.put("sort", sort.value);
+        result.put("items", offset < total ? snapshot.page(matches, sort, (int) offset, size) : List.of());
+        result.put("facets", snapshot.facets(categories, prices, stock));
+        return result;
+    }
+
+    /**
+     * All products matching the filters, newest first
+     *
+     * @param category category, or null for any
+     * @param minPrice lowest price, inclusive, or null
+     * @param maxPrice highest price, inclusive, or null
+     * @param inStockOnly true to leave out products without stock
+     * @return matching products
+     * @throws SQLException if the index has to be built and the catalog cannot be read
+     */
+    public List<Product> filter(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                Boolean inStockOnly) throws SQLException {
+        Index snapshot = current();
+        BitSet matches = snapshot.select(
+                snapshot.categoryFilter(category != null ? List.of(category) : null),
+                snapshot.priceFilter(null, minPrice, maxPrice),
+                snapshot.stockFilter(inStockOnly));
+        return snapshot.page(matches, Sort.NEWEST, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Build the index now unless one is already current
+     *
+     * @throws SQLException if the catalog cannot be read
+     */
+    public void refresh() throws SQLException {
+        current();
+    }
+
+    /**
+     * Build the index now, even within the refresh interval
+     * For bulk writers that need their changes browsable when they finish; waits for a
+     * rebuild already in progress, which may have read the catalog before the writes
+     *
+     * @throws SQLException if the catalog cannot be read
+     */
+    public void rebuild() throws SQLException {
+        rebuildLock.lock();
+        try {
+            index = build();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Index state for the metrics endpoint
+     *
+     * @return indexed products, categories, price ranges, version, builds and last build time
+     */
+    public Map<String, Object> stats() {
+        Index snapshot = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", snapshot != null ? snapshot.products.length : 0);
+        stats.put("categories", snapshot != null ? snapshot.byCategory.size() : 0);
+        stats.put("priceRanges", bounds.length + 1);
+        stats.put("version", snapshot != null ? snapshot.version : -1);
+        stats.put("catalogVersion", catalogVersion.current());
+        stats.put("builds", builds.sum());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        return stats;
+    }
+
+    /**
+     * Current snapshot, rebuilding it if the catalog changed and the refresh interval passed
+     * Only the very first build makes callers wait; later ones are done by a single caller
+     */
+    private Index current() throws SQLException {
+        Index snapshot = index;
+        if (snapshot != null && (snapshot.version == catalogVersion.current()
+                || System.currentTimeMillis() - snapshot.builtAt < refreshMillis)) {
+            return snapshot;
+        }
+        if (snapshot == null) {
+            rebuildLock.lock();
+        } else if (!rebuildLock.tryLock()) {
+            return snapshot;
+        }
+        try {
+            snapshot = index;
+            if (snapshot == null || snapshot.version != catalogVersion.current()) {
+                snapshot = build();
+                index = snapshot;
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Index build() throws SQLException {
+        long start = System.currentTimeMillis();
+        // Read the version before loading, so the index is never stamped newer than its data
+        long version = catalogVersion.current();
+        // From the primary, like catalog snapshots: a lagging replica would index old data under this version
+        Index built = new Index(version, ReplicaRoutingContext.onPrimary(productDAO::findAll), bounds);
+        lastBuildMillis = System.currentTimeMillis() - start;
+        builds.increment();
+        logger.debug("Facet index built at version {}: {} products in {} ms",
+                version, built.products.length, lastBuildMillis);
+        return built;
+    }
+
+    private static BigDecimal[] parseBounds(String priceRanges) {
+        BigDecimal[] parsed = Arrays.stream(priceRanges.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(BigDecimal::new)
+                .toArray(BigDecimal[]::new);
+        // Labels name each range by its bounds, so at least one bound is needed
+        if (parsed.length == 0) {
+            throw new IllegalArgumentException("app.catalog.price-ranges needs at least one bound: '"
+                    + priceRanges + "'");
+        }
+        for (int i = 1; i < parsed.length; i++) {
+            if (parsed[i].compareTo(parsed[i - 1]) <= 0) {
+                throw new IllegalArgumentException("app.catalog.price-ranges must be ascending: " + priceRanges);
+            }
+        }
+        return parsed;
+    }
+
+    private static BigDecimal priceOf(Product product) {
+        return product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO;
+    }
+
+    /**
+     * Supported sort orders
+     */
+    enum Sort {
+        NEWEST("newest"), PRICE_ASC("price_asc"), PRICE_DESC("price_desc"), NAME("name");
+
+        private final String value;
+
+        Sort(String value) {
+            this.value = value;
+        }
+
+        static Sort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NEWEST;
+            }
+            for (Sort sort : values()) {
+                if (sort.value.equalsIgnoreCase(value.trim())) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort: " + value);
+        }
+    }
+
+    /**
+     * Immutable catalog snapshot with its posting lists
+     * Positions are the products' positions in findAll order (newest first)
+     */
+    static final class Index {
+        private final long version;
+        private final long builtAt = System.currentTimeMillis();
+        private final BigDecimal[] bounds;
+        private final Product[] products;
+        private final BitSet all;
+        private final Map<String, BitSet> byCategory = new TreeMap<>();
+        private final BitSet[] byPriceRange;
+        private final BitSet inStock;
+
+        /** Positions by ascending price, with the prices alongside for range lookups */
+        private final int[] byPrice;
+        private final BigDecimal[] sortedPrices;
+        private final int[] byName;
+
+        Index(long version, List<Product> catalog, BigDecimal[] bounds) {
+            this.version = version;
+            this.bounds = bounds;
+            this.products = catalog.toArray(new Product[0]);
+            int n = products.length;
+
+            all = new BitSet(n);
+            all.set(0, n);
+            inStock = new BitSet(n);
+            byPriceRange = new BitSet[bounds.length + 1];
+            for (int r = 0; r < byPriceRange.length; r++) {
+                byPriceRange[r] = new BitSet(n);
+            }
+
+            for (int i = 0; i < n; i++) {
+                Product product = products[i];
+                if (product.getCategory() != null) {
+                    byCategory.computeIfAbsent(product.getCategory(), k -> new BitSet(n)).set(i);
+                }
+                byPriceRange[rangeOf(priceOf(product))].set(i);
+                if (product.isInStock()) {
+                    inStock.set(i);
+                }
+            }
+
+            byPrice = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparing((Integer i) -> priceOf(products[i])))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            sortedPrices = new BigDecimal[n];
+            for (int k = 0; k < n; k++) {
+                sortedPrices[k] = priceOf(products[byPrice[k]]);
+            }
+            byName = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparing((Integer i) -> products[i].getName(),
+                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * Intersect the given filters; null filters are unconstrained
+         */
+        BitSet select(BitSet... filters) {
+            BitSet result = (BitSet) all.clone();
+            for (BitSet filter : filters) {
+                if (filter != null) {
+                    result.and(filter);
+                }
+            }
+            return result;
+        }
+
+        BitSet categoryFilter(List<String> categories) {
+            if (categories == null || categories.isEmpty()) {
+                return null;
+            }
+            BitSet filter = new BitSet(products.length);
+            for (String category : categories) {
+                BitSet postings = byCategory.get(category);
+                if (postings != null) {
+                    filter.or(postings);
+                }
+            }
+            return filter;
+        }
+
+        BitSet stockFilter(Boolean inStockOnly) {
+            return Boolean.TRUE.equals(inStockOnly) ? inStock : null;
+        }
+
+        BitSet priceFilter(List<Integer> ranges, BigDecimal minPrice, BigDecimal maxPrice) {
+            BitSet filter = null;
+            if (ranges != null && !ranges.isEmpty()) {
+                filter = new BitSet(products.length);
+                for (Integer range : ranges) {
+                    if (range == null || range < 0 || range >= byPriceRange.length) {
+                        throw new IllegalArgumentException("Unknown price range: " + range);
+                    }
+                    filter.or(byPriceRange[range]);
+                }
+            }
+            if (minPrice != null || maxPrice != null) {
+                int from = minPrice != null ? firstAtLeast(minPrice) : 0;
+                int to = maxPrice != null ? firstAbove(maxPrice) : byPrice.length;
+                BitSet between = new BitSet(products.length);
+                for (int k = from; k < to; k++) {
+                    between.set(byPrice[k]);
+                }
+                if (filter == null) {
+                    filter = between;
+                } else {
+                    filter.and(between);
+                }
+            }
+            return filter;
+        }
+
+        /**
+         * Read one page of matches in the given order
+         */
+        List<Product> page(BitSet matches, Sort sort, int offset, int size) {
+            List<Product> items = new ArrayList<>(Math.min(size, matches.cardinality()));
+            int skipped = 0;
+            if (sort == Sort.NEWEST) {
+                for (int i = matches.nextSetBit(0); i >= 0 && items.size() < size; i = matches.nextSetBit(i + 1)) {
+                    if (skipped++ >= offset) {
+                        items.add(products[i]);
+                    }
+                }
+                return items;
+            }
+            int[] order = sort == Sort.NAME ? byName : byPrice;
+            boolean reverse = sort == Sort.PRICE_DESC;
+            for (int k = 0; k < order.length && items.size() < size; k++) {
+                int i = order[reverse ? order.length - 1 - k : k];
+                if (matches.get(i) && skipped++ >= offset) {
+                    items.add(products[i]);
+                }
+            }
+            return items;
+        }
+
+        /**
+         * Disjunctive facet counts: each facet with the other facets' filters but not its own
+         */
+        Map<String, Object> facets(BitSet categories, BitSet prices, BitSet stock) {
+            Map<String, Object> facets = new LinkedHashMap<>();
+            facets.put("categories", categoryCounts(select(prices, stock)));
+            facets.put("price", priceCounts(select(categories, stock)));
+            facets.put("stock", stockCounts(select(categories, prices)));
+            return facets;
+        }
+
+        List<Map<String, Object>> categoryCounts(BitSet base) {
+            List<Map<String, Object>> counts = new ArrayList<>(byCategory.size());
+            for (Map.Entry<String, BitSet> entry : byCategory.entrySet()) {
+                Map<String, Object> count = new LinkedHashMap<>();
+                count.put("value", entry.getKey());
+                count.put("count", intersectionCount(base, entry.getValue()));
+                counts.add(count);
+            }
+            return counts;
+        }
+
+        List<Map<String, Object>> priceCounts(BitSet base) {
+            List<Map<String, Object>> counts = new ArrayList<>(byPriceRange.length);
+            for (int r = 0; r < byPriceRange.length; r++) {
+                BigDecimal min = r > 0 ? bounds[r - 1] : null;
+                BigDecimal max = r < bounds.length ? bounds[r] : null;
+                Map<String, Object> count = new LinkedHashMap<>();
+                count.put("range", r);
+                count.put("label", min == null ? "Under " + max.toPlainString()
+                        : max == null ? min.toPlainString() + " and above"
+                        : min.toPlainString() + " - " + max.toPlainString());
+                count.put("min", min);
+                count.put("max", max);
+                count.put("count", intersectionCount(base, byPriceRange[r]));
+                counts.add(count);
+            }
+            return counts;
+        }
+
+        Map<String, Object> stockCounts(BitSet base) {
+            int available = intersectionCount(base, inStock);
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("inStock", available);
+            counts.put("outOfStock", base.cardinality() - available);
+            return counts;
+        }
+
+        /**
+         * Price range of a price: range r covers [bounds[r-1], bounds[r])
+         */
+        int rangeOf(BigDecimal price) {
+            int r = 0;
+            while (r < bounds.length && price.compareTo(bounds[r]) >= 0) {
+                r++;
+            }
+            return r;
+        }
+
+        int firstAtLeast(BigDecimal price) {
+            int low = 0;
+            int high = sortedPrices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedPrices[mid].compareTo(price) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int firstAbove(BigDecimal price) {
+            int low = 0;
+            int high = sortedPrices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedPrices[mid].compareTo(price) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int intersectionCount(BitSet base, BitSet postings) {
+            BitSet both = (BitSet) base.clone();
+            both.and(postings);
+            return both.cardinality();
+        }
+    }
+}
@@ -0,0 +1,685 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ReplicaRoutingContext;
+import com.ecommerce.dao.CatalogVersion;
+import com.ecommerce.dao.ProductDAO;
+import com.ecommerce.dao.TransactionManager;
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk product import from CSV or JSON
+ * The upload is spooled to a temporary file and imported in the background, so the
+ * request returns at once with a job whose progress can be polled.
+ *
+ * The file is parsed as a stream, one row at a time, and rows are grouped into chunks.
+ * Chunks are validated in parallel while earlier chunks are written; each chunk is
+ * written in its own transaction with multi-row upserts. Invalid rows are rejected with
+ * their row number and reason, and the rest of the file is still imported. Product caches,
+ * catalog snapshots and the facet index are refreshed once, when the import ends.
+ *
+ * CSV files need a header row. Columns are matched by name (id, name, description, price,
+ * stock_quantity, category, image_url; others are ignored), so a product export can be
+ * imported back. JSON files hold an array of product objects with the same fields.
+ * Rows with an id update that product; rows without one are inserted.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    /** Rejects kept per job for the progress report; later ones are only counted */
+    private static final int MAX_REJECTS_REPORTED = 1000;
+    private static final int MAX_JOBS_RETAINED = 20;
+
+    @Autowired
+    private ProductDAO productDAO;
+
+    @Autowired
+    private TransactionManager transactionManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CatalogSnapshotCache catalogSnapshots;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.batch-rows:500}")
+    private int batchRows;
+
+    @Value("${app.import.validation-threads:0}")
+    private int validationThreads;
+
+    // One import runs at a time; later uploads queue behind it
+    private ExecutorService jobExecutor;
+    private ExecutorService validationExecutor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (validationThreads <= 0) {
+            validationThreads = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        jobExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "product-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        validationExecutor = Executors.newFixedThreadPool(validationThreads, r -> {
+            Thread thread = new Thread(r, "product-import-validate-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("ProductImportService initialized with {} validation threads", validationThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdown();
+        try {
+            if (!jobExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+                jobExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            jobExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        validationExecutor.shutdownNow();
+    }
+
+    /**
+     * Spool an uploaded file and queue its import
+     *
+     * @param in uploaded file content (not closed)
+     * @param filename original file name; a .json name selects JSON, anything else CSV
+     * @param contentType content type of the upload, may be null
+     * @return progress of the queued job, including its ID
+     * @throws IOException if the upload cannot be spooled
+     */
+    public Map<String, Object> startImport(InputStream in, String filename, String contentType) throws IOException {
+        Format format = Format.of(filename, contentType);
+        Path spool = Files.createTempFile("product-import-", format.suffix);
+        try {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), filename, format, Files.size(spool));
+        retain(job);
+        jobExecutor.submit(() -> run(job, spool));
+        logger.info("Product import {} queued: {} ({} bytes, {})", job.id, filename, job.bytes, format);
+        return job.progress();
+    }
+
+    /**
+     * Get the progress of an import
+     *
+     * @param jobId job ID returned by {@link #startImport}
+     * @return progress, or null if the job is unknown
+     */
+    public Map<String, Object> getProgress(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        return job != null ? job.progress() : null;
+    }
+
+    private void run(ImportJob job, Path spool) {
+        job.status = Status.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8);
+             RowReader rows = open(job.format, reader)) {
+            importRows(job, rows);
+            job.status = Status.COMPLETED;
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+            logger.error("Product import {} failed after {} rows", job.id, job.rowsRead.sum(), e);
+        } finally {
+            if (job.inserted.sum() + job.updated.sum() > 0) {
+                refreshCatalog();
+            }
+            job.finishedAt = LocalDateTime.now();
+            job.elapsedMillis = System.currentTimeMillis() - start;
+            ReplicaRoutingContext.reset();
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                logger.warn("Could not delete import spool file {}", spool);
+            }
+        }
+        logger.info("Product import {} {}: {} rows read, {} inserted, {} updated, {} rejected in {} ms",
+                job.id, job.status, job.rowsRead.sum(), job.inserted.sum(), job.updated.sum(),
+                job.rejected.sum(), job.elapsedMillis);
+    }
+
+    /**
+     * Read chunks and keep up to one chunk per validation thread in flight;
+     * validated chunks are written in file order on this thread
+     */
+    private void importRows(ImportJob job, RowReader rows) throws Exception {
+        Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        try {
+            while (true) {
+                List<RawRow> raw = readChunk(rows);
+                if (raw.isEmpty()) {
+                    break;
+                }
+                job.rowsRead.add(raw.size());
+                pending.add(validationExecutor.submit(() -> validate(raw)));
+                if (pending.size() > validationThreads) {
+                    write(job, await(pending.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(job, await(pending.poll()));
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private List<RawRow> readChunk(RowReader rows) throws IOException {
+        List<RawRow> raw = new ArrayList<>(chunkSize);
+        RawRow row;
+        while (raw.size() < chunkSize && (row = rows.next()) != null) {
+            raw.add(row);
+        }
+        return raw;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Validate a chunk of rows; runs on a validation thread
+     */
+    private Chunk validate(List<RawRow> raw) {
+        Chunk chunk = new Chunk();
+        for (RawRow row : raw) {
+            try {
+                chunk.valid.add(new ValidRow(row.number, toProduct(row.fields)));
+            } catch (IllegalArgumentException e) {
+                chunk.rejects.add(new Reject(row.number, e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Validate one row and build its product
+     * Package-private for tests
+     *
+     * @throws IllegalArgumentException with the reject reason if the row is invalid
+     */
+    static Product toProduct(Map<String, String> fields) {
+        Product product = new Product();
+
+        String id = fields.get("id");
+        if (id != null) {
+            product.setId(parseLong(id, "id"));
+            if (product.getId() <= 0) {
+                throw new IllegalArgumentException("id must be positive");
+            }
+        }
+
+        product.setName(required(fields, "name", 255));
+        product.setDescription(fields.get("description"));
+        product.setCategory(optional(fields, "category", 100));
+        product.setImageUrl(optional(fields, "imageurl", 500));
+
+        BigDecimal price = parseDecimal(required(fields, "price", 20), "price");
+        if (price.scale() > 2) {
+            price = price.stripTrailingZeros();
+        }
+        if (price.signum() < 0 || price.scale() > 2 || price.precision() - price.scale() > 8) {
+            throw new IllegalArgumentException("price must be between 0 and 99999999.99 with at most 2 decimals");
+        }
+        product.setPrice(price);
+
+        long stock = parseLong(required(fields, "stockquantity", 20), "stock_quantity");
+        if (stock < 0 || stock > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("stock_quantity must be a non-negative integer");
+        }
+        product.setStockQuantity((int) stock);
+
+        if (product.getId() == null && product.getImageUrl() == null) {
+            product.setImageUrl("https://via.placeholder.com/300x300?text="
+                    + URLEncoder.encode(product.getName(), StandardCharsets.UTF_8));
+        }
+        return product;
+    }
+
+    private static String required(Map<String, String> fields, String field, int maxLength) {
+        String value = optional(fields, field, maxLength);
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> fields, String field, int maxLength) {
+        String value = fields.get(field);
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static long parseLong(String value, String field) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+
+    private static BigDecimal parseDecimal(String value, String field) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    /**
+     * Write the valid rows of a chunk in one transaction
+     * Rows updating a product that does not exist are rejected rather than inserted under that ID,
+     * as are rows updating a hot-SKU product, whose stock can only change through its shards
+     */
+    private void write(ImportJob job, Chunk chunk) {
+        List<Reject> rejects = new ArrayList<>(chunk.rejects);
+        int[] written = transactionManager.executeInTransaction(conn -> {
+            Set<Long> ids = new HashSet<>();
+            for (ValidRow row : chunk.valid) {
+                if (row.product.getId() != null) {
+                    ids.add(row.product.getId());
+                }
+            }
+            Set<Long> existing = productDAO.findExistingIds(conn, ids);
+
+            List<Product> products = new ArrayList<>(chunk.valid.size());
+            int inserts = 0;
+            for (ValidRow row : chunk.valid) {
+                Long id = row.product.getId();
+                if (id != null && !existing.contains(id)) {
+                    rejects.add(new Reject(row.number, "Product not found with ID: " + id));
+                } else if (productDAO.isSharded(id)) {
+                    // Its stock lives in shard rows; the next write-back would discard an imported value
+                    rejects.add(new Reject(row.number, "Product " + id
+                            + " is in hot-SKU mode; its stock cannot be imported"));
+                } else {
+                    products.add(row.product);
+                    if (id == null) {
+                        inserts++;
+                    }
+                }
+            }
+            for (int from = 0; from < products.size(); from += batchRows) {
+                productDAO.upsertBatch(conn, products.subList(from, Math.min(from + batchRows, products.size())));
+            }
+            return new int[] {inserts, products.size() - inserts};
+        });
+
+        // Counted once committed, so a failed chunk leaves the report at the last committed one
+        job.inserted.add(written[0]);
+        job.updated.add(written[1]);
+        job.chunksCommitted.increment();
+        job.reject(rejects);
+    }
+
+    /**
+     * Make the imported rows visible to catalog reads, once per import
+     */
+    private void refreshCatalog() {
+        catalogVersion.changed();
+        productCache.clear();
+        catalogSnapshots.clear();
+        try {
+            // A refresh would keep the old index within its refresh interval
+            facetIndex.rebuild();
+        } catch (Exception e) {
+            logger.warn("Facet index refresh after import failed; it will rebuild on the next browse", e);
+        }
+    }
+
+    private void retain(ImportJob job) {
+        jobs.put(job.id, job);
+        if (jobs.size() > MAX_JOBS_RETAINED) {
+            jobs.values().stream()
+                    .filter(ImportJob::isFinished)
+                    .min(Comparator.comparing(j -> j.finishedAt))
+                    .ifPresent(oldest -> jobs.remove(oldest.id));
+        }
+    }
+
+    private RowReader open(Format format, BufferedReader reader) throws IOException {
+        return format == Format.JSON ? new JsonRowReader(objectMapper, reader) : new CsvRowReader(reader);
+    }
+
+    /**
+     * Field names as matched: lower case without separators, so stock_quantity and stockQuantity agree
+     */
+    private static String normalize(String field) {
+        return field.trim().replace("_", "").replace("-", "").toLowerCase();
+    }
+
+    private enum Format {
+        CSV(".csv"), JSON(".json");
+
+        private final String suffix;
+
+        Format(String suffix) {
+            this.suffix = suffix;
+        }
+
+        static Format of(String filename, String contentType) {
+            boolean json = (filename != null && filename.toLowerCase().endsWith(".json"))
+                    || (contentType != null && contentType.toLowerCase().startsWith("application/json"));
+            return json ? JSON : CSV;
+        }
+    }
+
+    private enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * Progress of one import
+     * Written by the import thread and read by pollers
+     */
+    private static final class ImportJob {
+        private final String id;
+        private final String filename;
+        private final Format format;
+        private final long bytes;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long elapsedMillis;
+        private volatile String error;
+
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder inserted = new LongAdder();
+        private final LongAdder updated = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder chunksCommitted = new LongAdder();
+        private final List<Reject> rejects = Collections.synchronizedList(new ArrayList<>());
+
+        ImportJob(String id, String filename, Format format, long bytes) {
+            this.id = id;
+            this.filename = filename;
+            this.format = format;
+            this.bytes = bytes;
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        void reject(List<Reject> chunkRejects) {
+            rejected.add(chunkRejects.size());
+            chunkRejects.sort(Comparator.comparingLong(r -> r.row));
+            synchronized (rejects) {
+                Iterator<Reject> it = chunkRejects.iterator();
+                while (rejects.size() < MAX_REJECTS_REPORTED && it.hasNext()) {
+                    rejects.add(it.next());
+                }
+            }
+        }
+
+        Map<String, Object> progress() {
+            Map<String, Object> progress = new LinkedHashMap<>();
+            progress.put("jobId", id);
+            progress.put("file", filename);
+            progress.put("format", format);
+            progress.put("bytes", bytes);
+            progress.put("status", status);
+            progress.put("rowsRead", rowsRead.sum());
+            progress.put("inserted", inserted.sum());
+            progress.put("updated", updated.sum());
+            progress.put("rejected", rejected.sum());
+            progress.put("chunksCommitted", chunksCommitted.sum());
+            progress.put("queuedAt", queuedAt);
+            progress.put("startedAt", startedAt);
+            progress.put("finishedAt", finishedAt);
+            progress.put("elapsedMillis", elapsedMillis);
+            progress.put("error", error);
+            List<Map<String, Object>> reported = new ArrayList<>();
+            synchronized (rejects) {
+                for (Reject reject : rejects) {
+                    reported.add(Map.of("row", reject.row, "reason", reject.reason));
+                }
+            }
+            progress.put("rejects", reported);
+            return progress;
+        }
+    }
+
+    /** Row as read: its row number (CSV line, or position in the JSON array) and fields by normalized name */
+    record RawRow(long number, Map<String, String> fields) { }
+
+    private record ValidRow(long number, Product product) { }
+
+    private record Reject(long row, String reason) { }
+
+    private static final class Chunk {
+        private final List<ValidRow> valid = new ArrayList<>();
+        private final List<Reject> rejects = new ArrayList<>();
+    }
+
+    /**
+     * Source of rows, read one at a time
+     */
+    interface RowReader extends Closeable {
+        /**
+         * @return next row, or null at the end of the file
+         */
+        RawRow next() throws IOException;
+    }
+
+    /**
+     * RFC 4180 CSV: quoted fields may contain separators, doubled quotes and line breaks
+     * Empty fields are read as absent
+     */
+    static final class CsvRowReader implements RowReader {
+        private final Reader in;
+        private final String[] header;
+        private long line;
+        private long recordLine;
+
+        CsvRowReader(Reader in) throws IOException {
+            this.in = in;
+            List<String> names = readRecord();
+            if (names == null) {
+                throw new IOException("CSV file is empty");
+            }
+            // Spreadsheet exports often start with a byte order mark
+            if (names.get(0).startsWith("\uFEFF")) {
+                names.set(0, names.get(0).substring(1));
+            }
+            this.header = names.stream().map(ProductImportService::normalize).toArray(String[]::new);
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isEmpty());
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.length && i < values.size(); i++) {
+                String value = values.get(i).trim();
+                if (!value.isEmpty()) {
+                    fields.put(header[i], value);
+                }
+            }
+            return new RawRow(recordLine, fields);
+        }
+
+        /**
+         * Read one record
+         *
+         * @return fields, or null at the end of the input
+         */
+        private List<String> readRecord() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = ++line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+            if (quoted) {
+                throw new IOException("Unterminated quoted field starting on line " + recordLine);
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * JSON array of product objects, parsed one element at a time
+     */
+    private static final class JsonRowReader implements RowReader {
+        private final ObjectMapper objectMapper;
+        private final JsonParser parser;
+        private long index;
+
+        JsonRowReader(ObjectMapper objectMapper, Reader in) throws IOException {
+            this.objectMapper = objectMapper;
+            this.parser = objectMapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("JSON import must be an array of products");
+            }
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                return null;
+            }
+            long number = ++index;
+            JsonNode node = objectMapper.readTree(parser);
+            Map<String, String> fields = new HashMap<>();
+            if (node != null && node.isObject()) {
+                Iterator<Map.Entry<String, JsonNode>> it = node.fields();
+                while (it.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = it.next();
+                    JsonNode value = entry.getValue();
+                    if (value.isValueNode() && !value.isNull() && !value.asText().isBlank()) {
+                        fields.put(normalize(entry.getKey()), value.asText().trim());
+                    }
+                }
+            }
+            return new RawRow(number, fields);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.util.MoneyUtil;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact cart stored in HttpSession
+ * Holds only product ID / quantity pairs in packed primitive arrays
+ *
+ * Display fields (name, price, image) are not stored in the session;
+ * they are hydrated from the product cache when the cart is rendered.
+ * The number of lines is bounded so a session cannot grow without limit.
+ */
+public class SessionCart implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Maximum number of distinct products per cart */
+    public static final int MAX_LINES = 100;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] productIds = new long[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Add quantity for a product, creating the line if needed
+     *
+     * @param productId product ID
+     * @param quantity quantity to add
+     * @return new quantity for the line, or -1 if the cart is full
+     */
+    public int add(long productId, int quantity) {
+        int index = indexOf(productId);
+        if (index >= 0) {
+            quantities[index] += quantity;
+            return quantities[index];
+        }
+
+        if (size == MAX_LINES) {
+            return -1;
+        }
+        if (size == productIds.length) {
+            int capacity = Math.min(MAX_LINES, size * 2);
+            productIds = Arrays.copyOf(productIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+
+        productIds[size] = productId;
+        quantities[size] = quantity;
+        size++;
+        return quantity;
+    }
+
+    /**
+     * Set the quantity for an existing line; a non-positive quantity removes it
+     *
+     * @param productId product ID
+     * @param quantity new quantity
+     */
+    public void setQuantity(long productId, int quantity) {
+        if (quantity <= 0) {
+            remove(productId);
+            return;
+        }
+        int index = indexOf(productId);
+        if (index >= 0) {
+            quantities[index] = quantity;
+        }
+    }
+
+    /**
+     * Remove a line, keeping the insertion order of the remaining lines
+     *
+     * @param productId product ID
+     * @return true if the line existed
+     */
+    public boolean remove(long productId) {
+        int index = indexOf(productId);
+        if (index < 0) {
+            return false;
+        }
+        int tail = size - index - 1;
+        System.arraycopy(productIds, index + 1, productIds, index, tail);
+        System.arraycopy(quantities, index + 1, quantities, index, tail);
+        size--;
+        return true;
+    }
+
+    /**
+     * Get quantity for a product
+     *
+     * @param productId product ID
+     * @return quantity, or 0 if the product is not in the cart
+     */
+    public int getQuantity(long productId) {
+        int index = indexOf(productId);
+        return index >= 0 ? quantities[index] : 0;
+    }
+
+    public boolean contains(long productId) {
+        return indexOf(productId) >= 0;
+    }
+
+    /**
+     * Get the product IDs in insertion order
+     *
+     * @return list of product IDs
+     */
+    public List<Long> getProductIds() {
+        List<Long> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(productIds[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Build display cart items from cached products
+     * Lines whose product no longer exists are skipped
+     *
+     * @param products product ID to product, e.g. from {@link ProductCache#getAll}
+     * @return hydrated cart items in insertion order
+     */
+    public List<CartItem> hydrate(Map<Long, Product> products) {
+        List<CartItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(productIds[i]);
+            if (product != null) {
+                items.add(new CartItem(product.getId(), product.getName(), product.getPrice(),
+                                       quantities[i], product.getImageUrl()));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Calculate the total of hydrated cart items
+     *
+     * @param items hydrated items
+     * @return sum of line totals
+     */
+    public static BigDecimal total(List<CartItem> items) {
+        long totalMinor = 0;
+        for (CartItem item : items) {
+            totalMinor += MoneyUtil.toMinorUnits(item.getPrice()) * item.getQuantity();
+        }
+        return MoneyUtil.fromMinorUnits(totalMinor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private int indexOf(long productId) {
+        for (int i = 0; i < size; i++) {
+            if (productIds[i] == productId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionCart{" +
+                "lines=" + size +
+                '}';
+    }
+}
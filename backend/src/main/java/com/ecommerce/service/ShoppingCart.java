@@ -2,6 +2,9 @@ package com.ecommerce.service;
 
 import com.ecommerce.model.CartItem;
 import com.ecommerce.model.Product;
+import com.ecommerce.util.MoneyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.util.*;
 
@@ -9,29 +12,43 @@ import java.util.*;
  * Shopping Cart Service
  * Demonstrates Collections and Generics usage
  * 
- * Uses Map<Long, CartItem> for efficient cart management
+ * Uses an insertion-ordered Map<Long, CartItem> for efficient cart management.
+ * Totals are kept as running sums in minor units and updated incrementally on
+ * every mutation, so reads never re-scan the items. Items are handed out as copies,
+ * so changes can only go through the cart's methods, which keep the totals in step.
  */
 public class ShoppingCart {
     
+    private static final Logger logger = LoggerFactory.getLogger(ShoppingCart.class);
+    
     // Map to store cart items (productId -> CartItem)
-    // Demonstrates Map collection and Generics
-    private Map<Long, CartItem> items;
+    // LinkedHashMap keeps insertion order with O(1) add/remove
+    private final Map<Long, CartItem> items;
     
-    // List to maintain insertion order
-    // Demonstrates List collection
-    private List<CartItem> itemsList;
+    // Pricing rules (tax, discounts) applied to the subtotal
+    private final PricingPolicy pricingPolicy;
     
-    // Set to track unique product IDs
-    // Demonstrates Set collection
-    private Set<Long> productIds;
+    // Running totals, maintained incrementally
+    private long subtotalMinor;
+    private int totalItems;
+    private long totalMinor;
     
     /**
-     * Constructor initializes all collections
+     * Constructor for a cart without tax or discounts
      */
     public ShoppingCart() {
-        this.items = new HashMap<>();
-        this.itemsList = new ArrayList<>();
-        this.productIds = new HashSet<>();
+        this(PricingPolicy.NONE);
+    }
+    
+    /**
+     * Constructor with a pricing policy
+     * 
+     * @param pricingPolicy policy applied to the subtotal on each mutation
+     */
+    public ShoppingCart(PricingPolicy pricingPolicy) {
+        this.items = new LinkedHashMap<>();
+        this.pricingPolicy = pricingPolicy;
+        this.totalMinor = pricingPolicy.apply(0, 0);
     }
     
     /**
@@ -47,12 +64,13 @@ public class ShoppingCart {
         }
         
         Long productId = product.getId();
+        CartItem existingItem = items.get(productId);
         
-        if (items.containsKey(productId)) {
+        if (existingItem != null) {
             // Update existing item
-            CartItem existingItem = items.get(productId);
             existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            System.out.println("Updated cart: " + product.getName() + " quantity to " + existingItem.getQuantity());
+            adjustTotals(existingItem, quantity);
+            logger.debug("Updated cart: {} quantity to {}", product.getName(), existingItem.getQuantity());
         } else {
             // Add new item
             CartItem newItem = new CartItem(
@@ -63,9 +81,8 @@ public class ShoppingCart {
                 product.getImageUrl()
             );
             items.put(productId, newItem);
-            itemsList.add(newItem);
-            productIds.add(productId);
-            System.out.println("Added to cart: " + product.getName() + " x " + quantity);
+            adjustTotals(newItem, quantity);
+            logger.debug("Added to cart: {} x {}", product.getName(), quantity);
         }
     }
     
@@ -78,9 +95,8 @@ public class ShoppingCart {
     public boolean removeItem(Long productId) {
         CartItem removed = items.remove(productId);
         if (removed != null) {
-            itemsList.remove(removed);
-            productIds.remove(productId);
-            System.out.println("Removed from cart: " + removed.getProductName());
+            adjustTotals(removed, -removed.getQuantity());
+            logger.debug("Removed from cart: {}", removed.getProductName());
             return true;
         }
         return false;
@@ -100,8 +116,10 @@ public class ShoppingCart {
         
         CartItem item = items.get(productId);
         if (item != null) {
+            int delta = newQuantity - item.getQuantity();
             item.setQuantity(newQuantity);
-            System.out.println("Updated quantity for " + item.getProductName() + " to " + newQuantity);
+            adjustTotals(item, delta);
+            logger.debug("Updated quantity for {} to {}", item.getProductName(), newQuantity);
         }
     }
     
@@ -109,55 +127,68 @@ public class ShoppingCart {
      * Get all items as List
      * Demonstrates returning generic collection
      * 
-     * @return list of cart items
+     * @return copies of the cart items
      */
     public List<CartItem> getItems() {
-        return new ArrayList<>(itemsList); // Return defensive copy
+        return copyOf(items.values());
     }
     
     /**
      * Get item by product ID
+     * Quantities are changed through {@link #updateQuantity}, not on the returned copy
      * 
      * @param productId product ID
-     * @return cart item or null
+     * @return copy of the cart item or null
      */
     public CartItem getItem(Long productId) {
-        return items.get(productId);
+        CartItem item = items.get(productId);
+        return item != null ? copyOf(item) : null;
     }
     
     /**
      * Check if cart contains product
-     * Demonstrates Set usage
      * 
      * @param productId product ID
      * @return true if product is in cart
      */
     public boolean containsProduct(Long productId) {
-        return productIds.contains(productId);
+        return items.containsKey(productId);
     }
     
     /**
      * Get total number of items (sum of quantities)
-     * Demonstrates Stream API with collections
      * 
      * @return total item count
      */
     public int getTotalItems() {
-        return items.values().stream()
-                    .mapToInt(CartItem::getQuantity)
-                    .sum();
+        return totalItems;
     }
     
     /**
-     * Calculate cart total amount
-     * Demonstrates Stream API and functional programming
+     * Get cart subtotal before tax and discounts
+     * 
+     * @return sum of line totals
+     */
+    public BigDecimal getSubtotal() {
+        return MoneyUtil.fromMinorUnits(subtotalMinor);
+    }
+    
+    /**
+     * Get cart total amount after the pricing policy
      * 
      * @return total cart value
      */
     public BigDecimal getTotal() {
-        return items.values().stream()
-                    .map(CartItem::getTotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return MoneyUtil.fromMinorUnits(totalMinor);
+    }
+    
+    /**
+     * Get cart total amount in minor units
+     * 
+     * @return total cart value in minor units
+     */
+    public long getTotalMinorUnits() {
+        return totalMinor;
     }
     
     /**
@@ -183,9 +214,36 @@ public class ShoppingCart {
      */
     public void clear() {
         items.clear();
-        itemsList.clear();
-        productIds.clear();
-        System.out.println("Cart cleared");
+        subtotalMinor = 0;
+        totalItems = 0;
+        totalMinor = pricingPolicy.apply(0, 0);
+        logger.debug("Cart cleared");
+    }
+    
+    /**
+     * Apply a quantity change for one line to the running totals
+     * and re-evaluate the pricing policy once
+     * 
+     * @param item changed item
+     * @param quantityDelta change in quantity (negative when removing)
+     */
+    private void adjustTotals(CartItem item, int quantityDelta) {
+        subtotalMinor += MoneyUtil.toMinorUnits(item.getPrice()) * quantityDelta;
+        totalItems += quantityDelta;
+        totalMinor = pricingPolicy.apply(subtotalMinor, totalItems);
+    }
+    
+    private static CartItem copyOf(CartItem item) {
+        return new CartItem(item.getProductId(), item.getProductName(), item.getPrice(),
+                item.getQuantity(), item.getImageUrl());
+    }
+    
+    private static List<CartItem> copyOf(Collection<CartItem> cartItems) {
+        List<CartItem> copies = new ArrayList<>(cartItems.size());
+        for (CartItem item : cartItems) {
+            copies.add(copyOf(item));
+        }
+        return copies;
     }
     
     /**
@@ -195,7 +253,7 @@ public class ShoppingCart {
      * @return sorted list of items
      */
     public List<CartItem> getItemsSortedByName() {
-        List<CartItem> sorted = new ArrayList<>(itemsList);
+        List<CartItem> sorted = copyOf(items.values());
         sorted.sort(Comparator.comparing(CartItem::getProductName));
         return sorted;
     }
@@ -206,7 +264,7 @@ public class ShoppingCart {
      * @return sorted list of items
      */
     public List<CartItem> getItemsSortedByPrice() {
-        List<CartItem> sorted = new ArrayList<>(itemsList);
+        List<CartItem> sorted = copyOf(items.values());
         sorted.sort(Comparator.comparing(CartItem::getPrice));
         return sorted;
     }
@@ -218,8 +276,9 @@ public class ShoppingCart {
      */
     public Map<String, Object> getSummary() {
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalItems", getTotalItems());
+        summary.put("totalItems", totalItems);
         summary.put("uniqueProducts", size());
+        summary.put("subtotal", getSubtotal());
         summary.put("totalAmount", getTotal());
         summary.put("isEmpty", isEmpty());
         return summary;
@@ -229,7 +288,7 @@ public class ShoppingCart {
     public String toString() {
         return "ShoppingCart{" +
                 "items=" + size() +
-                ", totalQuantity=" + getTotalItems() +
+                ", totalQuantity=" + totalItems +
                 ", total=" + getTotal() +
                 '}';
     }
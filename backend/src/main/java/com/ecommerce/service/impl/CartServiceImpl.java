@@ -7,6 +7,7 @@ import com.ecommerce.exception.ProductNotFoundException;
 import com.ecommerce.model.CartItem;
 import com.ecommerce.model.Product;
 import com.ecommerce.service.ICartService;
+import com.ecommerce.util.MoneyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +15,10 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -35,6 +39,9 @@ public class CartServiceImpl implements ICartService {
     // Thread-safe in-memory cache for cart operations
     private final ConcurrentHashMap<Long, List<CartItem>> cartCache = new ConcurrentHashMap<>();
     
+    // Cart totals in minor units, computed once per cached cart
+    private final ConcurrentHashMap<Long, Long> cartTotalCache = new ConcurrentHashMap<>();
+    
     @Override
     public CartItem addToCart(Long userId, Long productId, Integer quantity) {
         try {
@@ -62,7 +69,7 @@ public class CartServiceImpl implements ICartService {
             CartItem saved = cartDAO.save(cartItem);
             
             // Invalidate cache for this user
-            cartCache.remove(userId);
+            invalidateCart(userId);
             
             logger.info("Item added to cart for user {}: product {}", userId, productId);
             return saved;
@@ -73,6 +80,90 @@ public class CartServiceImpl implements ICartService {
         }
     }
     
+    @Override
+    public List<CartItem> addAllToCart(Long userId, Map<Long, Integer> quantities) {
+        try {
+            // Validate every line against a single product lookup
+            Map<Long, Product> products = productDAO.findByIds(quantities.keySet());
+            Map<Long, Integer> inCart = cartQuantities(userId);
+            List<CartItem> items = new ArrayList<>(quantities.size());
+            
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                int quantity = entry.getValue();
+                
+                if (product == null) {
+                    throw new ProductNotFoundException("Product not found with ID: " + entry.getKey());
+                }
+                if (quantity <= 0) {
+                    throw new IllegalArgumentException("Invalid quantity for product " + entry.getKey());
+                }
+                // Lines are added to what is already in the cart
+                int total = inCart.getOrDefault(entry.getKey(), 0) + quantity;
+                if (!product.hasSufficientStock(total)) {
+                    throw new InsufficientStockException(
+                        product.getName(), total, product.getStockQuantity());
+                }
+                
+                items.add(toCartItem(userId, product, quantity));
+            }
+            
+            cartDAO.saveAll(items);
+            invalidateCart(userId);
+            
+            logger.info("{} items added to cart for user {}", items.size(), userId);
+            return items;
+            
+        } catch (SQLException e) {
+            logger.error("Error adding items to cart", e);
+            throw new RuntimeException("Failed to add to cart: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public List<CartItem> mergeCart(Long userId, Map<Long, Integer> guestQuantities) {
+        try {
+            Map<Long, Product> products = productDAO.findByIds(guestQuantities.keySet());
+            Map<Long, Integer> inCart = cartQuantities(userId);
+            List<CartItem> items = new ArrayList<>(guestQuantities.size());
+            
+            for (Map.Entry<Long, Integer> entry : guestQuantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                // Capped so the merged line, not just the guest part, fits the stock
+                int quantity = product == null ? 0 : Math.min(entry.getValue(),
+                        product.getStockQuantity() - inCart.getOrDefault(entry.getKey(), 0));
+                if (quantity <= 0) {
+                    logger.debug("Skipping guest cart line for product {}", entry.getKey());
+                    continue;
+                }
+                
+                items.add(toCartItem(userId, product, quantity));
+            }
+            
+            cartDAO.saveAll(items);
+            invalidateCart(userId);
+            
+            logger.info("Guest cart merged for user {}: {} of {} lines kept", 
+                       userId, items.size(), guestQuantities.size());
+            return items;
+            
+        } catch (SQLException e) {
+            logger.error("Error merging cart", e);
+            throw new RuntimeException("Failed to merge cart: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Quantities already in a user's stored cart, by product ID
+     */
+    private Map<Long, Integer> cartQuantities(Long userId) throws SQLException {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItem item : cartDAO.findByUserId(userId)) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+    
     @Override
     public CartItem updateCartItem(Long userId, Long itemId, Integer quantity) {
         try {
@@ -92,7 +183,7 @@ public class CartServiceImpl implements ICartService {
             CartItem updated = cartDAO.update(cartItem);
             
             // Invalidate cache
-            cartCache.remove(userId);
+            invalidateCart(userId);
             
             logger.info("Cart item updated for user {}: item {}", userId, itemId);
             return updated;
@@ -107,7 +198,7 @@ public class CartServiceImpl implements ICartService {
     public void removeFromCart(Long userId, Long itemId) {
         try {
             cartDAO.delete(itemId);
-            cartCache.remove(userId);
+            invalidateCart(userId);
             logger.info("Item removed from cart for user {}: item {}", userId, itemId);
         } catch (SQLException e) {
             logger.error("Error removing from cart", e);
@@ -134,7 +225,7 @@ public class CartServiceImpl implements ICartService {
     public void clearCart(Long userId) {
         try {
             cartDAO.deleteByUserId(userId);
-            cartCache.remove(userId);
+            invalidateCart(userId);
             logger.info("Cart cleared for user {}", userId);
         } catch (SQLException e) {
             logger.error("Error clearing cart", e);
@@ -142,11 +233,37 @@ public class CartServiceImpl implements ICartService {
         }
     }
     
+    /**
+     * Build a cart item for a validated product
+     */
+    private CartItem toCartItem(Long userId, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setUserId(userId);
+        cartItem.setProductId(product.getId());
+        cartItem.setProductName(product.getName());
+        cartItem.setQuantity(quantity);
+        cartItem.setPrice(product.getPrice());
+        cartItem.setImageUrl(product.getImageUrl());
+        return cartItem;
+    }
+    
     @Override
     public BigDecimal getCartTotal(Long userId) {
-        List<CartItem> items = getCart(userId);
-        return items.stream()
-                .map(CartItem::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long totalMinor = cartTotalCache.computeIfAbsent(userId, id -> {
+            long total = 0;
+            for (CartItem item : getCart(id)) {
+                total += MoneyUtil.toMinorUnits(item.getPrice()) * item.getQuantity();
+            }
+            return total;
+        });
+        return MoneyUtil.fromMinorUnits(totalMinor);
+    }
+    
+    /**
+     * Drop cached cart contents and totals after a change
+     */
+    private void invalidateCart(Long userId) {
+        cartCache.remove(userId);
+        cartTotalCache.remove(userId);
     }
 }
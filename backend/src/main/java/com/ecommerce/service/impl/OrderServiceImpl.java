@@ -1,7 +1,10 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.async.HotSkuStockService;
 import com.ecommerce.dao.*;
-import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.exception.InvalidOrderStatusException;
+import com.ecommerce.exception.OrderNotFoundException;
+import com.ecommerce.exception.StockReservationException;
 import com.ecommerce.model.*;
 import com.ecommerce.service.IOrderService;
 import org.slf4j.Logger;
@@ -10,9 +13,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 /**
  * Order Service Implementation
@@ -35,10 +44,18 @@ public class OrderServiceImpl implements IOrderService {
     @Autowired
     private TransactionManager transactionManager;
     
+    @Autowired
+    private HotSkuStockService hotSkuStockService;
+    
+    /** Attempts of an order transaction that is rolled back to be rerun (SQLState 40001) */
+    private static final int ORDER_ATTEMPTS = 3;
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Override
     public Order createOrder(Long userId, String shippingAddress) {
-        // Execute order creation within transaction
-        return transactionManager.executeInTransaction(conn -> {
+        // Execute order creation within transaction; a hot-SKU fast path that lost its shard reruns it
+        return transactionManager.executeInTransaction(ORDER_ATTEMPTS, conn -> {
             try {
                 // Get cart items
                 List<CartItem> cartItems = cartDAO.findByUserId(userId);
@@ -46,6 +63,9 @@ public class OrderServiceImpl implements IOrderService {
                     throw new IllegalStateException("Cart is empty");
                 }
                 
+                // Reserve stock for all lines at once (throws with every short line)
+                reserveStock(conn, cartItems);
+                
                 // Create order
                 Order order = new Order(userId, shippingAddress);
                 List<OrderItem> orderItems = new ArrayList<>();
@@ -53,19 +73,6 @@ public class OrderServiceImpl implements IOrderService {
                 
                 // Process each cart item
                 for (CartItem cartItem : cartItems) {
-                    // Check and reduce stock
-                    boolean stockReduced = productDAO.reduceStock(
-                        cartItem.getProductId(), 
-                        cartItem.getQuantity()
-                    );
-                    
-                    if (!stockReduced) {
-                        Product product = productDAO.findById(cartItem.getProductId());
-                        int available = product != null ? product.getStockQuantity() : 0;
-                        throw new InsufficientStockException(
-                            cartItem.getProductName(), cartItem.getQuantity(), available);
-                    }
-                    
                     // Create order item
                     OrderItem orderItem = new OrderItem();
                     orderItem.setProductId(cartItem.getProductId());
@@ -89,13 +96,75 @@ public class OrderServiceImpl implements IOrderService {
                 logger.info("Order created successfully: {}", savedOrder.getId());
                 return savedOrder;
                 
+            } catch (SQLTransactionRollbackException e) {
+                // Rerun by executeInTransaction; not an error unless the attempts run out
+                throw new RuntimeException("Order creation rolled back: " + e.getMessage(), e);
             } catch (SQLException e) {
                 logger.error("Error creating order", e);
-                throw new RuntimeException("Order creation failed: " + e.getMessage());
+                throw new RuntimeException("Order creation failed: " + e.getMessage(), e);
             }
         });
     }
     
+    /**
+     * Reserve stock for every cart line within the order transaction
+     * Locks all product rows with one SELECT ... FOR UPDATE (in ID order to avoid
+     * deadlocks), validates in memory and applies a single batched decrement.
+     * Hot SKUs are reserved from their stock shards instead.
+     * 
+     * @param conn transactional connection
+     * @param cartItems cart lines to reserve
+     * @throws StockReservationException listing every line with insufficient stock
+     */
+    private void reserveStock(Connection conn, List<CartItem> cartItems) throws SQLException {
+        Map<Long, Integer> requested = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (CartItem cartItem : cartItems) {
+            requested.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+            names.put(cartItem.getProductId(), cartItem.getProductName());
+        }
+        
+        // Hot SKUs are reserved from their stock shards instead of the product row
+        Map<Long, Integer> hot = new TreeMap<>();
+        for (Long productId : requested.keySet()) {
+            if (hotSkuStockService.isHot(productId)) {
+                hot.put(productId, requested.get(productId));
+            }
+        }
+        requested.keySet().removeAll(hot.keySet());
+        
+        List<StockReservationException.Shortage> shortages = new ArrayList<>();
+        
+        if (!requested.isEmpty()) {
+            Map<Long, Integer> available = productDAO.lockStockForUpdate(conn, requested.keySet());
+            for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+                int stock = available.getOrDefault(entry.getKey(), 0);
+                if (stock < entry.getValue()) {
+                    shortages.add(new StockReservationException.Shortage(
+                        entry.getKey(), names.get(entry.getKey()), entry.getValue(), stock));
+                }
+            }
+        }
+        
+        for (Map.Entry<Long, Integer> entry : hot.entrySet()) {
+            if (!hotSkuStockService.reserve(conn, entry.getKey(), entry.getValue())) {
+                shortages.add(new StockReservationException.Shortage(
+                    entry.getKey(), names.get(entry.getKey()), entry.getValue(),
+                    hotSkuStockService.available(conn, entry.getKey())));
+            }
+        }
+        
+        if (!shortages.isEmpty()) {
+            logger.warn("Stock reservation failed for {} of {} lines", 
+                       shortages.size(), requested.size() + hot.size());
+            throw new StockReservationException(shortages);
+        }
+        
+        if (!requested.isEmpty()) {
+            productDAO.reduceStockBatch(conn, requested);
+        }
+    }
+    
     @Override
     public Order getOrderById(Long orderId) {
         try {
@@ -119,8 +188,23 @@ public class OrderServiceImpl implements IOrderService {
     @Override
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
         try {
-            orderDAO.updateStatus(orderId, status);
-            return orderDAO.findById(orderId);
+            // Versioned write so a concurrent payment update is not overwritten
+            return OptimisticRetry.execute(() -> transactionManager.executeInTransaction(conn -> {
+                Order order = orderDAO.findById(orderId);
+                if (order == null) {
+                    throw new OrderNotFoundException("Order not found with ID: " + orderId);
+                }
+                if (!order.getStatus().canMoveTo(status)) {
+                    throw new InvalidOrderStatusException(orderId, order.getStatus(), status);
+                }
+                boolean cancelling = status == OrderStatus.CANCELLED && holdsStock(order);
+                order.setStatus(status);
+                Order updated = orderDAO.update(order);
+                if (cancelling) {
+                    returnStock(order);
+                }
+                return updated;
+            }));
         } catch (SQLException e) {
             logger.error("Error updating order status", e);
             throw new RuntimeException("Failed to update order: " + e.getMessage());
@@ -130,8 +214,15 @@ public class OrderServiceImpl implements IOrderService {
     @Override
     public Order processPayment(Long orderId, String paymentId) {
         try {
-            orderDAO.updatePaymentStatus(orderId, paymentId, PaymentStatus.COMPLETED);
-            Order order = orderDAO.findById(orderId);
+            Order order = OptimisticRetry.execute(() -> {
+                Order current = orderDAO.findById(orderId);
+                if (current == null) {
+                    throw new OrderNotFoundException("Order not found with ID: " + orderId);
+                }
+                current.setPaymentId(paymentId);
+                current.setPaymentStatus(PaymentStatus.COMPLETED);
+                return orderDAO.update(current);
+            });
             logger.info("Payment processed for order: {}", orderId);
             return order;
         } catch (SQLException e) {
@@ -140,6 +231,70 @@ public class OrderServiceImpl implements IOrderService {
         }
     }
     
+    @Override
+    public Order failPayment(Long orderId, String paymentId) {
+        try {
+            Order order = OptimisticRetry.execute(() -> transactionManager.executeInTransaction(conn -> {
+                Order current = orderDAO.findById(orderId);
+                if (current == null) {
+                    throw new OrderNotFoundException("Order not found with ID: " + orderId);
+                }
+                if (current.getPaymentStatus() == PaymentStatus.COMPLETED) {
+                    throw new InvalidOrderStatusException("Order " + orderId + " is already paid");
+                }
+                if (!current.getStatus().canMoveTo(OrderStatus.CANCELLED)) {
+                    throw new InvalidOrderStatusException(orderId, current.getStatus(), OrderStatus.CANCELLED);
+                }
+                boolean cancelling = holdsStock(current);
+                current.setPaymentId(paymentId);
+                current.setPaymentStatus(PaymentStatus.FAILED);
+                current.setStatus(OrderStatus.CANCELLED);
+                Order updated = orderDAO.update(current);
+                if (cancelling) {
+                    returnStock(current);
+                }
+                return updated;
+            }));
+            logger.info("Payment failed for order {}, order cancelled", orderId);
+            return order;
+        } catch (SQLException e) {
+            logger.error("Error recording payment failure", e);
+            throw new RuntimeException("Failed to record payment failure: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Check whether an order still holds the stock reserved at checkout
+     * Shipped and delivered orders have left the warehouse; cancelled ones were already returned
+     */
+    private static boolean holdsStock(Order order) {
+        return order.getStatus() == OrderStatus.PENDING || order.getStatus() == OrderStatus.PROCESSING;
+    }
+    
+    /**
+     * Put the stock of an order's items back, within the caller's transaction
+     * Hot SKUs are restocked through their stock shards. Rows are locked in the order
+     * checkout locks them, product rows first and then shards, each by product ID.
+     */
+    private void returnStock(Order order) throws SQLException {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        Map<Long, Integer> hot = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (hotSkuStockService.isHot(entry.getKey())) {
+                hot.put(entry.getKey(), entry.getValue());
+            } else {
+                productDAO.increaseStock(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : hot.entrySet()) {
+            productDAO.increaseStock(entry.getKey(), entry.getValue());
+        }
+        logger.info("Stock of {} products returned for order {}", quantities.size(), order.getId());
+    }
+    
     @Override
     public List<Order> getAllOrders() {
         try {
@@ -149,4 +304,25 @@ public class OrderServiceImpl implements IOrderService {
             throw new RuntimeException("Failed to fetch orders: " + e.getMessage());
         }
     }
+    
+    @Override
+    public List<Order> getOrdersPage(int page, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        try {
+            return orderDAO.findPage(Math.max(page, 0) * limit, limit);
+        } catch (SQLException e) {
+            logger.error("Error fetching orders page", e);
+            throw new RuntimeException("Failed to fetch orders: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public Stream<Order> streamAllOrders() {
+        try {
+            return orderDAO.streamAllNewestFirst();
+        } catch (SQLException e) {
+            logger.error("Error streaming all orders", e);
+            throw new RuntimeException("Failed to fetch orders: " + e.getMessage());
+        }
+    }
 }
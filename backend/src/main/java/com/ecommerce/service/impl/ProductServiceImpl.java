@@ -1,9 +1,15 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.config.ReplicaRoutingContext;
+import com.ecommerce.dao.CatalogVersion;
 import com.ecommerce.dao.ProductDAO;
+import com.ecommerce.dao.SingleFlight;
+import com.ecommerce.dto.ProductBrowseRequest;
 import com.ecommerce.exception.ProductNotFoundException;
 import com.ecommerce.model.Product;
 import com.ecommerce.service.IProductService;
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.ProductFacetIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +23,11 @@ import java.util.stream.Collectors;
 /**
  * Product Service Implementation
  * Demonstrates Collections usage (List, Set, Map) and Java Streams
+ *
+ * Catalog reads are coalesced: identical lookups running at the same time share one
+ * DAO call. Flights are keyed by catalog version, so a read that starts after a
+ * product write never joins a query that started before it.
+ * Filtered browsing is answered from the in-memory {@link ProductFacetIndex}.
  */
 @Service
 public class ProductServiceImpl implements IProductService {
@@ -26,6 +37,17 @@ public class ProductServiceImpl implements IProductService {
     @Autowired
     private ProductDAO productDAO;
     
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Autowired
+    private ProductFacetIndex facetIndex;
+    
+    private final SingleFlight catalogReads = new SingleFlight();
+    
     @Override
     public Product createProduct(Product product) {
         try {
@@ -47,7 +69,10 @@ public class ProductServiceImpl implements IProductService {
             }
             
             product.setId(id);
+            // A client-supplied version makes the update compare-and-set; a conflict is reported
+            // as 409 rather than retried, since the client's edit was based on stale data
             Product updated = productDAO.update(product);
+            productCache.evict(id);
             logger.info("Product updated: {}", id);
             return updated;
         } catch (SQLException e) {
@@ -63,6 +88,7 @@ public class ProductServiceImpl implements IProductService {
             if (!deleted) {
                 throw new ProductNotFoundException("Product not found with ID: " + id);
             }
+            productCache.evict(id);
             logger.info("Product deleted: {}", id);
         } catch (SQLException e) {
             logger.error("Error deleting product", e);
@@ -73,7 +99,7 @@ public class ProductServiceImpl implements IProductService {
     @Override
     public Product getProductById(Long id) {
         try {
-            Product product = productDAO.findById(id);
+            Product product = catalogReads.execute(flightKey("product", id), () -> productDAO.findById(id));
             if (product == null) {
                 throw new ProductNotFoundException("Product not found with ID: " + id);
             }
@@ -88,7 +114,7 @@ public class ProductServiceImpl implements IProductService {
     public List<Product> getAllProducts() {
         try {
             // Demonstrates List usage
-            List<Product> products = productDAO.findAll();
+            List<Product> products = catalogReads.execute(flightKey("all", null), productDAO::findAll);
             logger.info("Fetched {} products", products.size());
             return products;
         } catch (SQLException e) {
@@ -121,7 +147,8 @@ public class ProductServiceImpl implements IProductService {
     @Override
     public List<Product> getProductsByCategory(String category) {
         try {
-            List<Product> products = productDAO.findByCategory(category);
+            List<Product> products = catalogReads.execute(flightKey("category", category),
+                    () -> productDAO.findByCategory(category));
             logger.info("Fetched {} products in category: {}", products.size(), category);
             return products;
         } catch (SQLException e) {
@@ -152,7 +179,7 @@ public class ProductServiceImpl implements IProductService {
     public Set<String> getAllCategories() {
         try {
             // Demonstrates Set usage for unique values
-            Set<String> categories = productDAO.getAllCategories();
+            Set<String> categories = catalogReads.execute(flightKey("categories", null), productDAO::getAllCategories);
             logger.info("Fetched {} unique categories", categories.size());
             return categories;
         } catch (SQLException e) {
@@ -162,22 +189,32 @@ public class ProductServiceImpl implements IProductService {
     }
     
     /**
-     * Filter products by multiple criteria using Streams
-     * Demonstrates advanced Collections and Stream usage
+     * Key of a coalesced catalog read at the current catalog version
+     * Reads pinned to the primary (snapshot rebuilds) never join a replica read
+     */
+    private String flightKey(String query, Object argument) {
+        return catalogVersion.current() + (ReplicaRoutingContext.isPinnedToPrimary() ? ":primary:" : ":")
+                + query + ":" + argument;
+    }
+    
+    @Override
+    public Map<String, Object> browseProducts(ProductBrowseRequest request) {
+        try {
+            return facetIndex.browse(request);
+        } catch (SQLException e) {
+            logger.error("Error browsing products", e);
+            throw new RuntimeException("Failed to browse products: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Filter products by multiple criteria
+     * Answered from the facet index posting lists rather than a full table read
      */
     public List<Product> filterProducts(String category, BigDecimal minPrice, 
                                        BigDecimal maxPrice, Boolean inStockOnly) {
         try {
-            List<Product> products = productDAO.findAll();
-            
-            // Use Stream API for filtering
-            return products.stream()
-                    .filter(p -> category == null || category.equals(p.getCategory()))
-                    .filter(p -> minPrice == null || p.getPrice().compareTo(minPrice) >= 0)
-                    .filter(p -> maxPrice == null || p.getPrice().compareTo(maxPrice) <= 0)
-                    .filter(p -> !Boolean.TRUE.equals(inStockOnly) || p.isInStock())
-                    .collect(Collectors.toList());
-                    
+            return facetIndex.filter(category, minPrice, maxPrice, inStockOnly);
         } catch (SQLException e) {
             logger.error("Error filtering products", e);
             throw new RuntimeException("Failed to filter products: " + e.getMessage());
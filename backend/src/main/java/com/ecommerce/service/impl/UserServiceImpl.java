@@ -2,6 +2,7 @@ package com.ecommerce.service.impl;
 
 import com.ecommerce.dao.UserDAO;
 import com.ecommerce.dto.*;
+import com.ecommerce.exception.UnauthorizedException;
 import com.ecommerce.exception.UserNotFoundException;
 import com.ecommerce.model.Customer;
 import com.ecommerce.model.User;
@@ -157,6 +158,21 @@ public class UserServiceImpl implements IUserService {
         }
     }
     
+    @Override
+    public Long getUserIdByEmail(String email) {
+        try {
+            Long userId = userDAO.findIdByEmail(email);
+            if (userId == null) {
+                // A valid token for a deleted account
+                throw new UnauthorizedException("No user for the authenticated email");
+            }
+            return userId;
+        } catch (SQLException e) {
+            logger.error("Error resolving user by email", e);
+            throw new RuntimeException("Failed to resolve user: " + e.getMessage());
+        }
+    }
+    
     /**
      * Convert User entity to UserDTO
      * Demonstrates encapsulation - hides password and internal details
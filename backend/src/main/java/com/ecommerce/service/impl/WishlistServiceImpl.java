@@ -0,0 +1,74 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.async.WishlistNotificationService;
+import com.ecommerce.dao.WishlistDAO;
+import com.ecommerce.exception.ProductNotFoundException;
+import com.ecommerce.model.Wishlist;
+import com.ecommerce.service.IWishlistService;
+import com.ecommerce.service.ProductCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Wishlist Service Implementation
+ * Reads the wishlist and its products in one query, and keeps the notifier's
+ * watcher index in step with adds and removes
+ */
+@Service
+public class WishlistServiceImpl implements IWishlistService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WishlistServiceImpl.class);
+    
+    @Autowired
+    private WishlistDAO wishlistDAO;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private WishlistNotificationService notificationService;
+    
+    @Override
+    public List<Wishlist> getWishlist(Long userId) {
+        try {
+            return wishlistDAO.findWithProductsByUserId(userId);
+        } catch (SQLException e) {
+            logger.error("Error fetching wishlist", e);
+            throw new RuntimeException("Failed to fetch wishlist: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public boolean addToWishlist(Long userId, Long productId) {
+        try {
+            if (productCache.get(productId) == null) {
+                throw new ProductNotFoundException("Product not found with ID: " + productId);
+            }
+            boolean added = wishlistDAO.addIfAbsent(userId, productId);
+            notificationService.watch(userId, productId);
+            logger.info("Product {} added to wishlist of user {}", productId, userId);
+            return added;
+        } catch (SQLException e) {
+            logger.error("Error adding to wishlist", e);
+            throw new RuntimeException("Failed to add to wishlist: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public boolean removeFromWishlist(Long userId, Long productId) {
+        try {
+            boolean removed = wishlistDAO.deleteByUserAndProduct(userId, productId);
+            notificationService.unwatch(userId, productId);
+            logger.info("Product {} removed from wishlist of user {}", productId, userId);
+            return removed;
+        } catch (SQLException e) {
+            logger.error("Error removing from wishlist", e);
+            throw new RuntimeException("Failed to remove from wishlist: " + e.getMessage());
+        }
+    }
+}
@@ -3,34 +3,47 @@ package com.ecommerce.servlet;
 import com.ecommerce.dao.ProductDAO;
 import com.ecommerce.model.CartItem;
 import com.ecommerce.model.Product;
-import com.ecommerce.service.ShoppingCart;
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.SessionCart;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import jakarta.servlet.annotation.WebServlet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * Cart Servlet
  * Demonstrates session management and cart operations
  * Uses HttpSession to maintain shopping cart state
+ * 
+ * The session only holds a compact {@link SessionCart} of product ID / quantity
+ * pairs; display fields are hydrated from {@link ProductCache} when rendering.
  */
 @Component
 @WebServlet(name = "CartServlet", urlPatterns = {"/cart"})
 public class CartServlet extends HttpServlet {
     
+    private static final Logger logger = LoggerFactory.getLogger(CartServlet.class);
+    
+    /** Session attribute holding the {@link SessionCart} */
+    public static final String CART_ATTRIBUTE = "cart";
+    
     @Autowired
     private ProductDAO productDAO;
     
+    @Autowired
+    private ProductCache productCache;
+    
     @Override
     public void init() throws ServletException {
         super.init();
-        System.out.println("CartServlet initialized");
+        logger.info("CartServlet initialized");
     }
     
     /**
@@ -103,42 +116,30 @@ public class CartServlet extends HttpServlet {
             // Get or create session
             HttpSession session = request.getSession(true);
             
-            // Get cart from session (using Map for demonstration)
-            @SuppressWarnings("unchecked")
-            Map<Long, CartItem> cart = (Map<Long, CartItem>) session.getAttribute("cart");
+            // Get compact cart from session
+            SessionCart cart = (SessionCart) session.getAttribute(CART_ATTRIBUTE);
             
             if (cart == null) {
-                cart = new HashMap<>();
+                cart = new SessionCart();
+            }
+            
+            // Check if new quantity exceeds stock
+            int newQuantity = cart.getQuantity(productId) + quantity;
+            if (newQuantity > product.getStockQuantity()) {
+                response.sendRedirect(request.getContextPath() + 
+                    "/products?error=exceeds_stock&id=" + productId);
+                return;
             }
             
             // Add or update item in cart
-            if (cart.containsKey(productId)) {
-                CartItem existingItem = cart.get(productId);
-                int newQuantity = existingItem.getQuantity() + quantity;
-                
-                // Check if new quantity exceeds stock
-                if (newQuantity > product.getStockQuantity()) {
-                    response.sendRedirect(request.getContextPath() + 
-                        "/products?error=exceeds_stock&id=" + productId);
-                    return;
-                }
-                
-                existingItem.setQuantity(newQuantity);
-                System.out.println("Updated cart item: " + product.getName() + " x " + newQuantity);
-            } else {
-                CartItem newItem = new CartItem(
-                    productId,
-                    product.getName(),
-                    product.getPrice(),
-                    quantity,
-                    product.getImageUrl()
-                );
-                cart.put(productId, newItem);
-                System.out.println("Added to cart: " + product.getName() + " x " + quantity);
+            if (cart.add(productId, quantity) < 0) {
+                response.sendRedirect(request.getContextPath() + "/cart?error=cart_full");
+                return;
             }
+            logger.debug("Added to cart: {} x {}", product.getName(), newQuantity);
             
-            // Store cart in session
-            session.setAttribute("cart", cart);
+            // Store cart in session (re-set so replicated sessions see the change)
+            session.setAttribute(CART_ATTRIBUTE, cart);
             
             // Redirect to cart page
             response.sendRedirect(request.getContextPath() + "/cart?added=true");
@@ -160,19 +161,20 @@ public class CartServlet extends HttpServlet {
         HttpSession session = request.getSession(false);
         
         if (session != null) {
-            @SuppressWarnings("unchecked")
-            Map<Long, CartItem> cart = (Map<Long, CartItem>) session.getAttribute("cart");
+            SessionCart cart = (SessionCart) session.getAttribute(CART_ATTRIBUTE);
             
             if (cart != null && !cart.isEmpty()) {
-                request.setAttribute("cart", cart.values());
-                
-                // Calculate total
-                java.math.BigDecimal total = cart.values().stream()
-                    .map(CartItem::getTotal)
-                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
+                // Hydrate display fields from the product cache
+                List<CartItem> items;
+                try {
+                    items = cart.hydrate(productCache.getAll(cart.getProductIds()));
+                } catch (SQLException e) {
+                    throw new ServletException("Database error", e);
+                }
                 
-                request.setAttribute("cartTotal", total);
-                request.setAttribute("itemCount", cart.size());
+                request.setAttribute("cart", items);
+                request.setAttribute("cartTotal", SessionCart.total(items));
+                request.setAttribute("itemCount", items.size());
             }
         }
         
@@ -192,15 +194,13 @@ public class CartServlet extends HttpServlet {
             
             HttpSession session = request.getSession(false);
             if (session != null) {
-                @SuppressWarnings("unchecked")
-                Map<Long, CartItem> cart = (Map<Long, CartItem>) session.getAttribute("cart");
+                SessionCart cart = (SessionCart) session.getAttribute(CART_ATTRIBUTE);
                 
                 if (cart != null) {
-                    CartItem removed = cart.remove(productId);
-                    if (removed != null) {
-                        System.out.println("Removed from cart: " + removed.getProductName());
+                    if (cart.remove(productId)) {
+                        logger.debug("Removed from cart: product {}", productId);
                     }
-                    session.setAttribute("cart", cart);
+                    session.setAttribute(CART_ATTRIBUTE, cart);
                 }
             }
             
@@ -219,27 +219,21 @@ public class CartServlet extends HttpServlet {
         
         HttpSession session = request.getSession(false);
         if (session != null) {
-            @SuppressWarnings("unchecked")
-            Map<Long, CartItem> cart = (Map<Long, CartItem>) session.getAttribute("cart");
+            SessionCart cart = (SessionCart) session.getAttribute(CART_ATTRIBUTE);
             
             if (cart != null) {
-                // Update quantities for all items
-                for (Long productId : cart.keySet()) {
+                // Update quantities for all items (non-positive quantities remove the line)
+                for (Long productId : cart.getProductIds()) {
                     String qtyParam = request.getParameter("qty_" + productId);
                     if (qtyParam != null) {
                         try {
-                            int newQty = Integer.parseInt(qtyParam);
-                            if (newQty > 0) {
-                                cart.get(productId).setQuantity(newQty);
-                            } else {
-                                cart.remove(productId);
-                            }
+                            cart.setQuantity(productId, Integer.parseInt(qtyParam));
                         } catch (NumberFormatException e) {
                             // Skip invalid quantities
                         }
                     }
                 }
-                session.setAttribute("cart", cart);
+                session.setAttribute(CART_ATTRIBUTE, cart);
             }
         }
         
@@ -255,8 +249,8 @@ public class CartServlet extends HttpServlet {
         
         HttpSession session = request.getSession(false);
         if (session != null) {
-            session.removeAttribute("cart");
-            System.out.println("Cart cleared for session: " + session.getId());
+            session.removeAttribute(CART_ATTRIBUTE);
+            logger.debug("Cart cleared for session: {}", session.getId());
         }
         
         response.sendRedirect(request.getContextPath() + "/cart?cleared=true");
@@ -264,7 +258,7 @@ public class CartServlet extends HttpServlet {
     
     @Override
     public void destroy() {
-        System.out.println("CartServlet destroyed");
+        logger.info("CartServlet destroyed");
         super.destroy();
     }
 }
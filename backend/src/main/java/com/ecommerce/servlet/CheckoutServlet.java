@@ -4,14 +4,20 @@ import com.ecommerce.model.CartItem;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.User;
 import com.ecommerce.payment.*;
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.SessionCart;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import jakarta.servlet.annotation.WebServlet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.Map;
+import java.sql.SQLException;
+import java.util.List;
 
 /**
  * Checkout Servlet
@@ -22,10 +28,15 @@ import java.util.Map;
 @WebServlet(name = "CheckoutServlet", urlPatterns = {"/checkout"})
 public class CheckoutServlet extends HttpServlet {
     
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutServlet.class);
+    
+    @Autowired
+    private ProductCache productCache;
+    
     @Override
     public void init() throws ServletException {
         super.init();
-        System.out.println("CheckoutServlet initialized");
+        logger.info("CheckoutServlet initialized");
     }
     
     /**
@@ -43,21 +54,19 @@ public class CheckoutServlet extends HttpServlet {
         }
         
         // Check if cart is empty
-        @SuppressWarnings("unchecked")
-        Map<Long, CartItem> cart = (Map<Long, CartItem>) session.getAttribute("cart");
+        SessionCart cart = (SessionCart) session.getAttribute(CartServlet.CART_ATTRIBUTE);
         
         if (cart == null || cart.isEmpty()) {
             response.sendRedirect(request.getContextPath() + "/cart?error=empty");
             return;
         }
         
-        // Calculate total
-        BigDecimal total = cart.values().stream()
-            .map(CartItem::getTotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Hydrate items and calculate total
+        List<CartItem> items = hydrate(cart);
+        BigDecimal total = SessionCart.total(items);
         
         request.setAttribute("cartTotal", total);
-        request.setAttribute("cartItems", cart.values());
+        request.setAttribute("cartItems", items);
         
         // Forward to checkout page
         RequestDispatcher dispatcher = request.getRequestDispatcher("/WEB-INF/views/checkout.jsp");
@@ -79,8 +88,7 @@ public class CheckoutServlet extends HttpServlet {
         }
         
         // Get cart from session
-        @SuppressWarnings("unchecked")
-        Map<Long, CartItem> cart = (Map<Long, CartItem>) session.getAttribute("cart");
+        SessionCart cart = (SessionCart) session.getAttribute(CartServlet.CART_ATTRIBUTE);
         
         if (cart == null || cart.isEmpty()) {
             response.sendRedirect(request.getContextPath() + "/cart?error=empty");
@@ -91,10 +99,9 @@ public class CheckoutServlet extends HttpServlet {
         String paymentMethod = request.getParameter("paymentMethod");
         String shippingAddress = request.getParameter("shippingAddress");
         
-        // Calculate total
-        BigDecimal total = cart.values().stream()
-            .map(CartItem::getTotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Hydrate items and calculate total
+        List<CartItem> items = hydrate(cart);
+        BigDecimal total = SessionCart.total(items);
         
         // Create payment strategy based on method (Polymorphism)
         PaymentStrategy paymentStrategy = createPaymentStrategy(request, paymentMethod);
@@ -124,9 +131,9 @@ public class CheckoutServlet extends HttpServlet {
             session.setAttribute("lastOrder", order);
             
             // Clear cart after successful order
-            session.removeAttribute("cart");
+            session.removeAttribute(CartServlet.CART_ATTRIBUTE);
             
-            System.out.println("Order placed successfully for user: " + user.getEmail());
+            logger.info("Order placed successfully for user: {}", user.getEmail());
             
             // Redirect to order confirmation
             response.sendRedirect(request.getContextPath() + "/order-confirmation");
@@ -135,13 +142,24 @@ public class CheckoutServlet extends HttpServlet {
             // Payment failed
             request.setAttribute("error", "Payment failed: " + paymentStrategy.getStatusMessage());
             request.setAttribute("cartTotal", total);
-            request.setAttribute("cartItems", cart.values());
+            request.setAttribute("cartItems", items);
             
             RequestDispatcher dispatcher = request.getRequestDispatcher("/WEB-INF/views/checkout.jsp");
             dispatcher.forward(request, response);
         }
     }
     
+    /**
+     * Hydrate session cart lines with current product data
+     */
+    private List<CartItem> hydrate(SessionCart cart) throws ServletException {
+        try {
+            return cart.hydrate(productCache.getAll(cart.getProductIds()));
+        } catch (SQLException e) {
+            throw new ServletException("Database error", e);
+        }
+    }
+    
     /**
      * Create payment strategy based on payment method
      * Demonstrates Factory pattern and polymorphism
@@ -176,7 +194,7 @@ public class CheckoutServlet extends HttpServlet {
     
     @Override
     public void destroy() {
-        System.out.println("CheckoutServlet destroyed");
+        logger.info("CheckoutServlet destroyed");
         super.destroy();
     }
 }
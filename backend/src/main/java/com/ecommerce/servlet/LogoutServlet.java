@@ -3,6 +3,8 @@ package com.ecommerce.servlet;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import jakarta.servlet.annotation.WebServlet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -16,10 +18,12 @@ import java.io.IOException;
 @WebServlet(name = "LogoutServlet", urlPatterns = {"/logout"})
 public class LogoutServlet extends HttpServlet {
     
+    private static final Logger logger = LoggerFactory.getLogger(LogoutServlet.class);
+    
     @Override
     public void init() throws ServletException {
         super.init();
-        System.out.println("LogoutServlet initialized");
+        logger.info("LogoutServlet initialized");
     }
     
     /**
@@ -39,12 +43,12 @@ public class LogoutServlet extends HttpServlet {
             String userId = String.valueOf(session.getAttribute("userId"));
             
             // Log logout
-            System.out.println("User logging out: " + userEmail + " (ID: " + userId + ")");
+            logger.info("User logging out: {} (ID: {})", userEmail, userId);
             
             // Invalidate session (removes all attributes)
             session.invalidate();
             
-            System.out.println("Session invalidated for user: " + userEmail);
+            logger.debug("Session invalidated for user: {}", userEmail);
         }
         
         // Redirect to login page with logout message
@@ -62,7 +66,7 @@ public class LogoutServlet extends HttpServlet {
     
     @Override
     public void destroy() {
-        System.out.println("LogoutServlet destroyed");
+        logger.info("LogoutServlet destroyed");
         super.destroy();
     }
 }
@@ -2,6 +2,7 @@ package com.ecommerce.servlet;
 
 import com.ecommerce.dao.ProductDAO;
 import com.ecommerce.model.Product;
+import com.ecommerce.service.ProductImportService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.annotation.WebServlet;
@@ -9,6 +10,7 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.Part;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,11 +19,15 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 /**
  * Product Upload Servlet
  * Demonstrates HttpServlet with form handling and session validation
  * Handles product creation through servlet interface
+ * A file submitted with the form is bulk-imported in the background (see {@link ProductImportService})
  */
 @Component
 @WebServlet(name = "ProductUploadServlet", urlPatterns = "/admin/product-upload")
@@ -33,6 +39,9 @@ public class ProductUploadServlet extends HttpServlet {
     @Autowired
     private ProductDAO productDAO;
     
+    @Autowired
+    private ProductImportService productImportService;
+    
     /**
      * doGet - Display product upload form
      */
@@ -81,6 +90,17 @@ public class ProductUploadServlet extends HttpServlet {
             out.println("<p class='error'>Error uploading product. Please try again.</p>");
         }
         
+        String importJob = request.getParameter("import");
+        if (importJob != null) {
+            Map<String, Object> progress = productImportService.getProgress(importJob);
+            if (progress != null) {
+                out.println("<p class='success'>Import " + progress.get("status") + ": "
+                        + progress.get("rowsRead") + " rows read, " + progress.get("inserted") + " inserted, "
+                        + progress.get("updated") + " updated, " + progress.get("rejected") + " rejected. "
+                        + "Details: /api/admin/import/products/" + progress.get("jobId") + "</p>");
+            }
+        }
+        
         out.println("<form method='post' action='/admin/product-upload' enctype='multipart/form-data'>");
         out.println("<label>Product Name:</label>");
         out.println("<input type='text' name='name' required>");
@@ -108,6 +128,13 @@ public class ProductUploadServlet extends HttpServlet {
         
         out.println("<button type='submit'>Upload Product</button>");
         out.println("</form>");
+        
+        out.println("<h2>Bulk Import</h2>");
+        out.println("<form method='post' action='/admin/product-upload' enctype='multipart/form-data'>");
+        out.println("<label>CSV or JSON file:</label>");
+        out.println("<input type='file' name='file' accept='.csv,.json' required>");
+        out.println("<button type='submit'>Import Products</button>");
+        out.println("</form>");
         out.println("</div>");
         out.println("</body>");
         out.println("</html>");
@@ -128,6 +155,16 @@ public class ProductUploadServlet extends HttpServlet {
         }
         
         try {
+            // Bulk import: spool the file and show the job's progress
+            Part file = request.getPart("file");
+            if (file != null && file.getSize() > 0) {
+                Map<String, Object> job = productImportService.startImport(
+                        file.getInputStream(), file.getSubmittedFileName(), file.getContentType());
+                response.sendRedirect("/admin/product-upload?import="
+                        + URLEncoder.encode(job.get("jobId").toString(), StandardCharsets.UTF_8));
+                return;
+            }
+            
             // Parse form data
             String name = request.getParameter("name");
             String description = request.getParameter("description");
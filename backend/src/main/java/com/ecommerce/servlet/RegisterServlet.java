@@ -6,6 +6,8 @@ import com.ecommerce.model.UserRole;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import jakarta.servlet.annotation.WebServlet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -22,6 +24,8 @@ import java.sql.SQLException;
 @WebServlet(name = "RegisterServlet", urlPatterns = {"/register"})
 public class RegisterServlet extends HttpServlet {
     
+    private static final Logger logger = LoggerFactory.getLogger(RegisterServlet.class);
+    
     @Autowired
     private UserDAO userDAO;
     
@@ -34,7 +38,7 @@ public class RegisterServlet extends HttpServlet {
     @Override
     public void init() throws ServletException {
         super.init();
-        System.out.println("RegisterServlet initialized");
+        logger.info("RegisterServlet initialized");
     }
     
     /**
@@ -134,13 +138,13 @@ public class RegisterServlet extends HttpServlet {
             // Save to database
             userDAO.save(customer);
             
-            System.out.println("New user registered: " + email);
+            logger.info("New user registered: {}", email);
             
             // Redirect to login page with success message
             response.sendRedirect(request.getContextPath() + "/login?registered=true");
             
         } catch (SQLException e) {
-            System.err.println("Registration failed: " + e.getMessage());
+            logger.error("Registration failed: {}", e.getMessage());
             request.setAttribute("error", "Registration failed. Please try again.");
             RequestDispatcher dispatcher = request.getRequestDispatcher("/WEB-INF/views/register.jsp");
             dispatcher.forward(request, response);
@@ -152,7 +156,7 @@ public class RegisterServlet extends HttpServlet {
      */
     @Override
     public void destroy() {
-        System.out.println("RegisterServlet destroyed");
+        logger.info("RegisterServlet destroyed");
         super.destroy();
     }
 }
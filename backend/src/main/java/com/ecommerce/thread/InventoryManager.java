@@ -1,6 +1,8 @@
 package com.ecommerce.thread;
 
 import com.ecommerce.exception.InsufficientStockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -14,6 +16,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class InventoryManager {
     
+    private static final Logger logger = LoggerFactory.getLogger(InventoryManager.class);
+    
     // Thread-safe map for stock quantities
     // Demonstrates ConcurrentHashMap
     private ConcurrentHashMap<Long, Integer> stockMap;
@@ -47,7 +51,7 @@ public class InventoryManager {
      */
     public void initializeStock(Long productId, int quantity) {
         stockMap.put(productId, quantity);
-        System.out.println("Initialized stock for product " + productId + ": " + quantity);
+        logger.debug("Initialized stock for product {}: {}", productId, quantity);
     }
     
     /**
@@ -77,9 +81,7 @@ public class InventoryManager {
         stockMap.put(productId, newStock);
         totalReductions++;
         
-        System.out.println("[SYNC] Stock reduced for product " + productId + 
-                          ": " + currentStock + " -> " + newStock + 
-                          " (Thread: " + Thread.currentThread().getName() + ")");
+        logger.debug("[SYNC] Stock reduced for product {}: {} -> {}", productId, currentStock, newStock);
         
         return true;
     }
@@ -100,9 +102,7 @@ public class InventoryManager {
             stockMap.put(productId, newStock);
             totalIncreases++;
             
-            System.out.println("[LOCK] Stock increased for product " + productId + 
-                              ": " + currentStock + " -> " + newStock +
-                              " (Thread: " + Thread.currentThread().getName() + ")");
+            logger.debug("[LOCK] Stock increased for product {}: {} -> {}", productId, currentStock, newStock);
             
             return true;
         } finally {
@@ -137,9 +137,7 @@ public class InventoryManager {
         rwLock.writeLock().lock(); // Exclusive access for writing
         try {
             Integer oldStock = stockMap.put(productId, newQuantity);
-            System.out.println("[RWLOCK] Stock updated for product " + productId + 
-                              ": " + oldStock + " -> " + newQuantity +
-                              " (Thread: " + Thread.currentThread().getName() + ")");
+            logger.debug("[RWLOCK] Stock updated for product {}: {} -> {}", productId, oldStock, newQuantity);
         } finally {
             rwLock.writeLock().unlock();
         }
@@ -169,7 +167,7 @@ public class InventoryManager {
         try {
             return reduceStock(productId, quantity);
         } catch (InsufficientStockException e) {
-            System.err.println("Cannot reserve stock: " + e.getMessage());
+            logger.warn("Cannot reserve stock: {}", e.getMessage());
             return false;
         }
     }
@@ -182,7 +180,7 @@ public class InventoryManager {
      */
     public void releaseStock(Long productId, int quantity) {
         increaseStock(productId, quantity);
-        System.out.println("Released reserved stock for product " + productId + ": " + quantity);
+        logger.debug("Released reserved stock for product {}: {}", productId, quantity);
     }
     
     /**
@@ -220,7 +218,7 @@ public class InventoryManager {
             stockMap.clear();
             totalReductions = 0;
             totalIncreases = 0;
-            System.out.println("Inventory cleared");
+            logger.debug("Inventory cleared");
         } finally {
             lock.unlock();
         }
@@ -0,0 +1,76 @@
+package com.ecommerce.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes large JSON arrays element by element through a JsonGenerator
+ * Elements are serialized as they are read from the database, so neither the
+ * full list nor the full JSON document is held in memory
+ *
+ * Uses the application's ObjectMapper, so output matches regular responses.
+ */
+@Component
+public class JsonStreamWriter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Flushing after every element would push each one through compression and onto the socket
+    private ObjectWriter elementWriter;
+
+    @PostConstruct
+    public void init() {
+        elementWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write a stream as a JSON array response body
+     * The caller closes the stream. If reading or serializing fails part way, the array is
+     * left unterminated and the exception is rethrown: a body that has already been sent
+     * is then invalid JSON rather than a shorter list that looks complete, and one that
+     * has not is discarded so the error handler can answer instead.
+     *
+     * @param response response to write to
+     * @param elements elements to write
+     * @return number of elements written
+     * @throws IOException if writing fails
+     */
+    public long writeArray(HttpServletResponse response, Stream<?> elements) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(response.getOutputStream(), JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        try {
+            generator.writeStartArray();
+            Iterator<?> it = elements.iterator();
+            while (it.hasNext()) {
+                elementWriter.writeValue(generator, it.next());
+                count++;
+            }
+            generator.writeEndArray();
+        } catch (IOException | RuntimeException e) {
+            // Not closed: closing would flush the partial array after the reset
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
+        generator.close();
+        return count;
+    }
+}
@@ -2,6 +2,7 @@ package com.ecommerce.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -21,6 +22,26 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
     
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey key;
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser()
+                .setSigningKey(key)
+                .build();
+    }
+    
+    /**
+     * Sign and verify a throwaway token so the HMAC provider and JSON
+     * serializers are loaded before the first login
+     */
+    public void warmUp() {
+        validateToken(generateToken("warmup@localhost", "NONE"));
+    }
+    
     /**
      * Generate JWT token for user
      */
@@ -28,8 +49,6 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
         return Jwts.builder()
                 .setSubject(email)
                 .claim("role", role)
@@ -43,27 +62,42 @@ public class JwtTokenProvider {
      * Get email from JWT token
      */
     public String getEmailFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        Claims claims = Jwts.parser()
-                .setSigningKey(key)
-                .build()
+        Claims claims = parser
                 .parseClaimsJws(token)
                 .getBody();
         
         return claims.getSubject();
     }
     
+    /**
+     * Validate a token and get its email in one parse
+     * 
+     * @return email, or null if the token is invalid or expired
+     */
+    public String getEmailIfValid(String token) {
+        Claims claims = getClaimsIfValid(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+    
+    /**
+     * Validate a token and get its claims (email as subject, role) in one parse
+     * 
+     * @return claims, or null if the token is invalid or expired
+     */
+    public Claims getClaimsIfValid(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
     /**
      * Validate JWT token
      */
     public boolean validateToken(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Jwts.parser()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,40 @@
+package com.ecommerce.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for money arithmetic in minor units (paise/cents)
+ * Prices are stored as DECIMAL(10, 2), so two fraction digits are used throughout
+ */
+public class MoneyUtil {
+
+    /** Number of fraction digits in a price */
+    public static final int SCALE = 2;
+
+    private MoneyUtil() {
+    }
+
+    /**
+     * Convert a decimal amount to minor units
+     *
+     * @param amount amount, e.g. 19.99
+     * @return amount in minor units, e.g. 1999
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convert minor units back to a decimal amount
+     *
+     * @param minorUnits amount in minor units
+     * @return decimal amount with two fraction digits
+     */
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
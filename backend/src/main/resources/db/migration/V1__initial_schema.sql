@@ -1,14 +1,6 @@
 -- E-Commerce Platform Database Schema
 
--- Drop tables if they exist (for clean setup)
-DROP TABLE IF EXISTS wishlist;
-DROP TABLE IF EXISTS order_items;
-DROP TABLE IF EXISTS orders;
-DROP TABLE IF EXISTS cart_items;
-DROP TABLE IF EXISTS products;
-DROP TABLE IF EXISTS admins;
-DROP TABLE IF EXISTS customers;
-DROP TABLE IF EXISTS users;
+-- Applied once by SchemaMigrator; later changes go into new V<n>__*.sql scripts
 
 -- Users table (base table for inheritance)
 CREATE TABLE users (
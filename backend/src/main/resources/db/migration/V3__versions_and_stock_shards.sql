@@ -0,0 +1,15 @@
+-- Optimistic version columns and hot-SKU stock shards
+
+-- Version counters for compare-and-set updates
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER image_url;
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER shipping_address;
+
+-- Product Stock Shards table (stock split over several rows for hot SKUs)
+-- IF NOT EXISTS: interim bootstraps created it before the version columns
+CREATE TABLE IF NOT EXISTS product_stock_shards (
+    product_id BIGINT NOT NULL,
+    shard_no INT NOT NULL,
+    quantity INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, shard_no),
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,143 @@
+package com.ecommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the rate limiter's token-bucket arithmetic and bucket sweep
+ * Drives the buckets with a synthetic clock: 10 requests per second, burst of 3
+ */
+class RateLimitFilterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private RateLimitFilter.Limit limit;
+    private long t0;
+
+    @BeforeEach
+    void setUp() {
+        limit = new RateLimitFilter.Limit("test", new MockEnvironment(), 10, 3, 1);
+        t0 = System.nanoTime();
+    }
+
+    /**
+     * Test that a fresh client gets the burst at once and then waits one interval
+     */
+    @Test
+    void testBurst() {
+        RateLimitFilter.Bucket bucket = limit.bucketFor("client", t0);
+        assertEquals(0, bucket.tryAcquire(t0));
+        assertEquals(0, bucket.tryAcquire(t0));
+        assertEquals(0, bucket.tryAcquire(t0));
+        assertEquals(INTERVAL, bucket.tryAcquire(t0));
+        assertEquals(INTERVAL - 40, bucket.tryAcquire(t0 + 40));
+    }
+
+    /**
+     * Test that a rejected request does not use up a token
+     */
+    @Test
+    void testRejectionLeavesBucketAlone() {
+        RateLimitFilter.Bucket bucket = drained(t0);
+        assertTrue(bucket.tryAcquire(t0) > 0);
+        assertTrue(bucket.tryAcquire(t0) > 0);
+        assertEquals(0, bucket.tryAcquire(t0 + INTERVAL));
+    }
+
+    /**
+     * Test that one token comes back per interval and the burst after a full refill
+     */
+    @Test
+    void testRefill() {
+        RateLimitFilter.Bucket bucket = drained(t0);
+        assertEquals(1, bucket.tryAcquire(t0 + INTERVAL - 1));
+        assertEquals(0, bucket.tryAcquire(t0 + INTERVAL));
+        assertEquals(INTERVAL, bucket.tryAcquire(t0 + INTERVAL));
+
+        long later = t0 + 10 * INTERVAL;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+    }
+
+    /**
+     * Test that a bucket is full only once all of its burst has come back
+     */
+    @Test
+    void testIsFullAfterRefill() {
+        RateLimitFilter.Bucket bucket = limit.bucketFor("client", t0);
+        assertTrue(bucket.isFull(t0));
+
+        drain(bucket, t0);
+        assertFalse(bucket.isFull(t0));
+        assertFalse(bucket.isFull(t0 + 3 * INTERVAL - 1));
+        assertTrue(bucket.isFull(t0 + 3 * INTERVAL));
+    }
+
+    /**
+     * Test that Retry-After rounds the wait up to whole seconds and is never 0
+     */
+    @Test
+    void testRetryAfterSeconds() {
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(0));
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(INTERVAL));
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(2, RateLimitFilter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1) + 1));
+        assertEquals(5, RateLimitFilter.retryAfterSeconds(TimeUnit.MILLISECONDS.toNanos(4_500)));
+    }
+
+    /**
+     * Test that a sweep drops only full buckets and runs at most once a second
+     */
+    @Test
+    void testSweep() {
+        limit.bucketFor("idle", t0).tryAcquire(t0);
+        drained(t0);
+        assertEquals(2, limit.trackedClients());
+
+        // "idle" has refilled, the drained client has not
+        limit.sweep(t0 + 2 * INTERVAL);
+        assertEquals(1, limit.trackedClients());
+
+        // Within a second of the last sweep nothing is dropped, though both are full by now
+        limit.bucketFor("late", t0).tryAcquire(t0 + 2 * INTERVAL);
+        limit.sweep(t0 + 10 * INTERVAL);
+        assertEquals(2, limit.trackedClients());
+
+        limit.sweep(t0 + 2 * INTERVAL + TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limit.trackedClients());
+    }
+
+    /**
+     * Test that a dropped client starts again with a full burst
+     */
+    @Test
+    void testSweptClientStartsFull() {
+        drained(t0);
+        long later = t0 + TimeUnit.SECONDS.toNanos(2);
+        limit.sweep(later);
+        assertEquals(0, limit.trackedClients());
+
+        RateLimitFilter.Bucket bucket = limit.bucketFor("client", later);
+        drain(bucket, later);
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+    }
+
+    private RateLimitFilter.Bucket drained(long now) {
+        RateLimitFilter.Bucket bucket = limit.bucketFor("client", now);
+        drain(bucket, now);
+        return bucket;
+    }
+
+    private static void drain(RateLimitFilter.Bucket bucket, long now) {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for read-replica routing
+ * Uses two in-memory H2 databases as primary and replica
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+        replica = pool("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+        routing = new ReplicaRoutingDataSource(primary, replica);
+        ReplicaRoutingContext.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingContext.reset();
+        primary.close();
+        replica.close();
+    }
+
+    /**
+     * Test that connections default to the primary
+     */
+    @Test
+    void testDefaultsToPrimary() throws SQLException {
+        assertEquals("jdbc:h2:mem:primary", currentUrl());
+    }
+
+    /**
+     * Test that read-only sections use the replica
+     */
+    @Test
+    void testReadOnlyUsesReplica() throws SQLException {
+        ReplicaRoutingContext.enterReadOnly();
+        try {
+            assertEquals("jdbc:h2:mem:replica", currentUrl());
+        } finally {
+            ReplicaRoutingContext.exitReadOnly();
+        }
+        assertEquals("jdbc:h2:mem:primary", currentUrl());
+    }
+
+    /**
+     * Test read-your-writes: reads after a write stay on the primary until reset
+     */
+    @Test
+    void testPinnedAfterWrite() throws SQLException {
+        ReplicaRoutingContext.pinToPrimary();
+        ReplicaRoutingContext.enterReadOnly();
+        try {
+            assertEquals("jdbc:h2:mem:primary", currentUrl());
+        } finally {
+            ReplicaRoutingContext.exitReadOnly();
+        }
+
+        ReplicaRoutingContext.reset();
+        ReplicaRoutingContext.enterReadOnly();
+        try {
+            assertEquals("jdbc:h2:mem:replica", currentUrl());
+        } finally {
+            ReplicaRoutingContext.exitReadOnly();
+        }
+    }
+
+    /**
+     * Test that reads run on the primary inside a read-only section, and routing is restored after
+     */
+    @Test
+    void testOnPrimaryInsideReadOnly() throws SQLException {
+        ReplicaRoutingContext.enterReadOnly();
+        try {
+            assertEquals("jdbc:h2:mem:primary", ReplicaRoutingContext.onPrimary(this::currentUrl));
+            assertEquals("jdbc:h2:mem:replica", currentUrl());
+        } finally {
+            ReplicaRoutingContext.exitReadOnly();
+        }
+        assertFalse(ReplicaRoutingContext.isPinnedToPrimary());
+    }
+
+    private String currentUrl() throws SQLException {
+        try (Connection conn = routing.getConnection()) {
+            return conn.getMetaData().getURL();
+        }
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
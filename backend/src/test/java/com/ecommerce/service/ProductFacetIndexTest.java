@@ -0,0 +1,187 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the facet index's filters, counts and sort orders
+ * Builds the index over a fixed product list with price ranges split at 25, 50 and 100
+ */
+class ProductFacetIndexTest {
+
+    private static final BigDecimal[] BOUNDS = {
+            new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100")};
+
+    private ProductFacetIndex.Index index;
+
+    @BeforeEach
+    void setUp() {
+        // In findAll order, newest first
+        index = new ProductFacetIndex.Index(1, List.of(
+                product("Desk Lamp", "19.99", 5, "Lighting"),
+                product("armchair", "50.00", 0, "Furniture"),
+                product("Bookshelf", "25.00", 2, "Furniture"),
+                product("Ceiling Fan", "99.99", 1, "Lighting"),
+                product("Sofa", "100.00", 3, "Furniture"),
+                product("Cable", null, 10, null),
+                product("Zebra Rug", "50.00", 4, "Decor")), BOUNDS);
+    }
+
+    /**
+     * Test that each facet is counted without its own filter but with the others
+     */
+    @Test
+    void testDisjunctiveCounts() {
+        BitSet categories = index.categoryFilter(List.of("Furniture"));
+        BitSet stock = index.stockFilter(true);
+
+        Map<String, Object> facets = index.facets(categories, null, stock);
+
+        // Other categories stay countable while Furniture is selected; no category is not a value
+        assertEquals(List.of(
+                Map.of("value", "Decor", "count", 1),
+                Map.of("value", "Furniture", "count", 2),
+                Map.of("value", "Lighting", "count", 2)), facets.get("categories"));
+        assertEquals(List.of(0, 1, 0, 1), counts(facets.get("price")));
+        assertEquals(Map.of("inStock", 2, "outOfStock", 1), facets.get("stock"));
+    }
+
+    /**
+     * Test the price range labels and bounds, open at both ends
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPriceRangeLabels() {
+        List<Map<String, Object>> ranges = (List<Map<String, Object>>) index.facets(null, null, null).get("price");
+        assertEquals(List.of("Under 25", "25 - 50", "50 - 100", "100 and above"),
+                ranges.stream().map(range -> range.get("label")).toList());
+        assertNull(ranges.get(0).get("min"));
+        assertEquals(new BigDecimal("25"), ranges.get(1).get("min"));
+        assertNull(ranges.get(3).get("max"));
+        assertEquals(List.of(2, 1, 3, 1), counts(ranges));
+    }
+
+    /**
+     * Test that a bound belongs to the range above it and a missing price counts as 0
+     */
+    @Test
+    void testRangeEdges() {
+        assertEquals(0, index.rangeOf(BigDecimal.ZERO));
+        assertEquals(0, index.rangeOf(new BigDecimal("24.99")));
+        assertEquals(1, index.rangeOf(new BigDecimal("25")));
+        assertEquals(1, index.rangeOf(new BigDecimal("49.99")));
+        assertEquals(2, index.rangeOf(new BigDecimal("50.000")));
+        assertEquals(3, index.rangeOf(new BigDecimal("100")));
+        assertEquals(3, index.rangeOf(new BigDecimal("1000000")));
+
+        assertEquals(List.of("Desk Lamp", "Cable"), names(newest(index.priceFilter(List.of(0), null, null))));
+        assertEquals(List.of("Bookshelf"), names(newest(index.priceFilter(List.of(1), null, null))));
+    }
+
+    /**
+     * Test the binary searches on ties, exact hits and both ends
+     * Sorted prices: 0, 19.99, 25, 50, 50, 99.99, 100
+     */
+    @Test
+    void testFirstAtLeastAndFirstAbove() {
+        assertEquals(3, index.firstAtLeast(new BigDecimal("50")));
+        assertEquals(5, index.firstAbove(new BigDecimal("50")));
+        assertEquals(3, index.firstAtLeast(new BigDecimal("49.99")));
+        assertEquals(3, index.firstAbove(new BigDecimal("49.99")));
+        assertEquals(2, index.firstAtLeast(new BigDecimal("25.00")));
+        assertEquals(3, index.firstAbove(new BigDecimal("25.00")));
+
+        assertEquals(0, index.firstAtLeast(BigDecimal.ZERO));
+        assertEquals(0, index.firstAbove(new BigDecimal("-1")));
+        assertEquals(1, index.firstAbove(BigDecimal.ZERO));
+        assertEquals(7, index.firstAtLeast(new BigDecimal("100.01")));
+        assertEquals(7, index.firstAbove(new BigDecimal("100")));
+    }
+
+    /**
+     * Test that min and max price are inclusive and combine with the range filter
+     */
+    @Test
+    void testPriceFilter() {
+        assertEquals(List.of("armchair", "Bookshelf", "Zebra Rug"),
+                names(newest(index.priceFilter(null, new BigDecimal("25"), new BigDecimal("50")))));
+        assertEquals(List.of("Ceiling Fan", "Sofa"),
+                names(newest(index.priceFilter(null, new BigDecimal("50.01"), null))));
+        assertEquals(List.of("Desk Lamp", "Cable"),
+                names(newest(index.priceFilter(null, null, new BigDecimal("24.99")))));
+        assertEquals(List.of("Ceiling Fan"),
+                names(newest(index.priceFilter(List.of(2), new BigDecimal("60"), null))));
+        assertTrue(newest(index.priceFilter(null, new BigDecimal("60"), new BigDecimal("40"))).isEmpty());
+        assertNull(index.priceFilter(List.of(), null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> index.priceFilter(List.of(4), null, null));
+        assertThrows(IllegalArgumentException.class, () -> index.priceFilter(List.of(-1), null, null));
+    }
+
+    /**
+     * Test a middle page under each sort order, with ties kept in catalog order
+     */
+    @Test
+    void testPagingUnderEachSort() {
+        BitSet all = index.select();
+        assertEquals(List.of("Bookshelf", "Ceiling Fan", "Sofa"),
+                names(index.page(all, ProductFacetIndex.Sort.NEWEST, 2, 3)));
+        assertEquals(List.of("Bookshelf", "armchair", "Zebra Rug"),
+                names(index.page(all, ProductFacetIndex.Sort.PRICE_ASC, 2, 3)));
+        assertEquals(List.of("Zebra Rug", "armchair", "Bookshelf"),
+                names(index.page(all, ProductFacetIndex.Sort.PRICE_DESC, 2, 3)));
+        assertEquals(List.of("Cable", "Ceiling Fan", "Desk Lamp"),
+                names(index.page(all, ProductFacetIndex.Sort.NAME, 2, 3)));
+    }
+
+    /**
+     * Test that the offset counts matches only, and the last page is partial or empty
+     */
+    @Test
+    void testPagingFilteredMatches() {
+        BitSet inStock = index.select(index.stockFilter(true));
+        assertEquals(List.of("Cable", "Desk Lamp", "Bookshelf", "Zebra Rug", "Ceiling Fan", "Sofa"),
+                names(index.page(inStock, ProductFacetIndex.Sort.PRICE_ASC, 0, 10)));
+        assertEquals(List.of("Sofa", "Zebra Rug"),
+                names(index.page(inStock, ProductFacetIndex.Sort.NAME, 4, 3)));
+        assertEquals(List.of("Zebra Rug"),
+                names(index.page(inStock, ProductFacetIndex.Sort.NEWEST, 5, 3)));
+        assertTrue(index.page(inStock, ProductFacetIndex.Sort.PRICE_DESC, 6, 3).isEmpty());
+    }
+
+    /**
+     * Test sort parsing: default, case and spacing, unknown values
+     */
+    @Test
+    void testSortParse() {
+        assertEquals(ProductFacetIndex.Sort.NEWEST, ProductFacetIndex.Sort.parse(null));
+        assertEquals(ProductFacetIndex.Sort.NEWEST, ProductFacetIndex.Sort.parse(" "));
+        assertEquals(ProductFacetIndex.Sort.PRICE_DESC, ProductFacetIndex.Sort.parse(" Price_Desc "));
+        assertThrows(IllegalArgumentException.class, () -> ProductFacetIndex.Sort.parse("rating"));
+    }
+
+    private List<Product> newest(BitSet filter) {
+        return index.page(index.select(filter), ProductFacetIndex.Sort.NEWEST, 0, Integer.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> counts(Object facet) {
+        return ((List<Map<String, Object>>) facet).stream().map(count -> count.get("count")).toList();
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+
+    private static Product product(String name, String price, int stock, String category) {
+        return new Product(name, null, price != null ? new BigDecimal(price) : null, stock, category);
+    }
+}
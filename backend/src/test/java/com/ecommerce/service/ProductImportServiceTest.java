@@ -0,0 +1,188 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the product import CSV parser and row validation
+ * Runs the reader on in-memory input; no database is involved
+ */
+class ProductImportServiceTest {
+
+    /**
+     * Test that header names are matched without case, underscores or dashes
+     */
+    @Test
+    void testHeaderNormalisation() throws IOException {
+        ProductImportService.RawRow row = firstRow("Name,Stock_Quantity,PRICE,image-url\nLamp,3,9.99,http://x\n");
+        assertEquals("Lamp", row.fields().get("name"));
+        assertEquals("3", row.fields().get("stockquantity"));
+        assertEquals("9.99", row.fields().get("price"));
+        assertEquals("http://x", row.fields().get("imageurl"));
+    }
+
+    /**
+     * Test that a byte order mark before the header is dropped
+     */
+    @Test
+    void testByteOrderMark() throws IOException {
+        ProductImportService.RawRow row = firstRow("\uFEFFid,name\n7,Lamp\n");
+        assertEquals("7", row.fields().get("id"));
+    }
+
+    /**
+     * Test that quoted fields keep separators and doubled quotes
+     */
+    @Test
+    void testQuotedFields() throws IOException {
+        ProductImportService.RawRow row = firstRow("name,description\n\"Lamp, desk\",\"Say \"\"hi\"\"\"\n");
+        assertEquals("Lamp, desk", row.fields().get("name"));
+        assertEquals("Say \"hi\"", row.fields().get("description"));
+    }
+
+    /**
+     * Test that a quoted line break stays in the field and rows are numbered by their first line
+     */
+    @Test
+    void testEmbeddedNewline() throws IOException {
+        try (ProductImportService.CsvRowReader reader = reader(
+                "name,description\nLamp,\"two\nlines\"\nChair,plain\n")) {
+            ProductImportService.RawRow first = reader.next();
+            assertEquals("two\nlines", first.fields().get("description"));
+            assertEquals(2, first.number());
+
+            ProductImportService.RawRow second = reader.next();
+            assertEquals("Chair", second.fields().get("name"));
+            assertEquals(4, second.number());
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     * Test CRLF line ends, blank lines, trimming and empty fields read as absent
+     */
+    @Test
+    void testLineEndsAndEmptyFields() throws IOException {
+        try (ProductImportService.CsvRowReader reader = reader("name,category\r\n\r\n Lamp ,\r\n")) {
+            ProductImportService.RawRow row = reader.next();
+            assertEquals("Lamp", row.fields().get("name"));
+            assertFalse(row.fields().containsKey("category"));
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     * Test that an unterminated quote fails with the line it started on
+     */
+    @Test
+    void testUnterminatedQuote() throws IOException {
+        try (ProductImportService.CsvRowReader reader = reader("name\nLamp\n\"open\nstill open\n")) {
+            reader.next();
+            IOException e = assertThrows(IOException.class, reader::next);
+            assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+        }
+    }
+
+    /**
+     * Test that a file without a header is refused
+     */
+    @Test
+    void testEmptyFile() {
+        assertThrows(IOException.class, () -> reader(""));
+    }
+
+    /**
+     * Test that a valid new product gets its fields and a placeholder image
+     */
+    @Test
+    void testValidRow() {
+        Product product = ProductImportService.toProduct(fields("name", "Desk Lamp", "price", "19.90",
+                "stockquantity", "5", "category", "Lighting"));
+        assertNull(product.getId());
+        assertEquals(new BigDecimal("19.90"), product.getPrice());
+        assertEquals(5, product.getStockQuantity());
+        assertEquals("Lighting", product.getCategory());
+        assertTrue(product.getImageUrl().contains("Desk+Lamp"), product.getImageUrl());
+    }
+
+    /**
+     * Test that trailing zeros beyond two decimals are accepted
+     */
+    @Test
+    void testPriceTrailingZeros() {
+        Product product = ProductImportService.toProduct(fields("name", "Lamp", "price", "1.500",
+                "stockquantity", "1"));
+        assertEquals(0, new BigDecimal("1.5").compareTo(product.getPrice()));
+    }
+
+    /**
+     * Test the price rejects: negative, too many decimals, too large, not a number
+     */
+    @Test
+    void testPriceRejects() {
+        assertRejected("price must be", "price", "-1");
+        assertRejected("price must be", "price", "1.005");
+        assertRejected("price must be", "price", "123456789");
+        assertRejected("price is not a number", "price", "abc");
+        assertRejected("price is required", "price", null);
+    }
+
+    /**
+     * Test the stock rejects: negative, beyond an int, fractional, missing
+     */
+    @Test
+    void testStockRejects() {
+        assertRejected("stock_quantity must be", "stockquantity", "-1");
+        assertRejected("stock_quantity must be", "stockquantity", "2147483648");
+        assertRejected("stock_quantity is not a whole number", "stockquantity", "1.5");
+        assertRejected("stockquantity is required", "stockquantity", null);
+    }
+
+    /**
+     * Test the other rejects: missing name, non-positive id, over-long fields
+     */
+    @Test
+    void testOtherRejects() {
+        assertRejected("name is required", "name", null);
+        assertRejected("id must be positive", "id", "0");
+        assertRejected("category is longer than 100", "category", "x".repeat(101));
+    }
+
+    private static void assertRejected(String reason, String field, String value) {
+        Map<String, String> row = fields("name", "Lamp", "price", "1.00", "stockquantity", "1");
+        if (value == null) {
+            row.remove(field);
+        } else {
+            row.put(field, value);
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ProductImportService.toProduct(row));
+        assertTrue(e.getMessage().startsWith(reason), e.getMessage());
+    }
+
+    private static Map<String, String> fields(String... namesAndValues) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            fields.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return fields;
+    }
+
+    private static ProductImportService.RawRow firstRow(String csv) throws IOException {
+        try (ProductImportService.CsvRowReader reader = reader(csv)) {
+            return reader.next();
+        }
+    }
+
+    private static ProductImportService.CsvRowReader reader(String csv) throws IOException {
+        return new ProductImportService.CsvRowReader(new StringReader(csv));
+    }
+}